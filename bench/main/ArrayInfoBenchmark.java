@@ -0,0 +1,51 @@
+package main;
+
+/*
+ * Benchmarks the ArrayInfo operations used by the built-in rules.
+ */
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ArrayInfoBenchmark
+{
+    private static final int[] ARRAY = {3, 1, 4, 1, 5, 9, 2, 6};
+    private static final int LENGTH = 60;
+
+    private ArrayInfo info;
+
+    @Setup
+    public void setUp()
+    {
+        info = new ArrayInfo(ARRAY, LENGTH);
+    } // end setUp
+
+    @Benchmark
+    public ArrayInfo create()
+    {
+        return new ArrayInfo(ARRAY, LENGTH);
+    } // end create
+
+    @Benchmark
+    public ArrayInfo copy()
+    {
+        return new ArrayInfo(info);
+    } // end copy
+
+    @Benchmark
+    public int removeBothEnds()
+    {
+        ArrayInfo work = new ArrayInfo(info);
+        work.removeFirstInArray();
+        work.removeLastInArray();
+        return work.getNum();
+    } // end removeBothEnds
+
+    @Benchmark
+    public boolean queries()
+    {
+        return info.contains(5) && info.indexOf(9) == 5 && info.isMax(9) && info.sumArray(2, 5) == 19;
+    } // end queries
+} // end ArrayInfoBenchmark
@@ -0,0 +1,86 @@
+package main;
+
+/*
+ * Inputs shared by the benchmarks: the names of the bundled puzzles and
+ * random grids with their clues for sizes the corpus doesn't have.
+ *
+ * A @Param list must be a constant, so CORPUS is written out here. The bench
+ * build runs main() to check it against PuzzleCatalog; when puzzles are added,
+ * it prints the list to paste in.
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+public class BenchPuzzles
+{
+    /** Every bundled puzzle as "RxC_N"; used as a @Param list. Must match catalogNames(). */
+    public static final String CORPUS =
+        "10x10_1,10x10_2,10x10_3,10x10_4,10x10_5,10x10_6,10x10_7,10x10_8,10x10_9,10x10_10,10x10_11," +
+        "15x15_1,15x15_2,15x15_3,15x15_4,15x15_5,15x15_6,15x15_7,15x15_8,15x15_9,15x15_10,15x15_11,15x15_12";
+
+    /** Reads a bundled puzzle.
+     * @param name The puzzle as "RxC_N"
+     * @return The puzzle
+     */
+    public static NonogramProblem load(String name) throws IOException
+    {
+        int[] key = parseName(name);
+        return new NonogramProblem(key[0], key[1], key[2]);
+    } // end load
+
+    /** Returns every puzzle of the application's catalog as "RxC_N", in catalog order.
+     * @return A list of puzzle names
+     * @throws IOException if the problem folder can't be scanned
+     */
+    public static List<String> catalogNames() throws IOException
+    {
+        List<String> names = new ArrayList<>();
+        for (PuzzleCatalog.Entry entry : PuzzleCatalog.getDefault().getEntries())
+            names.add(entry.getRowNum() + "x" + entry.getColNum() + "_" + entry.getNumber());
+        return names;
+    } // end catalogNames
+
+    /** Checks that CORPUS lists exactly the puzzles of the catalog.
+     *  Exits with status 1 and prints the list to use if it doesn't.
+     * @param args Not used
+     * @throws IOException if the problem folder can't be scanned
+     */
+    public static void main(String[] args) throws IOException
+    {
+        List<String> names = catalogNames();
+        String expected = String.join(",", names);
+        if (!expected.equals(CORPUS))
+        {
+            System.err.println("BenchPuzzles.CORPUS does not match the puzzle catalog. Use:");
+            System.err.println(expected);
+            System.exit(1);
+        } // end if
+        System.out.println("BenchPuzzles.CORPUS matches the " + names.size() + " puzzles of the catalog.");
+    } // end main
+
+    /** Splits "RxC_N" into {R, C, N}.
+     * @param name The puzzle name
+     * @return An integer array {rows, columns, number}
+     */
+    public static int[] parseName(String name)
+    {
+        String[] parts = name.split("[x_]");
+        return new int[] {Integer.parseInt(parts[0]), Integer.parseInt(parts[1]),
+                          Integer.parseInt(parts[2])};
+    } // end parseName
+
+    /** Makes a random puzzle whose clues are derived from a random grid.
+     * @param rows The number of rows
+     * @param cols The number of columns
+     * @param density The chance of a cell being True
+     * @param seed The seed of the random grid
+     * @return The puzzle with the grid as its solution
+     */
+    public static NonogramProblem random(int rows, int cols, double density, long seed)
+    {
+        PuzzleGenerator generator = new PuzzleGenerator(seed);
+        generator.setDensity(density);
+        return generator.generate(rows, cols);
+    } // end random
+} // end BenchPuzzles
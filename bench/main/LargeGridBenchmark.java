@@ -0,0 +1,44 @@
+package main;
+
+/*
+ * Benchmarks line logic on random grids much larger than the corpus.
+ * Search is off, so each run measures propagation until the grid is solved
+ * or line logic stalls.
+ */
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class LargeGridBenchmark
+{
+    @Param({"50", "200", "1000"})
+    public int size;
+
+    @Param({"0.7", "0.85"})
+    public double density;
+
+    @Param({"dp", "overlap"})
+    public String engine;
+
+    private NonogramProblem problem;
+
+    @Setup
+    public void setUp()
+    {
+        problem = BenchPuzzles.random(size, size, density, 42);
+    } // end setUp
+
+    @Benchmark
+    public SolveResult propagate()
+    {
+        NonogramSolution solution = new NonogramSolution(problem);
+        solution.setLineSolver(engine.equals("dp") ? new DynamicLineSolver() : new OverlapLineSolver());
+        solution.setSearchLimit(0);
+        return solution.solve();
+    } // end propagate
+} // end LargeGridBenchmark
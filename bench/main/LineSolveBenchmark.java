@@ -0,0 +1,100 @@
+package main;
+
+/*
+ * Benchmarks solving a single row/column with each engine, for a few
+ * representative clues and partially solved states. The fresh copy of the
+ * line that each engine solves in is made before every call, so allocation
+ * is counted against no engine.
+ *
+ *  Cells are written O for True, X for False and _ for Empty.
+ */
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LineSolveBenchmark
+{
+    // Clue and cells of each case, keyed by the case name.
+    private static final String[][] CASES = {
+        {"blank15",     "3,4,2",            "_______________"},
+        {"tight15",     "7,7",              "_______________"},
+        {"partial15",   "2,1,3,1",          "__O____X___O___"},
+        {"manyRuns30",  "1,2,1,3,1,2,1,1",  "______________________________"},
+        {"partial30",   "5,9,4",            "_____O_____XX_____O__________O"},
+        {"long100",     "10,20,5,15,8,3",   "____________________________________________________" +
+                                            "________O_______________________________________"},
+    };
+
+    @Param({"rules", "dp", "overlap"})
+    public String engine;
+
+    @Param({"blank15", "tight15", "partial15", "manyRuns30", "partial30", "long100"})
+    public String lineCase;
+
+    private int[] clue;                 // Row array of the case
+    private Status[] cells;             // Cells of the case before solving
+    private BitLine line;               // Cells of the case as a BitLine
+    private LineSolver solver;          // null for the built-in rules
+    private NonogramSolution rules;     // Solver holding the case as its only row
+    private BitLine work;               // Copy of line solved by a LineSolver
+    private Status[][] answer;          // Copy of cells solved by the rules
+    private ArrayInfo info;             // Fresh ArrayInfo for the rules
+
+    @Setup
+    public void setUp()
+    {
+        for (String[] c : CASES)
+        {
+            if (!c[0].equals(lineCase))
+                continue;
+            String[] numbers = c[1].split(",");
+            clue = new int[numbers.length];
+            for (int t = 0; t < numbers.length; t++)
+                clue[t] = Integer.parseInt(numbers[t]);
+            cells = new Status[c[2].length()];
+            for (int t = 0; t < cells.length; t++)
+                cells[t] = c[2].charAt(t) == 'O' ? Status.True
+                         : c[2].charAt(t) == 'X' ? Status.False : Status.Empty;
+        } // end for
+        line = BitLine.of(cells);
+        if (engine.equals("dp"))
+            solver = new DynamicLineSolver();
+        else if (engine.equals("overlap"))
+            solver = new OverlapLineSolver();
+
+        // A one-row puzzle so that findArraySolution has a solver to run in.
+        int[][] cols = new int[cells.length][];
+        Status[][] answer = new Status[1][cells.length];
+        for (int j = 0; j < cells.length; j++)
+        {
+            cols[j] = new int[0];
+            answer[0][j] = Status.False;
+        } // end for
+        rules = new NonogramSolution(new NonogramProblem(new int[][] {clue}, cols, answer));
+    } // end setUp
+
+    @Setup(Level.Invocation)
+    public void reset()
+    {
+        if (solver != null)
+            work = line.copy();
+        else
+        {
+            answer = new Status[][] {cells.clone()};
+            info = new ArrayInfo(clue, cells.length);
+        } // end if
+    } // end reset
+
+    @Benchmark
+    public Object solveLine()
+    {
+        if (solver != null)
+        {
+            solver.solveLine(clue, work);
+            return work;
+        } // end if
+        return rules.findArraySolution(RowCol.Row, 0, cells.length, answer, info);
+    } // end solveLine
+} // end LineSolveBenchmark
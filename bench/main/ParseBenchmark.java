@@ -0,0 +1,47 @@
+package main;
+
+/*
+ * Benchmarks reading a puzzle: from its text file, and from bytes already
+ * in memory so that only the tokenizer is measured.
+ */
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ParseBenchmark
+{
+    @Param({BenchPuzzles.CORPUS})
+    public String puzzle;
+
+    private int[] key;                  // {rows, columns, number} of the puzzle
+    private byte[] bytes;               // The puzzle file
+
+    @Setup
+    public void setUp() throws Exception
+    {
+        key = BenchPuzzles.parseName(puzzle);
+        String name = "Problem_" + key[0] + "x" + key[1];
+        bytes = Files.readAllBytes(new File(NonogramProblem.PROBLEM_DIR + name + "/" +
+                                            name + "_" + key[2] + ".txt").toPath());
+    } // end setUp
+
+    @Benchmark
+    public NonogramProblem readFile() throws Exception
+    {
+        return new NonogramProblem(key[0], key[1], key[2]);
+    } // end readFile
+
+    @Benchmark
+    public Status[][] parseBytes() throws Exception
+    {
+        PuzzleParser parser = new PuzzleParser(ByteBuffer.wrap(bytes));
+        int[][] rows = parser.readClues();
+        int[][] cols = parser.readClues();
+        return parser.readSolution(rows.length, cols.length);
+    } // end parseBytes
+} // end ParseBenchmark
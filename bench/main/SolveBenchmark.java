@@ -0,0 +1,38 @@
+package main;
+
+/*
+ * Benchmarks solving every bundled puzzle from scratch with each engine.
+ */
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SolveBenchmark
+{
+    @Param({BenchPuzzles.CORPUS})
+    public String puzzle;
+
+    @Param({"rules", "dp", "overlap"})
+    public String engine;
+
+    private NonogramProblem problem;
+
+    @Setup
+    public void setUp() throws Exception
+    {
+        problem = BenchPuzzles.load(puzzle);
+    } // end setUp
+
+    @Benchmark
+    public SolveResult solve()
+    {
+        NonogramSolution solution = new NonogramSolution(problem);
+        if (engine.equals("dp"))
+            solution.setLineSolver(new DynamicLineSolver());
+        else if (engine.equals("overlap"))
+            solution.setLineSolver(new OverlapLineSolver());
+        return solution.solve();
+    } // end solve
+} // end SolveBenchmark
@@ -18,7 +18,21 @@ public class ArrayInfo
         num = array.length;
         begIdx = 0;
         endIdx = size-1;
-        setSum();   // Calculate summation of numbers            
+        setSum();   // Calculate summation of numbers
+    }
+
+    /** Creates a copy of another array information object.
+     * @param other The ArrayInfo to copy
+     */
+    public ArrayInfo(ArrayInfo other)
+    {
+        thisArray = other.thisArray;    // Never modified in place, only replaced
+        arraySolved = other.arraySolved;
+        gridLen = other.gridLen;
+        num = other.num;
+        begIdx = other.begIdx;
+        endIdx = other.endIdx;
+        arraySum = other.arraySum;
     }
 
     /** Returns the current row/column array.
@@ -47,7 +61,8 @@ public class ArrayInfo
         setNum(newArray.length);  // Reduce the array size  
         setSum();
 
-        System.out.println("\t\tb = " + getBeg());
+        if (Trace.RULE)
+            Trace.println("\t\tb = " + getBeg());
     }
     
     /** Removes the last number in the row/column array. */
@@ -64,7 +79,8 @@ public class ArrayInfo
         setNum(newArray.length);  // Reduce the array size  
         setSum();
 
-        System.out.println("\t\te = " + getEnd());
+        if (Trace.RULE)
+            Trace.println("\t\te = " + getEnd());
     }
 
     /** Checks whether the array contains a number.
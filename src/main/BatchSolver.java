@@ -0,0 +1,367 @@
+package main;
+
+/*
+ * A class that solves every puzzle of a problem folder without the GUI.
+ *
+ * Puzzles are listed through PuzzleCatalog, solved with NonogramSolution on a
+ * fixed pool of worker threads, and checked with isCorrect(). One record per
+ * puzzle (wall time, loops, line solves, status) is written as CSV or JSON,
+ * in catalog order. With -cache, the dp/overlap engine is put behind one
+ * LineCache shared by all workers, and its hit/miss counts are printed. With
+ * -parallel, every search branches on one ForkJoinPool of that many threads.
+ *
+ *  java main.BatchSolver <problem folder> [-threads N] [-engine rules|dp|overlap]
+ *                        [-search trials] [-parallel N] [-cache entries]
+ *                        [-format csv|json] [-out file]
+ */
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+public class BatchSolver
+{
+    private static final String USAGE =
+        "Usage: java main.BatchSolver <problem folder> [-threads N] [-engine rules|dp|overlap] " +
+        "[-search trials] [-parallel N] [-cache entries] [-format csv|json] [-out file]";
+    private final int threads;          // Number of worker threads
+    private final String engine;        // Line solver: "rules", "dp" or "overlap"
+    private int searchLimit;            // Trial propagations allowed once line logic stalls
+    private ForkJoinPool searchPool;    // Pool every search branches on; null to search on the worker thread
+    private LineCache cache;            // Line results shared by every solve; null to solve every line
+
+    /** The outcome of solving one puzzle. */
+    public static class Record
+    {
+        private final PuzzleCatalog.Entry entry;
+        private final SolveStatus status;   // null if the puzzle could not be read or solved
+        private final boolean correct;      // true if the answer matches the stored solution
+        private final long nanos;           // Wall time of solve()
+        private final int loops, lineSolves;
+        private final String error;         // Message of the exception, or null
+
+        Record(PuzzleCatalog.Entry entry, SolveStatus status, boolean correct, long nanos,
+               int loops, int lineSolves, String error)
+        {
+            this.entry = entry;
+            this.status = status;
+            this.correct = correct;
+            this.nanos = nanos;
+            this.loops = loops;
+            this.lineSolves = lineSolves;
+            this.error = error;
+        } // end constructor
+
+        /** @return The catalog entry of the puzzle */
+        public PuzzleCatalog.Entry getEntry()
+        {
+            return entry;
+        } // end getEntry
+
+        /** @return How the solve ended; null if the puzzle could not be read */
+        public SolveStatus getStatus()
+        {
+            return status;
+        } // end getStatus
+
+        /** @return true if the answer matches the solution stored with the puzzle */
+        public boolean isCorrect()
+        {
+            return correct;
+        } // end isCorrect
+
+        /** @return The wall time of the solve in nanoseconds */
+        public long getNanos()
+        {
+            return nanos;
+        } // end getNanos
+
+        /** @return The number of loops run */
+        public int getLoopCount()
+        {
+            return loops;
+        } // end getLoopCount
+
+        /** @return The number of rows/columns solved */
+        public int getLineSolveCount()
+        {
+            return lineSolves;
+        } // end getLineSolveCount
+
+        /** @return The message of the error that stopped the solve, or null */
+        public String getError()
+        {
+            return error;
+        } // end getError
+    } // end Record
+
+    /** Creates a batch solver.
+     * @param threads The number of worker threads, at least 1
+     * @param engine The line solver to use: "rules" for the built-in rules, "dp" or "overlap"
+     */
+    public BatchSolver(int threads, String engine)
+    {
+        if (threads < 1)
+            throw new IllegalArgumentException("Threads must be 1 or more: " + threads);
+        if (!engine.equals("rules") && !engine.equals("dp") && !engine.equals("overlap"))
+            throw new IllegalArgumentException("Unknown engine: " + engine);
+        this.threads = threads;
+        this.engine = engine;
+        searchLimit = NonogramSolution.DEFAULT_SEARCH_LIMIT;
+    } // end constructor
+
+    /** Sets the search limit of every solve.
+     * @param maxTrials The trial propagations allowed once line logic stalls; 0 disables search
+     */
+    public void setSearchLimit(int maxTrials)
+    {
+        searchLimit = maxTrials;
+    } // end setSearchLimit
+
+    /** Sets the pool that every solve searches its branches on.
+     * @param pool A ForkJoinPool shared by all solves; null to search on the worker threads
+     */
+    public void setSearchPool(ForkJoinPool pool)
+    {
+        searchPool = pool;
+    } // end setSearchPool
+
+    /** Puts the line solver of every solve behind one shared LineCache.
+     * @param maxEntries The maximum number of lines to remember; 0 for no cache
+     * @throws IllegalArgumentException if the engine is "rules", which solves no line through a LineSolver
+     */
+    public void setCache(int maxEntries)
+    {
+        if (maxEntries <= 0)
+        {
+            cache = null;
+            return;
+        } // end if
+        if (engine.equals("rules"))
+            throw new IllegalArgumentException("The rules engine can't use a line cache");
+        LineSolver solver = engine.equals("dp") ? new DynamicLineSolver() : new OverlapLineSolver();
+        cache = new LineCache(solver, maxEntries);
+    } // end setCache
+
+    /** @return The shared LineCache, or null if there is none */
+    public LineCache getCache()
+    {
+        return cache;
+    } // end getCache
+
+    /** Solves puzzles on the worker threads.
+     * @param entries The puzzles to solve
+     * @return One record per puzzle, in the order of entries
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public List<Record> run(List<PuzzleCatalog.Entry> entries) throws InterruptedException
+    {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try
+        {
+            List<Future<Record>> futures = new ArrayList<>(entries.size());
+            for (PuzzleCatalog.Entry entry : entries)
+                futures.add(pool.submit(() -> solve(entry)));
+            List<Record> records = new ArrayList<>(entries.size());
+            for (Future<Record> future : futures)
+            {
+                try
+                {
+                    records.add(future.get());
+                }
+                catch (ExecutionException ex)
+                {
+                    throw new IllegalStateException(ex.getCause());    // solve() catches its own errors
+                } // end try
+            } // end for
+            return records;
+        }
+        finally
+        {
+            pool.shutdownNow();
+        } // end try
+    } // end run
+
+    /** Solves one puzzle.
+     *  Anything thrown while loading or solving it, errors included, is kept in the record,
+     *  so one bad puzzle doesn't stop the batch.
+     * @param entry The puzzle to solve
+     * @return The record of the solve
+     */
+    public Record solve(PuzzleCatalog.Entry entry)
+    {
+        try
+        {
+            NonogramSolution solution = new NonogramSolution(entry.load());
+            if (cache != null)
+                solution.setLineSolver(cache);
+            else if (engine.equals("dp"))
+                solution.setLineSolver(new DynamicLineSolver());
+            else if (engine.equals("overlap"))
+                solution.setLineSolver(new OverlapLineSolver());
+            solution.setSearchLimit(searchLimit);
+            solution.setSearchPool(searchPool);
+            long start = System.nanoTime();
+            SolveResult result = solution.solve();
+            long nanos = System.nanoTime() - start;
+            return new Record(entry, result.getStatus(), solution.isCorrect(), nanos,
+                              result.getLoopCount(), result.getLineSolveCount(), null);
+        }
+        catch (Throwable ex)
+        {
+            return new Record(entry, null, false, 0, 0, 0, ex.toString());
+        } // end try
+    } // end solve
+
+    /** Writes records as CSV with a header line.
+     * @param records The records to write
+     * @param out The destination
+     * @throws IOException if writing fails
+     */
+    public static void writeCsv(List<Record> records, Writer out) throws IOException
+    {
+        out.write("rows,cols,number,status,correct,ms,loops,lineSolves,error\n");
+        for (Record rec : records)
+        {
+            out.write(rec.entry.getRowNum() + "," + rec.entry.getColNum() + "," +
+                      rec.entry.getNumber() + "," + (rec.status == null ? "Error" : rec.status) + "," +
+                      rec.correct + "," + String.format("%.3f", rec.nanos / 1e6) + "," +
+                      rec.loops + "," + rec.lineSolves + "," +
+                      (rec.error == null ? "" : "\"" + rec.error.replace("\"", "\"\"") + "\"") + "\n");
+        } // end for
+        out.flush();
+    } // end writeCsv
+
+    /** Writes records as a JSON array of objects.
+     * @param records The records to write
+     * @param out The destination
+     * @throws IOException if writing fails
+     */
+    public static void writeJson(List<Record> records, Writer out) throws IOException
+    {
+        out.write("[\n");
+        for (int t = 0; t < records.size(); t++)
+        {
+            Record rec = records.get(t);
+            out.write("  {\"rows\": " + rec.entry.getRowNum() + ", \"cols\": " + rec.entry.getColNum() +
+                      ", \"number\": " + rec.entry.getNumber() +
+                      ", \"status\": \"" + (rec.status == null ? "Error" : rec.status) + "\"" +
+                      ", \"correct\": " + rec.correct +
+                      ", \"ms\": " + String.format("%.3f", rec.nanos / 1e6) +
+                      ", \"loops\": " + rec.loops + ", \"lineSolves\": " + rec.lineSolves +
+                      (rec.error == null ? "" : ", \"error\": \"" + jsonEscape(rec.error) + "\"") +
+                      "}" + (t < records.size() - 1 ? "," : "") + "\n");
+        } // end for
+        out.write("]\n");
+        out.flush();
+    } // end writeJson
+
+    /**
+     * @param args The problem folder followed by options
+     */
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        if (args.length == 0)
+        {
+            System.out.println(USAGE);
+            return;
+        } // end if
+        int threads = Runtime.getRuntime().availableProcessors();
+        String engine = "rules";
+        String format = "csv";
+        String outFile = null;
+        int searchLimit = NonogramSolution.DEFAULT_SEARCH_LIMIT;
+        int cacheEntries = 0;
+        int searchThreads = 0;
+        BatchSolver batch = null;
+        try
+        {
+            for (int t = 1; t < args.length; t += 2)
+            {
+                if (t + 1 == args.length)
+                    throw new IllegalArgumentException("No value for option: " + args[t]);
+                if (args[t].equals("-threads"))
+                    threads = Integer.parseInt(args[t + 1]);
+                else if (args[t].equals("-engine"))
+                    engine = args[t + 1];
+                else if (args[t].equals("-search"))
+                    searchLimit = Integer.parseInt(args[t + 1]);
+                else if (args[t].equals("-parallel"))
+                    searchThreads = Integer.parseInt(args[t + 1]);
+                else if (args[t].equals("-cache"))
+                    cacheEntries = Integer.parseInt(args[t + 1]);
+                else if (args[t].equals("-format"))
+                    format = args[t + 1];
+                else if (args[t].equals("-out"))
+                    outFile = args[t + 1];
+                else
+                    throw new IllegalArgumentException("Unknown option: " + args[t]);
+            } // end for
+            if (!format.equals("csv") && !format.equals("json"))
+                throw new IllegalArgumentException("Unknown format: " + format);
+            batch = new BatchSolver(threads, engine);
+            batch.setSearchLimit(searchLimit);
+            batch.setCache(cacheEntries);
+            if (searchThreads < 0)
+                throw new IllegalArgumentException("Search threads must be 0 or more: " + searchThreads);
+            if (searchThreads > 0)
+                batch.setSearchPool(new ForkJoinPool(searchThreads));
+        }
+        catch (IllegalArgumentException ex)
+        {
+            System.err.println(ex.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        } // end try
+
+        List<PuzzleCatalog.Entry> entries = PuzzleCatalog.load(new File(args[0])).getEntries();
+        long start = System.nanoTime();
+        List<Record> records = batch.run(entries);
+        long nanos = System.nanoTime() - start;
+
+        Writer out = (outFile == null) ? new OutputStreamWriter(System.out)
+                                       : new BufferedWriter(new FileWriter(outFile));
+        if (format.equals("json"))
+            writeJson(records, out);
+        else
+            writeCsv(records, out);
+        if (outFile != null)
+            out.close();
+
+        int solved = 0;
+        int correct = 0;
+        for (Record rec : records)
+        {
+            if (rec.status == SolveStatus.Solved)
+                solved++;
+            if (rec.correct)
+                correct++;
+        } // end for
+        System.err.println(records.size() + " puzzles, " + solved + " solved, " + correct +
+                           " correct in " + nanos / 1000000 + " ms on " + threads + " threads");
+        if (batch.getCache() != null)
+            System.err.println(batch.getCache());
+        if (RuleStats.ENABLED)
+            System.err.print(RuleStats.report());
+    } // end main
+
+    // Escapes quotes, backslashes and control characters for a JSON string.
+    private static String jsonEscape(String text)
+    {
+        StringBuilder result = new StringBuilder(text.length());
+        for (char ch : text.toCharArray())
+        {
+            if (ch == '"' || ch == '\\')
+                result.append('\\').append(ch);
+            else if (ch < ' ')
+                result.append(String.format("\\u%04x", (int) ch));
+            else
+                result.append(ch);
+        } // end for
+        return result.toString();
+    } // end jsonEscape
+} // end BatchSolver
@@ -0,0 +1,183 @@
+package main;
+
+/*
+ * A class that represents the m x n grid of a Nonogram puzzle.
+ * Each row is stored as a BitLine; columns are gathered from the rows on demand.
+ */
+
+public class BitGrid
+{
+    private final int m, n;             // size of row and column, respectively
+    private final BitLine[] rows;       // Bit-packed rows of the grid
+
+    /** Creates a grid of Empty cells.
+     * @param rowNum The number of rows
+     * @param colNum The number of columns
+     */
+    public BitGrid(int rowNum, int colNum)
+    {
+        m = rowNum;
+        n = colNum;
+        rows = new BitLine[m];
+        for (int i = 0; i < m; i++)
+            rows[i] = new BitLine(n);
+    } // end constructor
+
+    // Copy constructor.
+    private BitGrid(BitGrid other)
+    {
+        m = other.m;
+        n = other.n;
+        rows = new BitLine[m];
+        for (int i = 0; i < m; i++)
+            rows[i] = other.rows[i].copy();
+    } // end copy constructor
+
+    /** Creates a grid from a 2D array of Status.
+     * @param cells A 2D array of Status of each cell
+     * @return A new grid containing the same cells
+     */
+    public static BitGrid of(Status[][] cells)
+    {
+        int colNum = cells.length == 0 ? 0 : cells[0].length;
+        BitGrid grid = new BitGrid(cells.length, colNum);
+        for (int i = 0; i < cells.length; i++)
+            grid.rows[i] = BitLine.of(cells[i]);
+        return grid;
+    } // end of
+
+    /** Returns an independent copy of this grid.
+     * @return A new grid containing the same cells
+     */
+    public BitGrid copy()
+    {
+        return new BitGrid(this);
+    } // end copy
+
+    /** Overwrites this grid with the cells of another grid of the same size.
+     * @param other The grid to copy from
+     */
+    public void copyFrom(BitGrid other)
+    {
+        assert other.m == m && other.n == n;
+        for (int i = 0; i < m; i++)
+            rows[i].copyFrom(other.rows[i]);
+    } // end copyFrom
+
+    /** Returns the number of rows.
+     * @return An integer containing the number of rows
+     */
+    public int getRowNum()
+    {
+        return m;
+    } // end getRowNum
+
+    /** Returns the number of columns.
+     * @return An integer containing the number of columns
+     */
+    public int getColNum()
+    {
+        return n;
+    } // end getColNum
+
+    /** Returns the status of cell (i, j).
+     * @param i An integer containing an index of row component
+     * @param j An integer containing an index of column component
+     * @return The Status of the cell
+     */
+    public Status get(int i, int j)
+    {
+        return rows[i].get(j);
+    } // end get
+
+    /** Sets the status of cell (i, j).
+     * @param i An integer containing an index of row component
+     * @param j An integer containing an index of column component
+     * @param stat The new Status of the cell
+     */
+    public void set(int i, int j, Status stat)
+    {
+        rows[i].set(j, stat);
+    } // end set
+
+    /** Returns row i. The returned line is backed by this grid.
+     * @param i An integer containing an index of row component
+     * @return The BitLine of row i
+     */
+    public BitLine getRow(int i)
+    {
+        return rows[i];
+    } // end getRow
+
+    /** Returns a copy of column j.
+     * @param j An integer containing an index of column component
+     * @return A new BitLine containing the cells of column j
+     */
+    public BitLine getColumn(int j)
+    {
+        BitLine column = new BitLine(m);
+        for (int i = 0; i < m; i++)
+            column.set(i, rows[i].get(j));
+        return column;
+    } // end getColumn
+
+    /** Returns a copy of row or column idx.
+     * @param rowcol  Indicator whether a row or a column is requested
+     * @param idx The index of row/column
+     * @return A new BitLine containing the cells of the line
+     */
+    public BitLine getLine(RowCol rowcol, int idx)
+    {
+        if (rowcol == RowCol.Row)
+            return rows[idx].copy();
+        return getColumn(idx);
+    } // end getLine
+
+    /** Overwrites row or column idx with the given line.
+     * @param rowcol  Indicator whether a row or a column is written
+     * @param idx The index of row/column
+     * @param line The new cells of the line
+     */
+    public void setLine(RowCol rowcol, int idx, BitLine line)
+    {
+        if (rowcol == RowCol.Row)
+            rows[idx].copyFrom(line);
+        else
+            for (int i = 0; i < m; i++)
+                rows[i].set(idx, line.get(i));
+    } // end setLine
+
+    /** Returns the number of cells with the given Status in the grid.
+     * @param stat The Status to count
+     * @return The number of cells of stat
+     */
+    public int count(Status stat)
+    {
+        int result = 0;
+        for (BitLine row : rows)
+            result += row.count(stat);
+        return result;
+    } // end count
+
+    /** Returns true if no cell in the grid is Empty.
+     * @return true if every cell is either True or False
+     */
+    public boolean isComplete()
+    {
+        for (BitLine row : rows)
+            if (!row.isComplete())
+                return false;
+        return true;
+    } // end isComplete
+
+    /** Returns the status of each cell as a 2D array.
+     * @return A 2D array of Status of each cell
+     */
+    public Status[][] toArray()
+    {
+        Status[][] result = new Status[m][];
+        for (int i = 0; i < m; i++)
+            result[i] = rows[i].toArray();
+        return result;
+    } // end toArray
+} // end BitGrid
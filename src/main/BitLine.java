@@ -0,0 +1,408 @@
+package main;
+
+/*
+ * A class that represents a row or a column of the grid as a pair of bitmasks.
+ *
+ *  True bits:  cells known to be filled.
+ *  False bits: cells known to be not filled.
+ *  A cell whose bit is set in neither mask is Empty.
+ *
+ * Lines up to 64 cells are kept in two longs; longer lines use two long arrays.
+ * Counting and scanning for a Status is done a word at a time with popcount
+ * and leading/trailing zero counts instead of one cell at a time.
+ */
+
+import java.util.Arrays;
+public class BitLine
+{
+    private static final int WORD = 64;   // Number of cells in a word
+
+    private final int len;              // Number of cells in the line
+    private long trueWord, falseWord;   // Masks when len <= 64
+    private final long[] trueWords;     // Masks when len > 64, null otherwise
+    private final long[] falseWords;
+
+    /** Creates a line of Empty cells.
+     * @param length The number of cells in the line
+     */
+    public BitLine(int length)
+    {
+        len = length;
+        if (length > WORD)
+        {
+            int numWords = (length + WORD - 1) / WORD;
+            trueWords = new long[numWords];
+            falseWords = new long[numWords];
+        }
+        else
+        {
+            trueWords = null;
+            falseWords = null;
+        } // end if
+    } // end constructor
+
+    // Copy constructor.
+    private BitLine(BitLine other)
+    {
+        len = other.len;
+        trueWord = other.trueWord;
+        falseWord = other.falseWord;
+        trueWords = other.trueWords == null ? null : other.trueWords.clone();
+        falseWords = other.falseWords == null ? null : other.falseWords.clone();
+    } // end copy constructor
+
+    /** Creates a line from an array of Status.
+     * @param cells An array of Status of each cell
+     * @return A new line containing the same cells
+     */
+    public static BitLine of(Status[] cells)
+    {
+        BitLine line = new BitLine(cells.length);
+        for (int i = 0; i < cells.length; i++)
+            line.set(i, cells[i]);
+        return line;
+    } // end of
+
+    /** Returns an independent copy of this line.
+     * @return A new line containing the same cells
+     */
+    public BitLine copy()
+    {
+        return new BitLine(this);
+    } // end copy
+
+    /** Overwrites this line with the cells of another line of the same length.
+     * @param other The line to copy from
+     */
+    public void copyFrom(BitLine other)
+    {
+        assert other.len == len;
+        trueWord = other.trueWord;
+        falseWord = other.falseWord;
+        if (trueWords != null)
+        {
+            System.arraycopy(other.trueWords, 0, trueWords, 0, trueWords.length);
+            System.arraycopy(other.falseWords, 0, falseWords, 0, falseWords.length);
+        } // end if
+    } // end copyFrom
+
+    /** Returns the number of cells in this line.
+     * @return An integer containing the length of the line
+     */
+    public int length()
+    {
+        return len;
+    } // end length
+
+    /** Returns the status of a cell.
+     * @param i The index of the cell
+     * @return The Status of cell i
+     */
+    public Status get(int i)
+    {
+        if (i < 0 || i >= len)
+            throw new ArrayIndexOutOfBoundsException(i);
+        long bit = 1L << i;
+        long t, f;
+        if (trueWords == null)
+        {
+            t = trueWord;
+            f = falseWord;
+        }
+        else
+        {
+            t = trueWords[i >>> 6];
+            f = falseWords[i >>> 6];
+        } // end if
+        if ((t & bit) != 0)
+            return Status.True;
+        else if ((f & bit) != 0)
+            return Status.False;
+        return Status.Empty;
+    } // end get
+
+    /** Sets the status of a cell.
+     * @param i The index of the cell
+     * @param stat The new Status of cell i
+     */
+    public void set(int i, Status stat)
+    {
+        if (i < 0 || i >= len)
+            throw new ArrayIndexOutOfBoundsException(i);
+        long bit = 1L << i;
+        if (trueWords == null)
+        {
+            trueWord &= ~bit;
+            falseWord &= ~bit;
+            if (stat == Status.True)
+                trueWord |= bit;
+            else if (stat == Status.False)
+                falseWord |= bit;
+        }
+        else
+        {
+            int w = i >>> 6;
+            trueWords[w] &= ~bit;
+            falseWords[w] &= ~bit;
+            if (stat == Status.True)
+                trueWords[w] |= bit;
+            else if (stat == Status.False)
+                falseWords[w] |= bit;
+        } // end if
+    } // end set
+
+    /** Returns the number of cells with the given Status between from and to, inclusive.
+     * @param stat The Status to count
+     * @param from The first index of the range
+     * @param to The last index of the range
+     * @return The number of cells of stat in [from, to]; 0 if the range is empty
+     */
+    public int count(Status stat, int from, int to)
+    {
+        from = Math.max(from, 0);
+        to = Math.min(to, len - 1);
+        int result = 0;
+        for (int w = from >>> 6; from <= to && w <= to >>> 6; w++)
+            result += Long.bitCount(bits(stat, w) & rangeMask(w, from, to));
+        return result;
+    } // end count
+
+    /** Returns the number of cells with the given Status in the whole line.
+     * @param stat The Status to count
+     * @return The number of cells of stat
+     */
+    public int count(Status stat)
+    {
+        return count(stat, 0, len - 1);
+    } // end count
+
+    /** Returns true if no cell in the line is Empty.
+     * @return true if every cell is either True or False
+     */
+    public boolean isComplete()
+    {
+        return count(Status.True) + count(Status.False) == len;
+    } // end isComplete
+
+    /** Returns the index of the first cell with the given Status in [from, to].
+     * @param stat The Status to find
+     * @param from The first index of the range
+     * @param to The last index of the range
+     * @return The smallest index in [from, to] of stat;
+     *         to+1 if not found, or from if the range is empty
+     */
+    public int nextIndexOf(Status stat, int from, int to)
+    {
+        return nextIndex(stat, false, from, to);
+    } // end nextIndexOf
+
+    /** Returns the index of the first cell without the given Status in [from, to].
+     * @param stat The Status to skip
+     * @param from The first index of the range
+     * @param to The last index of the range
+     * @return The smallest index in [from, to] not of stat;
+     *         to+1 if not found, or from if the range is empty
+     */
+    public int nextIndexNotOf(Status stat, int from, int to)
+    {
+        return nextIndex(stat, true, from, to);
+    } // end nextIndexNotOf
+
+    /** Returns the index of the last cell with the given Status in [to, from].
+     * @param stat The Status to find
+     * @param from The last index of the range, where the search starts
+     * @param to The first index of the range
+     * @return The largest index in [to, from] of stat;
+     *         to-1 if not found, or from if the range is empty
+     */
+    public int prevIndexOf(Status stat, int from, int to)
+    {
+        return prevIndex(stat, false, from, to);
+    } // end prevIndexOf
+
+    /** Returns the index of the last cell without the given Status in [to, from].
+     * @param stat The Status to skip
+     * @param from The last index of the range, where the search starts
+     * @param to The first index of the range
+     * @return The largest index in [to, from] not of stat;
+     *         to-1 if not found, or from if the range is empty
+     */
+    public int prevIndexNotOf(Status stat, int from, int to)
+    {
+        return prevIndex(stat, true, from, to);
+    } // end prevIndexNotOf
+
+    /** Returns the index of the first cell at or after from whose Status differs from other.
+     * @param other A line of the same length to compare with
+     * @param from The first index to compare
+     * @return The smallest index >= from where the lines differ; length() if none
+     */
+    public int nextDifference(BitLine other, int from)
+    {
+        assert other.len == len;
+        for (int w = from >>> 6; from < len && w < numWords(); w++)
+        {
+            long diff = (trueBits(w) ^ other.trueBits(w)) | (falseBits(w) ^ other.falseBits(w));
+            diff &= -1L << Math.max(from - w * WORD, 0);
+            if (diff != 0)
+                return w * WORD + Long.numberOfTrailingZeros(diff);
+        } // end for
+        return len;
+    } // end nextDifference
+
+    /** Returns the word of the true mask.
+     * @param w The index of the word
+     * @return A long whose bit i is set if cell (64*w + i) is True
+     */
+    public long trueBits(int w)
+    {
+        return trueWords == null ? trueWord : trueWords[w];
+    } // end trueBits
+
+    /** Returns the word of the false mask.
+     * @param w The index of the word
+     * @return A long whose bit i is set if cell (64*w + i) is False
+     */
+    public long falseBits(int w)
+    {
+        return falseWords == null ? falseWord : falseWords[w];
+    } // end falseBits
+
+    /** Returns the number of words in each mask.
+     * @return An integer containing the number of words
+     */
+    public int numWords()
+    {
+        return trueWords == null ? 1 : trueWords.length;
+    } // end numWords
+
+    /** Returns the status of each cell as an array.
+     * @return An array of Status of each cell
+     */
+    public Status[] toArray()
+    {
+        Status[] result = new Status[len];
+        for (int i = 0; i < len; i++)
+            result[i] = get(i);
+        return result;
+    } // end toArray
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof BitLine))
+            return false;
+        BitLine other = (BitLine) obj;
+        if (trueWords == null)
+            return len == other.len && trueWord == other.trueWord
+                    && falseWord == other.falseWord;
+        return len == other.len && Arrays.equals(trueWords, other.trueWords)
+                && Arrays.equals(falseWords, other.falseWords);
+    } // end equals
+
+    @Override
+    public int hashCode()
+    {
+        if (trueWords == null)
+            return 31 * (31 * len + Long.hashCode(trueWord)) + Long.hashCode(falseWord);
+        return 31 * (31 * len + Arrays.hashCode(trueWords)) + Arrays.hashCode(falseWords);
+    } // end hashCode
+
+    /** Construct a string that shows the cells of this line.
+     * @return A String with O for True, X for False and _ for Empty cells.
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder result = new StringBuilder(2 * len);
+        for (int i = 0; i < len; i++)
+        {
+            switch (get(i))
+            {
+                case True:
+                    result.append("O ");
+                    break;
+                case False:
+                    result.append("X ");
+                    break;
+                default:
+                    result.append("_ ");
+                    break;
+            } // end switch
+        } // end for
+        return result.toString();
+    } // end toString
+
+    // Returns the bits of word w whose cells have the given Status.
+    private long bits(Status stat, int w)
+    {
+        long t = trueBits(w);
+        long f = falseBits(w);
+        switch (stat)
+        {
+            case True:
+                return t;
+            case False:
+                return f;
+            default:
+                return ~(t | f) & validMask(w);
+        } // end switch
+    } // end bits
+
+    // Returns the bits of word w that are inside the line.
+    private long validMask(int w)
+    {
+        int remaining = len - w * WORD;
+        return remaining >= WORD ? -1L : (1L << remaining) - 1;
+    } // end validMask
+
+    // Returns the bits of word w that are inside [from, to].
+    // Precondition: from <= to and word w overlaps [from, to]
+    private long rangeMask(int w, int from, int to)
+    {
+        int lo = Math.max(from - w * WORD, 0);
+        int hi = Math.min(to - w * WORD, WORD - 1);
+        long upper = hi == WORD - 1 ? -1L : (1L << (hi + 1)) - 1;
+        return upper & (-1L << lo);
+    } // end rangeMask
+
+    // Scans forward from 'from' for a cell of stat (or not of stat if negate).
+    private int nextIndex(Status stat, boolean negate, int from, int to)
+    {
+        if (from > to)
+            return from;
+        int lo = Math.max(from, 0);
+        int hi = Math.min(to, len - 1);
+        for (int w = lo >>> 6; lo <= hi && w <= hi >>> 6; w++)
+        {
+            long word = bits(stat, w);
+            if (negate)
+                word = ~word & validMask(w);
+            word &= rangeMask(w, lo, hi);
+            if (word != 0)
+                return w * WORD + Long.numberOfTrailingZeros(word);
+        } // end for
+        return to + 1;
+    } // end nextIndex
+
+    // Scans backward from 'from' for a cell of stat (or not of stat if negate).
+    private int prevIndex(Status stat, boolean negate, int from, int to)
+    {
+        if (from < to)
+            return from;
+        int lo = Math.max(to, 0);
+        int hi = Math.min(from, len - 1);
+        for (int w = hi >>> 6; lo <= hi && w >= lo >>> 6; w--)
+        {
+            long word = bits(stat, w);
+            if (negate)
+                word = ~word & validMask(w);
+            word &= rangeMask(w, lo, hi);
+            if (word != 0)
+                return w * WORD + (WORD - 1 - Long.numberOfLeadingZeros(word));
+        } // end for
+        return to - 1;
+    } // end prevIndex
+} // end BitLine
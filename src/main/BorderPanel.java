@@ -8,79 +8,111 @@ package main;
 
 import java.awt.BorderLayout;
 import java.awt.Color;
+import java.awt.Dimension;
 import java.awt.Graphics;
-import java.awt.event.*;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.MouseWheelListener;
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.swing.*;
-import java.util.Arrays;
 
 public class BorderPanel extends JPanel
 {
-    private final int DELAY = 1000;
-    private final Timer timer;
+    private final int DELAY = 1000;     // Time between steps at 1x speed
+    private final String[] SPEED_NAMES = {"0.25x", "0.5x", "1x", "2x", "4x", "16x", "64x"};
+    private final double[] SPEEDS = {0.25, 0.5, 1, 2, 4, 16, 64};
+    private final int[] ZOOMS = {1, 2, 3, 4, 6, 8, 12, 16, 20, 24, 32, 40, 48, 64};    // Cell sizes to zoom through
+    private final SolveWorker worker;   // Runs the solver off the event dispatch thread
+    private final SolvePlayback playback;   // Steps solved so far and the step shown
+    private final Timer timer;          // Moves the playback forward while playing
     private final GridPanel gp;
-    private final Status[][] answer;          // Answer that this solver produces
+    private final BoxPanel rowBox, colBox;  // Row/column arrays, zoomed with the grid
+    private final JScrollPane scroll;   // Shows the visible part of the grid and its arrays
     private final int m, n;             // size of row and column, respectively
     private final NonogramProblem newProblem;
     private final NonogramSolution newSolution;
     
-    private final ArrayInfo[] row_arrays;     // An array of array information objects for row arrays
-    private final ArrayInfo[] col_arrays;     // An array of array information objects for column arrays
     private final int[][] PROB_ROW;     // Row arrays of the problem
     private final int[][] PROB_COL;     // Column arrays of the problem 
     private boolean noEmpty = false;    // true if there is no empty cells
-    private int loopCount = 0;
     
     private boolean solved;
+    private boolean failed;             // true if the solver stopped with an error
+    private boolean reported;           // true once the result has been shown
     private String result;
     private JFrame frame;
+    private JButton playButton;
+    private JSlider loopSlider;         // Position of the playback
+    private JLabel loopLabel;
+    private JComboBox<String> speedCombo;
+    private boolean updating;           // true while the controls are set from the playback
+    //----------------------------------------------------------------------------
+    // Sets up this panel by reading a problem from its file.
+    //----------------------------------------------------------------------------
+    public BorderPanel(int rowNum, int colNum, int probNum, JFrame frame) throws IOException
+    {
+        this(new NonogramProblem(rowNum, colNum, probNum), probNum, frame);
+    }
+    
     //----------------------------------------------------------------------------
     // Sets up this panel with a button in each area of a border
     // layout to show how it affects their position, shape, and size.
+    // The problem is solved on a background thread and played back,
+    // one step every DELAY ms at 1x speed.
     //----------------------------------------------------------------------------
-    public BorderPanel(int rowNum, int colNum, int probNum, JFrame frame) throws IOException
+    public BorderPanel(NonogramProblem problem, int probNum, JFrame frame)
     {   
         this.frame = frame;
         
         // Parameters for the problem
-        newProblem = new NonogramProblem(rowNum, colNum, probNum);        
+        newProblem = problem;
         newSolution = new NonogramSolution(newProblem);
+        newSolution.setTrackChanges(true);    // Keep only the cells each step changes
         // Load problem definition from newProblem
         PROB_ROW = newProblem.getRowArray();
         PROB_COL = newProblem.getColumnArray();        
         m = newProblem.getRowArray().length;    // Row length of the problem
         n = newProblem.getColumnArray().length;    // Column length of the problem
-        row_arrays = new ArrayInfo[m];        
-        for (int i = 0; i < m; i++)
-            row_arrays[i] = new ArrayInfo(PROB_ROW[i], m);
-        col_arrays = new ArrayInfo[n];
-        for (int j = 0; j < n; j++)
-            col_arrays[j] = new ArrayInfo(PROB_COL[j], n);
-        
-        answer = new Status[m][n];
-        for (int i = 0; i < m; i++) // Initialize answer as Empty
-            for (int j = 0; j < n; j++)
-                answer[i][j] = Status.Empty;   
+        playback = new SolvePlayback(m, n);
         
         // Set up the border panel
         setLayout(new BorderLayout());        
         setBackground(Color.white);   
-        timer = new Timer(DELAY, new ReboundListener(this));                
         
-        gp = new GridPanel(m, n);
+        // Start zoomed so the whole grid fits an ordinary screen
+        int cellSize = GridPanel.fitCellSize(m, n);
+        gp = new GridPanel(m, n, cellSize);
         //gp.setBorder(BorderFactory.createLineBorder(Color.black, 1));
         //GridLayout layout = (GridLayout)gp.getLayout();
         //layout.setVgap(0);
         
         System.out.print("Row: ");
-        BoxPanel row = new BoxPanel(RowCol.Row, PROB_ROW, probNum);        
+        rowBox = new BoxPanel(RowCol.Row, PROB_ROW, cellSize);        
         System.out.print("Column: ");
-        BoxPanel column = new BoxPanel(RowCol.Column, PROB_COL, probNum);        
+        colBox = new BoxPanel(RowCol.Column, PROB_COL, cellSize);        
+        
+        scroll = new JScrollPane(gp);
+        scroll.setRowHeaderView(rowBox);
+        scroll.setColumnHeaderView(colBox);
+        scroll.setCorner(JScrollPane.UPPER_LEFT_CORNER, BoxPanel.createTitle(m, n, probNum));
+        scroll.setBorder(BorderFactory.createEmptyBorder());
+        scroll.getViewport().setBackground(Color.white);
+        gp.addMouseWheelListener(new ZoomListener());
         
-        add(gp, BorderLayout.CENTER);
-        add(column, BorderLayout.NORTH);
-        add(row, BorderLayout.WEST);
-        timer.start();       
+        add(scroll, BorderLayout.CENTER);
+        add(createControls(), BorderLayout.SOUTH);
+        
+        timer = new Timer(DELAY, new PlayListener());
+        timer.start();
+        worker = new SolveWorker();
+        worker.execute();
     }
     
     //-----------------------------------------------------------------
@@ -97,98 +129,269 @@ public class BorderPanel extends JPanel
        }
     }       
     
+    //-----------------------------------------------------------------
+    //  Stops solving and playing when this panel is taken off the screen.
+    //-----------------------------------------------------------------
+    @Override
+    public void removeNotify()
+    {
+        worker.cancel(true);
+        timer.stop();
+        super.removeNotify();
+    }
+    
+    // Creates the buttons, slider and speed choice that control the playback.
+    private JPanel createControls()
+    {
+        JPanel controls = new JPanel();
+        controls.setBackground(Colors.lightBlue);
+        ControlListener listener = new ControlListener();
+        String[] names = {"|<", "<", "Pause", ">", ">|"};
+        String[] tips = {"Go to the start", "Step back", "Play or pause",
+                         "Step forward", "Skip to the end"};
+        for (int t = 0; t < names.length; t++)
+        {
+            JButton button = new JButton(names[t]);
+            button.setForeground(Colors.navyBlue);
+            button.setToolTipText(tips[t]);
+            button.addActionListener(listener);
+            controls.add(button);
+            if (t == 2)
+                playButton = button;
+        } // end for
+        
+        loopSlider = new JSlider(0, 0, 0);
+        loopSlider.setBackground(Colors.lightBlue);
+        loopSlider.addChangeListener(e -> {
+            if (!updating)
+                show(playback.seek(loopSlider.getValue()));
+        });
+        controls.add(loopSlider);
+        loopLabel = new JLabel();
+        controls.add(loopLabel);
+        
+        for (String name : new String[] {"-", "+"})
+        {
+            JButton button = new JButton(name);
+            button.setForeground(Colors.navyBlue);
+            button.setToolTipText(name.equals("+") ? "Zoom in (Ctrl + wheel)" : "Zoom out (Ctrl + wheel)");
+            button.addActionListener(listener);
+            controls.add(button);
+        } // end for
+        
+        speedCombo = new JComboBox<>(SPEED_NAMES);
+        speedCombo.setSelectedItem("1x");
+        speedCombo.addActionListener(e ->
+            timer.setDelay((int) (DELAY / SPEEDS[speedCombo.getSelectedIndex()])));
+        controls.add(speedCombo);
+        updateControls();
+        return controls;
+    } // end createControls
+    
+    // Zooms the grid and its arrays in or out by a number of ZOOMS levels,
+    // keeping the cell at the center of the view in place.
+    private void zoom(int levels)
+    {
+        int oldSize = gp.getCellSize();
+        int level = 0;
+        while (level < ZOOMS.length - 1 && ZOOMS[level] < oldSize)
+            level++;
+        level = Math.max(0, Math.min(ZOOMS.length - 1, level + levels));
+        int newSize = ZOOMS[level];
+        if (newSize == oldSize)
+            return;
+        
+        JViewport viewport = scroll.getViewport();
+        Rectangle view = viewport.getViewRect();
+        double centerX = (view.x + view.width / 2.0) / oldSize;   // In cells
+        double centerY = (view.y + view.height / 2.0) / oldSize;
+        gp.setCellSize(newSize);
+        rowBox.setCellSize(newSize);
+        colBox.setCellSize(newSize);
+        scroll.validate();
+        
+        Dimension size = gp.getPreferredSize();
+        int x = (int) (centerX * newSize - view.width / 2.0);
+        int y = (int) (centerY * newSize - view.height / 2.0);
+        x = Math.max(0, Math.min(x, size.width - view.width));
+        y = Math.max(0, Math.min(y, size.height - view.height));
+        viewport.setViewPosition(new Point(x, y));
+    } // end zoom
+    
+    // Shows the cells changed by a move of the playback, and the result
+    // once the end of the solve is reached.
+    private void show(CellChanges changes)
+    {
+        gp.setCells(changes);
+        updateControls();
+        if (playback.isAtEnd())
+        {
+            timer.stop();
+            updateControls();
+            report();
+        } // end if
+    } // end show
+    
+    // Sets the slider, label and play button from the playback.
+    private void updateControls()
+    {
+        updating = true;
+        loopSlider.setMaximum(playback.size());
+        loopSlider.setValue(playback.getPosition());
+        loopLabel.setText("Loop " + playback.getPosition() + " / " + playback.size() +
+                          (playback.isFinished() ? "" : "+"));
+        playButton.setText(timer != null && timer.isRunning() ? "Pause" : "Play");
+        updating = false;
+    } // end updateControls
+    
+    // Shows the result of the solve the first time the end is reached.
+    private void report()
+    {
+        if (reported)
+            return;
+        reported = true;
+        noEmpty = true;
+        solved = !failed && newSolution.isCorrect();
+        System.out.println("Is the answer to the puzzle correct?: " + solved);
+        
+        if (solved)
+            result = "Solved!";
+        else
+            result = "Unable to solve";      
+        
+        int again = JOptionPane.showConfirmDialog(null, "Do Another?");                
+        if (again == JOptionPane.YES_OPTION) {
+            frame.remove(this);
+            JPanel tPanel = new DropDownPanel(frame);
+            frame.getContentPane().add(tPanel);
+            frame.pack();
+        }
+    } // end report
+    
     
     //*****************************************************************
-    //  Represents the action listener for the timer.
+    //  Runs the solver on a background thread and publishes the cells
+    //  changed by each step, so a long step never blocks the GUI.
     //*****************************************************************
-    private class ReboundListener implements ActionListener
+    private class SolveWorker extends SwingWorker<Void, CellChanges>
     {
-        JPanel panel;
-        public ReboundListener (JPanel panel) {
-            this.panel = panel;
-        }
+        //--------------------------------------------------------------
+        //  Solves until there is no work left.
+        //--------------------------------------------------------------
+        @Override
+        protected Void doInBackground()
+        {
+            boolean more = true;
+            while (more && !isCancelled())    // Keep solving arrays until there is no empty cell
+            {
+                // Solve the arrays queued for this loop
+                more = newSolution.step();
+                publish(newSolution.getLastChanges());
+            } // end while
+            return null;
+        } // end doInBackground
         
         //--------------------------------------------------------------
-        //  Updates the position of the image and possibly the direction
-        //  of movement whenever the timer fires an action event.
+        //  Adds the published steps to the playback.
         //--------------------------------------------------------------
         @Override
-        public void actionPerformed(ActionEvent event)
+        protected void process(List<CellChanges> steps)
         {
-            if (noEmpty)
+            if (isCancelled())
+                return;
+            for (CellChanges changes : steps)
+                playback.add(changes);
+            updateControls();
+        } // end process
+        
+        //--------------------------------------------------------------
+        //  Marks the end of the solve.
+        //--------------------------------------------------------------
+        @Override
+        protected void done()
+        {
+            if (isCancelled())
+                return;
+            try
             {
-                timer.stop();
-                solved = newSolution.isCorrect();
-                System.out.println("Is the answer to the puzzle correct?: " + solved);
-                
-                if (solved)
-                    result = "Solved!";
-                else
-                    result = "Unable to solve";      
-                
-                int again = JOptionPane.showConfirmDialog(null, "Do Another?");                
-                if (again == JOptionPane.YES_OPTION) {
-                    frame.remove(panel);
-                    JPanel tPanel = new DropDownPanel(frame);
-                    frame.getContentPane().add(tPanel);
-                    frame.pack();
-                }
+                get();
             }
-            else // if (!noEmpty)    // Keep solving arrays until there is no empty cell
-            {                 
-                System.out.println("==============================================" +
-                               "=========\n\t\t\tLoop "+ (loopCount+1) +
-                               "\n============================================" +
-                               "===========");
-                System.out.println("----------------------- Row - " + (loopCount+1) +
-                               " -----------------------"); 
-                for (int i = 0; i < m; i++) // Scan rows
-                {                
-                    if (!row_arrays[i].isSolved())
-                    {           
-                        System.out.println("Array " + Arrays.toString(PROB_ROW[i]) +
-                            " -> " + Arrays.toString(row_arrays[i].getArray()) + ":");
-                        Status[] temp = newSolution.findArraySolution(RowCol.Row,i, m, answer,row_arrays[i]);
-                        System.arraycopy(temp, 0, answer[i], 0, n); 
-                        //for (int j = 0; j < n; j++)
-                        //    answer[i][j] = temp[j]; 
-                    } // end if
-                    else
-                        System.out.println("Array " + Arrays.toString(PROB_ROW[i]) 
-                                           + " is solved.");
-                } // end for
-               
-                System.out.println("--------------------- Column - " + (loopCount+1) +
-                               " ---------------------");
-                noEmpty = true;     // initialize noEmpty every loop       
-                for (int j = 0; j < n; j++) // Scan columns
-                {
-                    if (!col_arrays[j].isSolved())
-                    {                        
-                        System.out.println("Array " + Arrays.toString(PROB_COL[j]) +
-                            "->" + Arrays.toString(col_arrays[j].getArray()) + ":");
-                        Status[] temp = newSolution.findArraySolution(RowCol.Column, j, n, answer, col_arrays[j]);
-                        for (int i = 0; i < n; i++)
-                        {
-                            answer[i][j] = temp[i]; 
-                            noEmpty = noEmpty && (answer[i][j] != Status.Empty);
-                        } // end for
-                    } // end if
-                    else                                    
-                        System.out.println("Array " + Arrays.toString(PROB_COL[j]) 
-                                           + " is solved.");
-                } // end for
-                
-                for (int i = 0; i < m; i++) // Scan rows
-                    for (int j = 0; j < n; j++) // Scan columns
-                    {
-                        if (answer[i][j] == Status.True)
-                            gp.makeTrue(i, j);
-                        else if (answer[i][j] == Status.False)
-                            gp.makeFalse(i, j);
-                    }
-                loopCount++;       // Good until Loop 10     
-            } // end if  
+            catch (InterruptedException | ExecutionException ex)
+            {
+                Logger.getLogger(BorderPanel.class.getName()).log(Level.SEVERE, null, ex);
+                failed = true;
+            } // end try
+            playback.finish();
+            updateControls();
+        } // end done
+    } // end SolveWorker     
+    
+    //*****************************************************************
+    //  Represents the action listener for the timer.
+    //*****************************************************************
+    private class PlayListener implements ActionListener
+    {
+        //--------------------------------------------------------------
+        //  Shows the next step, or the result once the last step has
+        //  been shown. Waits if the solver hasn't caught up.
+        //--------------------------------------------------------------
+        @Override
+        public void actionPerformed(ActionEvent event)
+        {
+            if (playback.getPosition() < playback.size() || playback.isFinished())
+                show(playback.stepForward());
         } // end actionPerformed
-    } // end ReboundListener     
+    } // end PlayListener
+    
+    //*****************************************************************
+    //  Represents the action listener for the playback buttons.
+    //*****************************************************************
+    private class ControlListener implements ActionListener
+    {
+        @Override
+        public void actionPerformed(ActionEvent event)
+        {
+            String command = event.getActionCommand();
+            if (command.equals("+") || command.equals("-"))
+            {
+                zoom(command.equals("+") ? 1 : -1);
+                return;
+            } // end if
+            if (command.equals("Play") || command.equals("Pause"))
+            {
+                if (timer.isRunning())
+                    timer.stop();
+                else if (!playback.isAtEnd())
+                    timer.start();
+                updateControls();
+                return;
+            } // end if
+            
+            timer.stop();   // Stepping and seeking pause the playback
+            if (command.equals("|<"))
+                show(playback.seek(0));
+            else if (command.equals("<"))
+                show(playback.stepBack());
+            else if (command.equals(">"))
+                show(playback.stepForward());
+            else if (command.equals(">|"))
+                show(playback.seek(playback.size()));
+        } // end actionPerformed
+    } // end ControlListener
+    
+    //*****************************************************************
+    //  Represents the mouse wheel listener of the grid: zooms with the
+    //  Ctrl key down and scrolls otherwise.
+    //*****************************************************************
+    private class ZoomListener implements MouseWheelListener
+    {
+        @Override
+        public void mouseWheelMoved(MouseWheelEvent event)
+        {
+            if (event.isControlDown())
+                zoom(-event.getWheelRotation());
+            else
+                scroll.dispatchEvent(SwingUtilities.convertMouseEvent(gp, event, scroll));
+        } // end mouseWheelMoved
+    } // end ZoomListener
 } // end BorderPanel
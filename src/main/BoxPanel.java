@@ -4,105 +4,166 @@ package main;
 //  BoxPanel.java      Author: Hyunryung Kim
 //
 //  Represents the row/column arrays.
+//  The arrays are painted by this one component, drawing only the rows/columns
+//  inside the clip, so it can be the header of a scroll pane over a large grid.
+//  Its cell size follows the zoom of the GridPanel. Arrays too long for
+//  MAX_DEPTH are drawn against the grid, and shown in full as a tool tip.
 //********************************************************************************
 
 import java.awt.*;
-import javax.swing.border.*;
-import java.util.Scanner;
+import java.awt.event.MouseEvent;
 import java.util.Arrays;
 import javax.swing.BorderFactory;
 import javax.swing.BoxLayout;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
-import javax.swing.SwingConstants;
 
 public class BoxPanel extends JPanel
 {
-    final int CELL_SIZE = 40;   
+    static final int CELL_SIZE = GridPanel.CELL_SIZE;
+    private static final int MIN_TEXT_SIZE = 16;    // Smaller cells show no numbers or borders
+    private static final int MAX_DEPTH = 240;       // Deepest the panel grows for long arrays
+    private final RowCol rc;            // Whether the arrays are of rows or of columns
+    private final int[][] arrays;       // Row/column arrays of the problem
     String[] strings;   // An array of strings containing row/col arrays.
+    private int cellSize;               // Width and height of a cell in pixels
+    private int depth;                  // Width of a row array or height of a column array
+    private Font font;
     //----------------------------------------------------------------------------
-    // Sets up this panel with row/column arrays.    
+    // Sets up this panel with row/column arrays.
     //----------------------------------------------------------------------------
-    public BoxPanel(RowCol rc, int[][] givenArrays, int probNum) 
-    {   
+    public BoxPanel(RowCol rc, int[][] givenArrays, int cellSize)
+    {
+        this.rc = rc;
+        arrays = givenArrays;
         strings = int2str(givenArrays);
-        setBackground(Color.white);        
-        // Get a list of arrays of row or column
-        JPanel[] panels;
-        if (rc == RowCol.Row)       
-            panels = createRow();                    
-        else
-        {
-            panels = createColumn();
-            // Add an empty panel in front            
-            JPanel p = new JPanel();   
-            p.setLayout(new BoxLayout(p,BoxLayout.Y_AXIS));
-            int aLen = givenArrays.length;
-            JLabel pLabel1 = new JLabel(Integer.toString(aLen) + " x " + aLen);
-            JLabel pLabel2 = new JLabel("Problem #" + probNum);
-            pLabel1.setFont(new Font("Calibri", Font.BOLD, 20));
-            pLabel2.setFont(new Font("Calibri", Font.BOLD, 20));
-            pLabel1.setAlignmentX(Component.CENTER_ALIGNMENT);
-            pLabel2.setAlignmentX(Component.CENTER_ALIGNMENT);
-            p.add(pLabel1);
-            p.add(pLabel2);
-            p.setBackground(Color.white);
-            p.setBorder(BorderFactory.createLineBorder(Color.white, 1));
-            p.setPreferredSize(new Dimension(3*CELL_SIZE,3*CELL_SIZE));            
-            add(p); 
-        }
-        
-        for (JPanel panel : panels) 
-            add(panel);                
-        
+        setBackground(Color.white);
+        setOpaque(true);
+        setToolTipText("");     // Tool tips come from getToolTipText(MouseEvent)
+        setCellSize(cellSize);
     } // end constructor
-    
-    // Returns an array of panels, each of which contains a row array.
-    private JPanel[] createRow()
-    {        
-        setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));         
-        JPanel[] panels = new JPanel[strings.length];
-        
-        for (int i = 0; i < strings.length; i++)
+
+    //----------------------------------------------------------------------------
+    // Returns a panel with the size and number of a problem, for the corner
+    // between the row and column arrays.
+    //----------------------------------------------------------------------------
+    public static JPanel createTitle(int rowNum, int colNum, int probNum)
+    {
+        JPanel p = new JPanel();
+        p.setLayout(new BoxLayout(p,BoxLayout.Y_AXIS));
+        JLabel pLabel1 = new JLabel(rowNum + " x " + colNum);
+        JLabel pLabel2 = new JLabel("Problem #" + probNum);
+        pLabel1.setFont(new Font("Calibri", Font.BOLD, 20));
+        pLabel2.setFont(new Font("Calibri", Font.BOLD, 20));
+        pLabel1.setAlignmentX(Component.CENTER_ALIGNMENT);
+        pLabel2.setAlignmentX(Component.CENTER_ALIGNMENT);
+        p.add(pLabel1);
+        p.add(pLabel2);
+        p.setBackground(Color.white);
+        p.setBorder(BorderFactory.createLineBorder(Color.white, 1));
+        return p;
+    } // end createTitle
+
+    /** Changes the size of the cells to follow the zoom of the grid.
+     *  The depth of the panel grows with the longest array, from 3 cells up to MAX_DEPTH.
+     * @param size The width and height of a cell in pixels, at least 1
+     */
+    public void setCellSize(int size)
+    {
+        cellSize = size;
+        font = new Font("Calibri", Font.PLAIN, Math.max(1, size / 2));
+        depth = 3 * size;
+        if (size >= MIN_TEXT_SIZE)
         {
-            JPanel p = new JPanel();
-            JLabel label = new JLabel(strings[i],SwingConstants.RIGHT); 
-            //label.setLayout(new FlowLayout(FlowLayout.RIGHT));
-            label.setFont(new Font("Calibri", Font.PLAIN, 20));
-            p.add(label);            
-            p.setPreferredSize(new Dimension(3*CELL_SIZE,CELL_SIZE));
-            p.setBackground(Colors.lightBlue);            
-            setColors(p);               
-            panels[i] = p; 
-        }         
-        return panels;
-    } // end createRow
-    
-    // Returns an array of panels, each of which contains a column array.
-    private JPanel[] createColumn()
+            FontMetrics fm = getFontMetrics(font);
+            for (int t = 0; t < arrays.length; t++)
+            {
+                if (rc == RowCol.Row)
+                    depth = Math.max(depth, fm.stringWidth(strings[t]) + size / 2);
+                else
+                    depth = Math.max(depth, Math.max(arrays[t].length, 1) * fm.getHeight() + size / 2);
+            } // end for
+            depth = Math.min(depth, Math.max(MAX_DEPTH, 3 * size));
+        } // end if
+        int length = arrays.length * size;
+        setPreferredSize((rc == RowCol.Row) ? new Dimension(depth, length) : new Dimension(length, depth));
+        revalidate();
+        repaint();
+    } // end setCellSize
+
+    //-----------------------------------------------------------------
+    //  Draws the arrays of the rows/columns inside the clip.
+    //-----------------------------------------------------------------
+    @Override
+    public void paintComponent(Graphics page)
     {
-        setLayout(new BoxLayout(this, BoxLayout.X_AXIS));        
-        JPanel[] panels = new JPanel[strings.length];
-        for (int i = 0; i < strings.length; i++)
+        super.paintComponent(page);
+        Rectangle clip = page.getClipBounds();
+        if (clip == null)
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        int from = (rc == RowCol.Row) ? clip.y : clip.x;
+        int to = from + ((rc == RowCol.Row) ? clip.height : clip.width);
+        int first = Math.max(0, from / cellSize);
+        int last = Math.min(arrays.length, (to + cellSize - 1) / cellSize);
+
+        Graphics2D g = (Graphics2D) page;
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setFont(font);
+        FontMetrics fm = g.getFontMetrics();
+        boolean detail = cellSize >= MIN_TEXT_SIZE;
+        for (int t = first; t < last; t++)
         {
-            JPanel p = new JPanel();
-            String str = strings[i];
-            Scanner scan = new Scanner(str);
-            while(scan.hasNextInt())    // Add each number as a separate label
+            int x = (rc == RowCol.Row) ? 0 : t * cellSize;
+            int y = (rc == RowCol.Row) ? t * cellSize : 0;
+            int w = (rc == RowCol.Row) ? depth : cellSize;
+            int h = (rc == RowCol.Row) ? cellSize : depth;
+            g.setColor(Colors.lightBlue);
+            if (!detail)
             {
-                int num = scan.nextInt();    
-                String numStr = String.valueOf(num);
-                JLabel label = new JLabel(numStr + " ", SwingConstants.TRAILING);
-                label.setFont(new Font("Calibri", Font.PLAIN, 20));
-                p.add(label);
+                g.fillRect(x, y, w, h);
+                continue;
+            } // end if
+
+            // A white margin around a gray border, as between the cells of the grid
+            g.fillRect(x + 1, y + 1, w - 2, h - 2);
+            g.setColor(Colors.gray);
+            g.drawRect(x + 1, y + 1, w - 3, h - 3);
+            g.setColor(Color.black);
+            if (rc == RowCol.Row)
+            {
+                int width = fm.stringWidth(strings[t]);
+                int left = (width + cellSize / 2 <= w) ? (w - width) / 2      // Centered if it fits
+                                                       : w - cellSize / 4 - width;
+                g.drawString(strings[t], x + left, y + (h - fm.getHeight()) / 2 + fm.getAscent());
             }
-            p.setPreferredSize(new Dimension(CELL_SIZE,3*CELL_SIZE));
-            setColors(p);
-            panels[i] = p; 
-        }         
-        return panels;
-    } // end createColumn
-    
+            else
+            {
+                int[] curArray = (arrays[t].length == 0) ? new int[] {0} : arrays[t];
+                int height = curArray.length * fm.getHeight();
+                int top = (height + cellSize / 2 <= h) ? cellSize / 4      // From the top if it fits
+                                                       : h - cellSize / 4 - height;
+                for (int s = 0; s < curArray.length; s++)   // Each number on its own line
+                {
+                    String numStr = String.valueOf(curArray[s]);
+                    g.drawString(numStr, x + (w - fm.stringWidth(numStr)) / 2,
+                                 y + top + s * fm.getHeight() + fm.getAscent());
+                } // end for
+            } // end if
+        } // end for
+    } // end paintComponent
+
+    //-----------------------------------------------------------------
+    //  Returns the whole array of the row/column under the mouse.
+    //-----------------------------------------------------------------
+    @Override
+    public String getToolTipText(MouseEvent event)
+    {
+        int idx = ((rc == RowCol.Row) ? event.getY() : event.getX()) / cellSize;
+        if (idx < 0 || idx >= arrays.length)
+            return null;
+        return rc + " " + (idx + 1) + ": " + strings[idx];
+    } // end getToolTipText
+
     // Convert individual arrays into a string
     // e.g., [[1,2], [2], ...] --> ["1 2", "2", ...]
     private String[] int2str(int[][] arrays)
@@ -113,7 +174,7 @@ public class BoxPanel extends JPanel
         {
             int[] curArray = arrays[i];
             int arrayLen = curArray.length;
-            String temp = "";
+            String temp = (arrayLen == 0) ? "0" : "";  // An empty row/column
             for (int j = 0; j < arrayLen; j++)
             {
                 temp += curArray[j];
@@ -125,13 +186,4 @@ public class BoxPanel extends JPanel
         System.out.println(Arrays.toString(result));
         return result;
     } //end int2str
-    
-    // Sets colors for the panel
-    private void setColors(JPanel p)
-    {
-        p.setBackground(Colors.lightBlue);     
-        Border b1 = BorderFactory.createLineBorder(Color.white,1);
-        Border b2 = BorderFactory.createLineBorder(Colors.gray, 1);            
-        p.setBorder(BorderFactory.createCompoundBorder(b1, b2)); 
-    }    
 } // end BoxPanel
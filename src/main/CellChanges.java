@@ -0,0 +1,107 @@
+package main;
+
+/*
+ * A class that lists the cells changed by one step of the solver.
+ *
+ * NonogramSolution fills a new list in every step() while change tracking is
+ * on, so a list handed out by getLastChanges() is never modified afterwards
+ * and can be passed to another thread. A view applies the list to show the
+ * step without scanning the whole grid.
+ */
+
+import java.util.Arrays;
+public class CellChanges
+{
+    private static final int INITIAL_CAPACITY = 16;
+    private static final Status[] STATUS = Status.values();
+
+    private int[] rows, cols;           // Row and column of each changed cell
+    private byte[] stats;               // Status ordinal of each changed cell
+    private int size;                   // Number of changed cells
+
+    /** Creates an empty list. */
+    public CellChanges()
+    {
+        rows = new int[INITIAL_CAPACITY];
+        cols = new int[INITIAL_CAPACITY];
+        stats = new byte[INITIAL_CAPACITY];
+    } // end constructor
+
+    /** Adds a changed cell.
+     * @param i The row of the cell
+     * @param j The column of the cell
+     * @param stat The new Status of the cell
+     */
+    public void add(int i, int j, Status stat)
+    {
+        if (size == rows.length)
+        {
+            rows = Arrays.copyOf(rows, 2 * size);
+            cols = Arrays.copyOf(cols, 2 * size);
+            stats = Arrays.copyOf(stats, 2 * size);
+        } // end if
+        rows[size] = i;
+        cols[size] = j;
+        stats[size] = (byte) stat.ordinal();
+        size++;
+    } // end add
+
+    /** Returns the number of changed cells.
+     * @return An integer containing the size of the list
+     */
+    public int size()
+    {
+        return size;
+    } // end size
+
+    /** @return The row of the t-th changed cell */
+    public int getRow(int t)
+    {
+        check(t);
+        return rows[t];
+    } // end getRow
+
+    /** @return The column of the t-th changed cell */
+    public int getColumn(int t)
+    {
+        check(t);
+        return cols[t];
+    } // end getColumn
+
+    /** @return The new Status of the t-th changed cell */
+    public Status getStatus(int t)
+    {
+        check(t);
+        return STATUS[stats[t]];
+    } // end getStatus
+
+    /** Applies the changes to a grid.
+     * @param grid The grid to update, rows x columns
+     */
+    public void applyTo(Status[][] grid)
+    {
+        for (int t = 0; t < size; t++)
+            grid[rows[t]][cols[t]] = STATUS[stats[t]];
+    } // end applyTo
+
+    @Override
+    public String toString()
+    {
+        StringBuilder result = new StringBuilder("[");
+        for (int t = 0; t < size; t++)
+        {
+            if (t > 0)
+                result.append(", ");
+            result.append('(').append(rows[t]).append(", ").append(cols[t]).append(") -> ")
+                  .append(STATUS[stats[t]]);
+        } // end for
+        return result.append(']').toString();
+    } // end toString
+
+    // Throws if t is not the index of a changed cell.
+    private void check(int t)
+    {
+        if (t < 0 || t >= size)
+            throw new IndexOutOfBoundsException("Change " + t + " of " + size);
+    } // end check
+} // end CellChanges
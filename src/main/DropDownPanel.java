@@ -11,6 +11,11 @@ import java.awt.Font;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.Box;
@@ -21,6 +26,7 @@ import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.SwingWorker;
 
 /** The title panel when first start the application.
  * Give the user choices between randomly choose a puzzle or a specific number.
@@ -28,11 +34,13 @@ import javax.swing.JPanel;
  */
 public class DropDownPanel extends JPanel {
     
-    private JComboBox solveCombo, sizeCombo, numCombo;
+    private JComboBox<String> solveCombo, sizeCombo, numCombo;
     private JFrame frame;    
     private int rNum, cNum, pNum;
-    private int[] gameSize = {10, 15};   // either 5x5 or 10x10
-    private final int P_MAX = 11;   // Number of problems available to choose from
+    private PuzzleCatalog catalog;  // Puzzles available to choose from
+    private List<int[]> gameSize;   // Sizes {rows, columns} of the available puzzles
+    private List<PuzzleCatalog.Entry> numEntries;   // Puzzles of the selected size
+    private boolean catalogLoaded;  // true once the catalog is loaded; stays false if the scan failed
     private Dimension D = new Dimension(0, 5);
     
     public DropDownPanel(JFrame frame) {
@@ -40,8 +48,65 @@ public class DropDownPanel extends JPanel {
         this.frame = frame;
         
         rNum = cNum = pNum = -1;
+        gameSize = new ArrayList<>();
         
         showTitlePanel();        
+        loadCatalog();
+    }
+    
+    // Scans the problem folder on a background thread; the choices are
+    // enabled once the catalog is loaded, and stay disabled if it fails.
+    private void loadCatalog() {
+        new SwingWorker<PuzzleCatalog, Void>() {
+            @Override
+            protected PuzzleCatalog doInBackground() throws IOException {
+                return PuzzleCatalog.getDefault();
+            }
+            
+            @Override
+            protected void done() {
+                try {
+                    catalog = get();
+                    gameSize = catalog.getSizes();
+                } catch (InterruptedException | ExecutionException ex) {
+                    Logger.getLogger(DropDownPanel.class.getName()).log(Level.SEVERE, null, ex);
+                    JOptionPane.showMessageDialog(null, "Unable to read the list of puzzles.");
+                    return;
+                }
+                catalogLoaded = true;
+                if (solveCombo != null)
+                    solveCombo.setEnabled(true);
+            }
+        }.execute();
+    }
+    
+    // Reads a puzzle on a background thread, then replaces panel with a
+    // BorderPanel that solves it. The button is disabled while reading.
+    private void openPuzzle(JPanel panel, JButton button, PuzzleCatalog.Entry entry) {
+        System.out.println("<Problem " + entry + ">");
+        button.setEnabled(false);
+        new SwingWorker<NonogramProblem, Void>() {
+            @Override
+            protected NonogramProblem doInBackground() throws IOException {
+                return entry.load();
+            }
+            
+            @Override
+            protected void done() {
+                try {
+                    NonogramProblem problem = get();
+                    frame.remove(panel);
+                    BorderPanel bPanel = new BorderPanel(problem, entry.getNumber(), frame);
+                    frame.getContentPane().add(bPanel);
+                    frame.pack();
+                    frame.setVisible(true);
+                } catch (InterruptedException | ExecutionException ex) {
+                    Logger.getLogger(DropDownPanel.class.getName()).log(Level.SEVERE, null, ex);
+                    JOptionPane.showMessageDialog(null, "Unable to read the puzzle " + entry + ".");
+                    button.setEnabled(true);
+                }
+            }
+        }.execute();
     }
     
     private void showTitlePanel() {
@@ -53,9 +118,10 @@ public class DropDownPanel extends JPanel {
         String[] solveOptions = {"Make a selection...", 
                     "Choose a specific puzzle.","Randomly choose a puzzle."};
         
-        solveCombo = new JComboBox(solveOptions);
+        solveCombo = new JComboBox<>(solveOptions);
         solveCombo.setAlignmentX(Component.CENTER_ALIGNMENT);
         solveCombo.addActionListener(new SolveComboListener(this));
+        solveCombo.setEnabled(catalogLoaded);
                 
         // Set up this panel.
         setPreferredSize(new Dimension(350, 70));        
@@ -107,22 +173,20 @@ public class DropDownPanel extends JPanel {
                 labels.setBackground(Colors.lightBlue);
 
                 // Create the list of strings of puzzle size for the combo box options.
-                String[] sizeOptions = {"Make a selection...", "10 x 10", "15 x 15"};
+                String[] sizeOptions = new String[gameSize.size()+1];
+                sizeOptions[0] = "Make a selection...";
+                for (int i = 1; i <= gameSize.size(); i++)
+                    sizeOptions[i] = gameSize.get(i-1)[0] + " x " + gameSize.get(i-1)[1];
 
-                sizeCombo = new JComboBox(sizeOptions);
+                sizeCombo = new JComboBox<>(sizeOptions);
                 sizeCombo.setAlignmentX(Component.CENTER_ALIGNMENT);
                 sizeCombo.addActionListener(new SizeComboListener());
 
                 JLabel label1_2 = new JLabel("Select the puzzle number:");
                 label1_2.setAlignmentX(Component.CENTER_ALIGNMENT);
 
-                // Create the list of strings of puzzle number for the combo box options.
-                String[] numOptions = new String[P_MAX+1];
-                numOptions[0] = "Make a selection...";
-                for (int i = 1; i <= P_MAX; i++)
-                    numOptions[i] = Integer.toString(i);
-
-                numCombo = new JComboBox(numOptions);
+                // The puzzle numbers are filled in once a size is selected.
+                numCombo = new JComboBox<>(new String[] {"Make a selection..."});
                 numCombo.setAlignmentX(Component.CENTER_ALIGNMENT);
                 numCombo.addActionListener(new NumberComboListener());
                 
@@ -179,11 +243,19 @@ public class DropDownPanel extends JPanel {
         @Override
         public void actionPerformed(ActionEvent e) {
             int selected = sizeCombo.getSelectedIndex();
-            if (selected == 1)
-                rNum = 10;
-            else if (selected == 2)
-                rNum = 15;            
-            cNum = rNum;
+            if (selected >= 1) {
+                rNum = gameSize.get(selected-1)[0];
+                cNum = gameSize.get(selected-1)[1];
+            }
+            
+            // Create the list of strings of puzzle number for the combo box options.
+            numEntries = (catalog == null) ? Collections.<PuzzleCatalog.Entry>emptyList()
+                                           : catalog.getEntries(rNum, cNum);
+            numCombo.removeAllItems();
+            numCombo.addItem("Make a selection...");
+            for (PuzzleCatalog.Entry entry : numEntries)
+                numCombo.addItem(Integer.toString(entry.getNumber()));
+            pNum = -1;
         }        
     }
     
@@ -191,7 +263,8 @@ public class DropDownPanel extends JPanel {
 
         @Override
         public void actionPerformed(ActionEvent e) {
-            pNum = numCombo.getSelectedIndex();            
+            int selected = numCombo.getSelectedIndex();
+            pNum = (selected >= 1) ? numEntries.get(selected-1).getNumber() : -1;
         }        
     }
     
@@ -214,20 +287,9 @@ public class DropDownPanel extends JPanel {
             else if (pNum == -1)
                 message = "Please select a problem number.";
             
-            if (message.isEmpty()) {
-                System.out.println("<Problem " + rNum + " x " + cNum + " - " + pNum + ">");
-
-                frame.remove(panel);
-
-                try {
-                    BorderPanel bPanel = new BorderPanel(rNum, cNum, pNum, frame);
-                    frame.getContentPane().add(bPanel);
-                    frame.pack();
-                    frame.setVisible(true);                      
-                } catch (IOException ex) {
-                    Logger.getLogger(DropDownPanel.class.getName()).log(Level.SEVERE, null, ex);
-                }
-            } else
+            if (message.isEmpty())
+                openPuzzle(panel, (JButton) e.getSource(), numEntries.get(numCombo.getSelectedIndex()-1));
+            else
                 JOptionPane.showMessageDialog(null, message);
         }
     }
@@ -241,23 +303,16 @@ public class DropDownPanel extends JPanel {
         
         @Override
         public void actionPerformed(ActionEvent e) {
-            int sizeIdx = (int) (Math.random() * gameSize.length);
-            rNum = gameSize[sizeIdx];
-            cNum = rNum;
-            pNum = (int) (Math.random() * P_MAX) + 1;
-            
-            System.out.println("<Problem " + rNum + " x " + cNum + " - " + pNum + ">");
-                        
-            frame.remove(panel);
-                        
-            try {
-                BorderPanel bPanel = new BorderPanel(rNum, cNum, pNum, frame);
-                frame.getContentPane().add(bPanel);
-                frame.pack();
-                frame.setVisible(true);                
-            } catch (IOException ex) {
-                Logger.getLogger(DropDownPanel.class.getName()).log(Level.SEVERE, null, ex);
+            PuzzleCatalog.Entry entry = (catalog == null) ? null : catalog.pickRandom(new Random());
+            if (entry == null) {
+                JOptionPane.showMessageDialog(null, "No puzzle is available.");
+                return;
             }
+            rNum = entry.getRowNum();
+            cNum = entry.getColNum();
+            pNum = entry.getNumber();
+            
+            openPuzzle(panel, (JButton) e.getSource(), entry);
         }
     }
     
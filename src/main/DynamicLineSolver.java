@@ -0,0 +1,141 @@
+package main;
+
+/*
+ * A line solver that finds, for every cell, whether any valid placement of the
+ * row/column array makes it True, False, or both.
+ *
+ * A forward and a backward pass over the states (cell index i, number index s)
+ * mark which states lie on at least one valid placement:
+ *
+ *      (s, i) --cell i is False-->        (s, i+1)
+ *      (s, i) --number s starts at i-->   (s+1, i+x+1)   (x = clue[s])
+ *
+ * A cell is forced when only one Status is reachable, and the array has no
+ * valid placement at all when the final state (a, k) cannot be reached.
+ * Both passes cost O(k * a) for a line of length k with a numbers.
+ */
+
+public class DynamicLineSolver implements LineSolver
+{
+    /** Flag set in analyze() when some placement makes the cell True. */
+    public static final int CAN_BE_TRUE = 1;
+    /** Flag set in analyze() when some placement makes the cell False. */
+    public static final int CAN_BE_FALSE = 2;
+
+    @Override
+    public boolean solveLine(int[] clue, BitLine line)
+    {
+        int[] options = analyze(clue, line);
+        if (options == null)
+            return false;   // No placement fits the line
+        for (int i = 0; i < options.length; i++)
+        {
+            if (line.get(i) != Status.Empty)
+                continue;
+            if (options[i] == CAN_BE_TRUE)
+                line.set(i, Status.True);
+            else if (options[i] == CAN_BE_FALSE)
+                line.set(i, Status.False);
+        } // end for
+        return true;
+    } // end solveLine
+
+    /** Finds the possible Status of every cell over all valid placements.
+     * @param clue An integer array containing the row/column array
+     * @param line The current cells of the row/column
+     * @return An integer array of CAN_BE_TRUE | CAN_BE_FALSE flags for each cell;
+     *         null if no placement fits the line
+     */
+    public static int[] analyze(int[] clue, BitLine line)
+    {
+        int k = line.length();
+        int a = clue.length;
+        int[] falseBefore = new int[k + 1];     // Number of False in [0, i)
+        for (int i = 0; i < k; i++)
+            falseBefore[i + 1] = falseBefore[i] + (line.get(i) == Status.False ? 1 : 0);
+
+        // Forward pass: fwd[s][i] is true if numbers 0..s-1 fit in [0, i)
+        boolean[][] fwd = new boolean[a + 1][k + 2];
+        fwd[0][0] = true;
+        for (int i = 0; i <= k; i++)
+        {
+            for (int s = 0; s <= a; s++)
+            {
+                if (!fwd[s][i])
+                    continue;
+                if (i < k && line.get(i) != Status.True)
+                    fwd[s][i + 1] = true;
+                if (s < a && canPlace(clue[s], i, line, falseBefore))
+                    fwd[s + 1][next(clue[s], i, k)] = true;
+            } // end for
+        } // end for
+        if (!fwd[a][k])
+            return null;
+
+        // Backward pass: bwd[s][i] is true if numbers s..a-1 fit in [i, k)
+        boolean[][] bwd = new boolean[a + 1][k + 2];
+        bwd[a][k] = true;
+        for (int i = k - 1; i >= 0; i--)
+        {
+            for (int s = a; s >= 0; s--)
+            {
+                boolean skip = line.get(i) != Status.True && bwd[s][i + 1];
+                boolean place = s < a && canPlace(clue[s], i, line, falseBefore)
+                        && bwd[s + 1][next(clue[s], i, k)];
+                bwd[s][i] = skip || place;
+            } // end for
+        } // end for
+
+        // Mark every transition on a valid placement.
+        // trueCover is a difference array so that each number costs O(1).
+        int[] trueCover = new int[k + 1];
+        int[] options = new int[k];
+        for (int i = 0; i < k; i++)
+        {
+            for (int s = 0; s <= a; s++)
+            {
+                if (!fwd[s][i])
+                    continue;
+                if (line.get(i) != Status.True && bwd[s][i + 1])
+                    options[i] |= CAN_BE_FALSE;
+                if (s < a && canPlace(clue[s], i, line, falseBefore)
+                        && bwd[s + 1][next(clue[s], i, k)])
+                {
+                    int x = clue[s];
+                    trueCover[i]++;
+                    trueCover[i + x]--;
+                    if (i + x < k)
+                        options[i + x] |= CAN_BE_FALSE;     // Space after the number
+                } // end if
+            } // end for
+        } // end for
+        int covered = 0;
+        for (int i = 0; i < k; i++)
+        {
+            covered += trueCover[i];
+            if (covered > 0)
+                options[i] |= CAN_BE_TRUE;
+        } // end for
+        return options;
+    } // end analyze
+
+    // Returns true if number x can start at cell i:
+    // no False under it and no True right after it.
+    // falseBefore[i] is the number of False cells in [0, i).
+    // Shared with OverlapLineSolver.
+    static boolean canPlace(int x, int i, BitLine line, int[] falseBefore)
+    {
+        int end = i + x;    // First cell after the number
+        if (end > line.length())
+            return false;
+        if (falseBefore[end] - falseBefore[i] != 0)
+            return false;
+        return end == line.length() || line.get(end) != Status.True;
+    } // end canPlace
+
+    // Returns the state index after number x placed at cell i and its space.
+    private static int next(int x, int i, int k)
+    {
+        return Math.min(i + x + 1, k);
+    } // end next
+} // end DynamicLineSolver
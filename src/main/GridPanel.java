@@ -4,80 +4,269 @@ package main;
 //  GridPanel.java      Author: Hyunryung Kim
 //
 //  Represents a grid size of m x n for a Nonogram puzzle.
+//  The grid is one component that paints its cells from a grid of Status,
+//  using a cached image of each kind of cell. Boards of up to MAX_IMAGE_PIXELS
+//  are kept in a backing image, so a repaint is a single copy; larger boards
+//  paint only the cells inside the clip, e.g. the visible part of a scroll
+//  pane. The cell size can be changed to zoom.
 //********************************************************************************
 
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
-import java.awt.GridLayout;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
 import javax.swing.*;
 
-public class GridPanel extends JPanel
+public class GridPanel extends JPanel implements Scrollable
 {
-    final int CELL_SIZE = 40;
-    JPanel[][] gridColor;
-    JLabel[][] xLabels;
+    static final int CELL_SIZE = 40;
+    private static final long MAX_IMAGE_PIXELS = 1L << 22;  // Largest backing image: 16 MB
+    private static final int MIN_DETAIL_SIZE = 8;   // Smaller cells have no borders or X marks
+    private static final Dimension MAX_VIEWPORT = new Dimension(800, 640);  // Largest initial view of a scroll pane
+    private final int m, n;             // size of row and column, respectively
+    private int cellSize;               // Width and height of a cell in pixels
+    private final Status[][] cells;     // Status shown in each cell
+    private BufferedImage[] glyphs;     // Image of a cell for each Status, by ordinal
+    private BufferedImage board;        // The whole grid as painted; null if too large to keep
+    private Graphics2D boardGraphics;   // Draws cells into board
     //----------------------------------------------------------------------------
-    //  Sets up this grid panel with panels with a label for each cell.
+    //  Sets up this grid panel with all cells Empty.
     //----------------------------------------------------------------------------
-    public GridPanel(int m, int n) 
-    {   
-        GridLayout layout = new GridLayout(m, n, 0, 0);
-        setLayout(layout);
+    public GridPanel(int m, int n)
+    {
+        this(m, n, CELL_SIZE);
+    } // end constructor
+
+    //----------------------------------------------------------------------------
+    //  Sets up this grid panel with cells of the given size, all Empty.
+    //----------------------------------------------------------------------------
+    public GridPanel(int m, int n, int cellSize)
+    {
+        this.m = m;
+        this.n = n;
         setBackground(Color.white);
-        //setBorder(BorderFactory.createLineBorder(Color.black, 1));
-        setPreferredSize(new Dimension(CELL_SIZE * m, CELL_SIZE * n));        
-        gridColor = new JPanel[m][n];
-        xLabels = new JLabel[m][n];
-        for (int i = 0; i < m; i++)
-            for (int j = 0; j < n; j++)
-            {
-                JPanel p = createNewCell();
-                JLabel l = createNewLabel();
-                p.add(l);
-                add(p);
-                gridColor[i][j] = p;
-                xLabels[i][j] = l;                
-            } // end for
-    } // end constructor    
-    
+        setOpaque(true);
+        cells = new Status[m][n];
+        for (Status[] row : cells)
+            Arrays.fill(row, Status.Empty);
+        setCellSize(cellSize);
+    } // end constructor
+
+    /** Returns the largest cell size, up to CELL_SIZE, that shows a whole grid in an area.
+     * @param m The number of rows
+     * @param n The number of columns
+     * @param area The size of the area in pixels
+     * @return The cell size in pixels, at least 1
+     */
+    public static int fitCellSize(int m, int n, Dimension area)
+    {
+        int size = Math.min(area.width / Math.max(n, 1), area.height / Math.max(m, 1));
+        return Math.max(1, Math.min(CELL_SIZE, size));
+    } // end fitCellSize
+
+    /** Returns the cell size that shows a whole grid in the initial view of a scroll pane.
+     * @param m The number of rows
+     * @param n The number of columns
+     * @return The cell size in pixels, at least 1 and at most CELL_SIZE
+     */
+    public static int fitCellSize(int m, int n)
+    {
+        return fitCellSize(m, n, MAX_VIEWPORT);
+    } // end fitCellSize
+
+    /** Changes the size of the cells, i.e. zooms the grid.
+     *  Below MIN_DETAIL_SIZE pixels the cells are drawn without borders or X marks.
+     * @param size The width and height of a cell in pixels, at least 1
+     */
+    public void setCellSize(int size)
+    {
+        if (size < 1)
+            throw new IllegalArgumentException("Cell size must be at least 1: " + size);
+        if (size == cellSize)
+            return;
+        cellSize = size;
+        glyphs = new BufferedImage[Status.values().length];
+        for (Status stat : Status.values())
+            glyphs[stat.ordinal()] = createGlyph(stat);
+
+        if (boardGraphics != null)
+            boardGraphics.dispose();
+        if ((long) cellSize * n * cellSize * m <= MAX_IMAGE_PIXELS)
+        {
+            board = new BufferedImage(cellSize * n, cellSize * m, BufferedImage.TYPE_INT_RGB);
+            boardGraphics = board.createGraphics();
+            for (int i = 0; i < m; i++)
+                for (int j = 0; j < n; j++)
+                    boardGraphics.drawImage(glyphs[cells[i][j].ordinal()], j * cellSize, i * cellSize, null);
+        }
+        else
+        {
+            board = null;
+            boardGraphics = null;
+        } // end if
+        setPreferredSize(new Dimension(cellSize * n, cellSize * m));
+        revalidate();
+        repaint();
+    } // end setCellSize
+
     /** Make cell (i, j) true.
      * @param i An integer containing an index of row component
      * @param j An integer containing an index of column component
      */
     public void makeTrue(int i, int j)
     {
-        JPanel p = gridColor[i][j];
-        p.setBackground(Colors.navyBlue);
-        p.setBorder(BorderFactory.createLineBorder(Color.black, 1));
+        setCell(i, j, Status.True);
     } // end makeTrue
-    
+
     /** Make cell (i, j) false.
      * @param i An integer containing an index of row component
      * @param j An integer containing an index of column component
      */
     public void makeFalse(int i, int j)
     {
-        JLabel l = xLabels[i][j];        
-        l.setText("X");
+        setCell(i, j, Status.False);
     } // end makeFalse
-    
-    // Returns a new panel for a grid cell.
-    private JPanel createNewCell()
-    {
-        JPanel p = new JPanel();
-        p.setBorder(BorderFactory.createLineBorder(Colors.gray, 1));
-        p.setPreferredSize(new Dimension(CELL_SIZE, CELL_SIZE));        
-        p.setBackground(Color.white);           
-        return p;
-    } // end createNewCell
-    
-    // Returns a new label with an empty string.
-    private JLabel createNewLabel()
-    {
-        JLabel l = new JLabel("");
-        l.setFont(new Font("Helvetica", Font.PLAIN, 35));           
-        l.setForeground(Colors.navyBlue);
-        return l;
-    } // end createnewLabel
+
+    /** Shows a Status in cell (i, j) and repaints that cell only.
+     * @param i An integer containing an index of row component
+     * @param j An integer containing an index of column component
+     * @param stat The Status to show
+     */
+    public void setCell(int i, int j, Status stat)
+    {
+        if (cells[i][j] == stat)
+            return;
+        cells[i][j] = stat;
+        if (boardGraphics != null)
+            boardGraphics.drawImage(glyphs[stat.ordinal()], j * cellSize, i * cellSize, null);
+        repaint(j * cellSize, i * cellSize, cellSize, cellSize);
+    } // end setCell
+
+    /** Shows the cells changed by a step of the solver, repainting only those cells.
+     * @param changes The changed cells
+     */
+    public void setCells(CellChanges changes)
+    {
+        for (int t = 0; t < changes.size(); t++)
+            setCell(changes.getRow(t), changes.getColumn(t), changes.getStatus(t));
+    } // end setCells
+
+    /** Returns the Status shown in cell (i, j).
+     * @param i An integer containing an index of row component
+     * @param j An integer containing an index of column component
+     * @return The Status of the cell
+     */
+    public Status getCell(int i, int j)
+    {
+        return cells[i][j];
+    } // end getCell
+
+    /** Returns the size of a cell.
+     * @return The width and height of a cell in pixels
+     */
+    public int getCellSize()
+    {
+        return cellSize;
+    } // end getCellSize
+
+    /** @return The preferred size, limited to MAX_VIEWPORT */
+    @Override
+    public Dimension getPreferredScrollableViewportSize()
+    {
+        Dimension size = getPreferredSize();
+        return new Dimension(Math.min(size.width, MAX_VIEWPORT.width),
+                             Math.min(size.height, MAX_VIEWPORT.height));
+    } // end getPreferredScrollableViewportSize
+
+    /** @return The cell size, so a click on a scroll arrow moves one cell */
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction)
+    {
+        return cellSize;
+    } // end getScrollableUnitIncrement
+
+    /** @return The visible size less one cell */
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction)
+    {
+        int visible = (orientation == SwingConstants.HORIZONTAL) ? visibleRect.width : visibleRect.height;
+        return Math.max(cellSize, visible - cellSize);
+    } // end getScrollableBlockIncrement
+
+    @Override
+    public boolean getScrollableTracksViewportWidth()
+    {
+        return false;
+    } // end getScrollableTracksViewportWidth
+
+    @Override
+    public boolean getScrollableTracksViewportHeight()
+    {
+        return false;
+    } // end getScrollableTracksViewportHeight
+
+    //-----------------------------------------------------------------
+    //  Draws the cells inside the clip.
+    //-----------------------------------------------------------------
+    @Override
+    public void paintComponent(Graphics page)
+    {
+        super.paintComponent(page);
+        if (board != null)
+        {
+            page.drawImage(board, 0, 0, null);     // Only the clip is copied
+            return;
+        } // end if
+
+        Rectangle clip = page.getClipBounds();
+        if (clip == null)
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        int i0 = Math.max(0, clip.y / cellSize);
+        int i1 = Math.min(m, (clip.y + clip.height + cellSize - 1) / cellSize);
+        int j0 = Math.max(0, clip.x / cellSize);
+        int j1 = Math.min(n, (clip.x + clip.width + cellSize - 1) / cellSize);
+        for (int i = i0; i < i1; i++)
+            for (int j = j0; j < j1; j++)
+                page.drawImage(glyphs[cells[i][j].ordinal()], j * cellSize, i * cellSize, null);
+    } // end paintComponent
+
+    // Returns the image of a cell with the given Status.
+    private BufferedImage createGlyph(Status stat)
+    {
+        BufferedImage glyph = new BufferedImage(cellSize, cellSize, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = glyph.createGraphics();
+        boolean detail = cellSize >= MIN_DETAIL_SIZE;
+        if (stat == Status.True)
+        {
+            g.setColor(Colors.navyBlue);
+            g.fillRect(0, 0, cellSize, cellSize);
+            g.setColor(Color.black);
+        }
+        else
+        {
+            g.setColor((stat == Status.False && !detail) ? Colors.lightBlue : Color.white);
+            g.fillRect(0, 0, cellSize, cellSize);
+            g.setColor(Colors.gray);
+        } // end if
+        if (detail)
+            g.drawRect(0, 0, cellSize - 1, cellSize - 1);
+
+        if (stat == Status.False && detail)
+        {
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setFont(new Font("Helvetica", Font.PLAIN, cellSize * 35 / CELL_SIZE));
+            g.setColor(Colors.navyBlue);
+            FontMetrics fm = g.getFontMetrics();
+            g.drawString("X", (cellSize - fm.stringWidth("X")) / 2,
+                         (cellSize - fm.getHeight()) / 2 + fm.getAscent());
+        } // end if
+        g.dispose();
+        return glyph;
+    } // end createGlyph
 }
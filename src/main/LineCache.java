@@ -0,0 +1,155 @@
+package main;
+
+/*
+ * A line solver that remembers the lines another line solver has deduced.
+ *
+ * The key is a compact encoding of (row/column array, line length, line cells)
+ * and the value is the deduced line, so a row or column that is visited again
+ * without any change, or that repeats in another puzzle, is not solved twice.
+ * The least recently used entry is evicted once the cache is full.
+ */
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+public class LineCache implements LineSolver
+{
+    // Value stored for a line that no placement fits.
+    private static final BitLine NO_PLACEMENT = new BitLine(0);
+
+    private final LineSolver solver;    // Engine that solves lines not in the cache
+    private final int capacity;         // Maximum number of entries
+    private final LinkedHashMap<Key, BitLine> entries;
+    private long hits, misses;          // Number of lookups found / not found
+
+    /** Creates a cache in front of a line solver.
+     * @param newSolver The LineSolver that solves lines not in the cache
+     * @param maxEntries The maximum number of lines to remember
+     */
+    public LineCache(LineSolver newSolver, int maxEntries)
+    {
+        solver = newSolver;
+        capacity = maxEntries;
+        entries = new LinkedHashMap<Key, BitLine>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, BitLine> eldest)
+            {
+                return size() > capacity;
+            }
+        };
+    } // end constructor
+
+    @Override
+    public boolean solveLine(int[] clue, BitLine line)
+    {
+        Key key = new Key(clue, line);
+        BitLine deduced;
+        synchronized (this)
+        {
+            deduced = entries.get(key);
+            if (deduced != null)
+                hits++;
+            else
+                misses++;
+        } // end synchronized
+        if (deduced == null)
+        {
+            BitLine solved = line.copy();
+            deduced = solver.solveLine(clue, solved) ? solved : NO_PLACEMENT;
+            synchronized (this)
+            {
+                entries.put(key, deduced);
+            } // end synchronized
+        } // end if
+
+        if (deduced == NO_PLACEMENT)
+            return false;
+        line.copyFrom(deduced);
+        return true;
+    } // end solveLine
+
+    /** Returns the number of lookups that were found in the cache.
+     * @return A long containing the number of hits
+     */
+    public synchronized long getHits()
+    {
+        return hits;
+    } // end getHits
+
+    /** Returns the number of lookups that had to be solved.
+     * @return A long containing the number of misses
+     */
+    public synchronized long getMisses()
+    {
+        return misses;
+    } // end getMisses
+
+    /** Returns the number of lines currently remembered.
+     * @return An integer containing the number of entries
+     */
+    public synchronized int size()
+    {
+        return entries.size();
+    } // end size
+
+    /** Forgets all lines and resets the hit/miss counters. */
+    public synchronized void clear()
+    {
+        entries.clear();
+        hits = 0;
+        misses = 0;
+    } // end clear
+
+    /** Construct a string that shows the cache statistics.
+     * @return A String containing the hits, misses and hit rate.
+     */
+    @Override
+    public synchronized String toString()
+    {
+        long total = hits + misses;
+        double rate = (total == 0) ? 0 : 100.0 * hits / total;
+        return String.format("Line cache: %d hits, %d misses (%.1f%% hit rate), %d/%d entries",
+                             hits, misses, rate, entries.size(), capacity);
+    } // end toString
+
+    // Compact encoding of (row/column array, line length, line cells).
+    //  data[0]:    line length and the number of numbers
+    //  next:       numbers packed two to a long (32 bits each, so any number fits)
+    //  last:       true mask words followed by false mask words
+    private static final class Key
+    {
+        private final long[] data;
+        private final int hash;
+
+        Key(int[] clue, BitLine line)
+        {
+            int a = clue.length;
+            int clueWords = (a + 1) / 2;
+            int lineWords = line.numWords();
+            data = new long[1 + clueWords + 2 * lineWords];
+            data[0] = ((long) line.length() << 32) | a;
+            for (int s = 0; s < a; s++)
+                data[1 + s / 2] |= (clue[s] & 0xFFFFFFFFL) << (32 * (s % 2));
+            int w0 = 1 + clueWords;
+            for (int w = 0; w < lineWords; w++)
+            {
+                data[w0 + w] = line.trueBits(w);
+                data[w0 + lineWords + w] = line.falseBits(w);
+            } // end for
+            hash = Arrays.hashCode(data);
+        } // end constructor
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            return obj instanceof Key && Arrays.equals(data, ((Key) obj).data);
+        } // end equals
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        } // end hashCode
+    } // end Key
+} // end LineCache
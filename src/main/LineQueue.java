@@ -0,0 +1,172 @@
+package main;
+
+/*
+ * A work queue of rows and columns that need to be solved again.
+ *
+ * Each row/column is in the queue at most once, and the line with the lowest
+ * score is taken first. Lines with the same score come out in the order they
+ * were added, so a queue whose scores are all equal behaves like a FIFO.
+ * Rows are numbered 0..m-1 and columns m..m+n-1 internally; callers use
+ * RowCol and an index.
+ */
+
+import java.util.Arrays;
+public class LineQueue
+{
+    private static final int SEQ_BITS = 40;     // Bits of a key used for the insertion order
+
+    private final int m, n;             // number of rows and columns
+    private final int[] heap;           // Binary min-heap of line ids
+    private final int[] pos;            // Position of each line in the heap, -1 if not queued
+    private final long[] key;           // Score and insertion order of each queued line
+    private int size;                   // Number of queued lines
+    private long seq;                   // Insertion counter for breaking ties
+
+    /** Creates an empty queue for an m x n grid.
+     * @param rowNum The number of rows
+     * @param colNum The number of columns
+     */
+    public LineQueue(int rowNum, int colNum)
+    {
+        m = rowNum;
+        n = colNum;
+        heap = new int[m + n];
+        pos = new int[m + n];
+        key = new long[m + n];
+        Arrays.fill(pos, -1);
+    } // end constructor
+
+    /** Adds a row/column to the queue, or updates its score if already queued.
+     * @param rowcol  Indicator whether a row or a column is added
+     * @param idx The index of row/column
+     * @param score An integer priority; lower scores are taken first
+     */
+    public void add(RowCol rowcol, int idx, int score)
+    {
+        int id = (rowcol == RowCol.Row) ? idx : m + idx;
+        if (pos[id] == -1)
+        {
+            key[id] = ((long) score << SEQ_BITS) + seq++;
+            pos[id] = size;
+            heap[size] = id;
+            size++;
+            siftUp(pos[id]);
+        }
+        else
+        {
+            long oldKey = key[id];
+            long order = oldKey & ((1L << SEQ_BITS) - 1);   // Keep its place among equal scores
+            key[id] = ((long) score << SEQ_BITS) + order;
+            if (key[id] < oldKey)
+                siftUp(pos[id]);
+            else
+                siftDown(pos[id]);
+        } // end if
+    } // end add
+
+    /** Removes the line with the lowest score.
+     * @return An integer id of the line; use getRowCol and getIndex to decode it
+     */
+    public int poll()
+    {
+        assert size > 0;
+        int id = heap[0];
+        size--;
+        if (size > 0)
+        {
+            heap[0] = heap[size];
+            pos[heap[0]] = 0;
+            siftDown(0);
+        } // end if
+        pos[id] = -1;
+        return id;
+    } // end poll
+
+    /** Returns whether a line id from poll() is a row or a column.
+     * @param id An integer id of the line
+     * @return RowCol.Row or RowCol.Column
+     */
+    public RowCol getRowCol(int id)
+    {
+        return (id < m) ? RowCol.Row : RowCol.Column;
+    } // end getRowCol
+
+    /** Returns the row/column index of a line id from poll().
+     * @param id An integer id of the line
+     * @return The index of the row/column
+     */
+    public int getIndex(int id)
+    {
+        return (id < m) ? id : id - m;
+    } // end getIndex
+
+    /** Returns true if the row/column is in the queue.
+     * @param rowcol  Indicator whether a row or a column is checked
+     * @param idx The index of row/column
+     * @return true if the line is queued
+     */
+    public boolean contains(RowCol rowcol, int idx)
+    {
+        return pos[(rowcol == RowCol.Row) ? idx : m + idx] != -1;
+    } // end contains
+
+    /** Returns the number of lines in the queue.
+     * @return An integer containing the number of queued lines
+     */
+    public int size()
+    {
+        return size;
+    } // end size
+
+    /** Returns true if no line is queued.
+     * @return true if the queue is empty
+     */
+    public boolean isEmpty()
+    {
+        return size == 0;
+    } // end isEmpty
+
+    /** Removes every line from the queue. */
+    public void clear()
+    {
+        for (int t = 0; t < size; t++)
+            pos[heap[t]] = -1;
+        size = 0;
+    } // end clear
+
+    // Moves the line at heap position h up while its key is lower than its parent's.
+    private void siftUp(int h)
+    {
+        int id = heap[h];
+        while (h > 0)
+        {
+            int parent = (h - 1) / 2;
+            if (key[heap[parent]] <= key[id])
+                break;
+            heap[h] = heap[parent];
+            pos[heap[h]] = h;
+            h = parent;
+        } // end while
+        heap[h] = id;
+        pos[id] = h;
+    } // end siftUp
+
+    // Moves the line at heap position h down while a child has a lower key.
+    private void siftDown(int h)
+    {
+        int id = heap[h];
+        while (2 * h + 1 < size)
+        {
+            int child = 2 * h + 1;
+            if (child + 1 < size && key[heap[child + 1]] < key[heap[child]])
+                child++;
+            if (key[id] <= key[heap[child]])
+                break;
+            heap[h] = heap[child];
+            pos[heap[h]] = h;
+            h = child;
+        } // end while
+        heap[h] = id;
+        pos[id] = h;
+    } // end siftDown
+} // end LineQueue
@@ -0,0 +1,50 @@
+package main;
+
+/*
+ * A Flight Recorder event for one row/column solved by NonogramSolution.
+ *
+ * The event is disabled by default; enable main.LineSolve in a recording,
+ * for example with the settings in src/resources/nonogram.jfc:
+ *
+ *  java -XX:StartFlightRecording:settings=src/resources/nonogram.jfc,filename=solve.jfr main.BatchSolver ...
+ *  jfr print --events main.LineSolve solve.jfr
+ *
+ * The solver creates events only once a recording has started, so a run
+ * without JFR never pays for starting it.
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+@Name("main.LineSolve")
+@Label("Line Solve")
+@Category("Nonogram")
+@Description("A row/column solved by the line solver or the rules")
+@Enabled(false)
+@StackTrace(false)
+public class LineSolveEvent extends Event
+{
+    @Label("Row/Column")
+    String rowcol;
+
+    @Label("Index")
+    int index;
+
+    @Label("Length")
+    @Description("Cells in the row/column")
+    int length;
+
+    @Label("Empty Before")
+    int emptyBefore;
+
+    @Label("Empty After")
+    int emptyAfter;
+
+    @Label("Engine")
+    @Description("Class of the LineSolver, or rules")
+    String engine;
+} // end LineSolveEvent
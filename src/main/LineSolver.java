@@ -0,0 +1,18 @@
+package main;
+
+/*
+ * An interface for an engine that solves a single row or column.
+ *
+ * A line solver looks only at the row/column array and the current cells of
+ * the line, so the same engine can be used for rows and columns alike.
+ */
+
+public interface LineSolver
+{
+    /** Deduces as many cells of the line as possible.
+     * @param clue An integer array containing the row/column array
+     * @param line The cells of the row/column, updated in place
+     * @return false if no placement of the row/column array fits the line
+     */
+    boolean solveLine(int[] clue, BitLine line);
+} // end LineSolver
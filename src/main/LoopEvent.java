@@ -0,0 +1,43 @@
+package main;
+
+/*
+ * A Flight Recorder event for one loop of NonogramSolution.step(): a sweep
+ * over the queued rows/columns, or the search once line logic stalls.
+ * Disabled by default, like LineSolveEvent.
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+@Name("main.Loop")
+@Label("Solver Loop")
+@Category("Nonogram")
+@Description("A loop of the solver over the queued rows/columns, or a search")
+@Enabled(false)
+@StackTrace(false)
+public class LoopEvent extends Event
+{
+    @Label("Loop")
+    int loop;
+
+    @Label("Search")
+    @Description("true if the loop was a search")
+    boolean search;
+
+    @Label("Line Solves")
+    int lineSolves;
+
+    @Label("Cells Decided")
+    int decided;
+
+    @Label("Empty Left")
+    int emptyLeft;
+
+    @Label("Queued")
+    @Description("Rows/columns waiting for the next loop")
+    int queued;
+} // end LoopEvent
@@ -26,9 +26,10 @@ public class NongramTest
         NonogramProblem newProblem = new NonogramProblem(rowNum, colNum, probNum);        
         NonogramSolution newSolution = new NonogramSolution(newProblem);
         
-        newSolution.solve();
+        SolveResult result = newSolution.solve();
         System.out.println();
         System.out.println(newSolution);
+        System.out.println(result);
         System.out.println("Is the answer to the puzzle correct?: " + newSolution.isCorrect());
     } // end main    
 }
@@ -8,10 +8,19 @@ package main;
  * @author Hyunryuung Kim   hryungk@gmail.com
  */
 import java.io.*;
-import java.util.Scanner;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
+import java.util.regex.Pattern;
 public class NonogramProblem 
 {    
+    private static final int MAP_THRESHOLD = 1 << 16;  // Files of this many bytes or more are memory-mapped
+    public static final String PROBLEM_DIR = "src/resources/Problems/";   // Folder of the puzzle files
+    public static final String PACK_FILE = PROBLEM_DIR + "Problems.pack";  // Puzzle pack read when a file is missing
+    static final Pattern FOLDER_PATTERN = Pattern.compile("Problem_(\\d+)x(\\d+)");   // Folder of a size: rows, columns
+    static final Pattern FILE_PATTERN = Pattern.compile("Problem_(\\d+)x(\\d+)_(\\d+)\\.txt");  // Puzzle file: rows, columns, number
+    
     private int r; // Number of rows
     private int c; // Number of columns
     
@@ -40,6 +49,31 @@ public class NonogramProblem
         isValid();        
     } // end  constructor    
     
+    /** Reads a problem from a puzzle file in the text format.
+     * @param input The puzzle file
+     * @throws IOException if the file can't be read or is malformed
+     */
+    public NonogramProblem(File input) throws IOException
+    {
+        readFile(input);
+        isValid();
+    } // end  constructor
+    
+    /** Creates a problem from its row/column arrays and solution.
+     * @param rows The row arrays
+     * @param columns The column arrays
+     * @param answer The solution, rows.length x columns.length
+     */
+    public NonogramProblem(int[][] rows, int[][] columns, Status[][] answer)
+    {
+        rowArrays = rows;
+        columnArrays = columns;
+        solution = answer;
+        r = rows.length;
+        c = columns.length;
+        isValid();
+    } // end  constructor
+    
     // Return an array of row arrays.
     public int[][] getRowArray()
     {
@@ -78,137 +112,87 @@ public class NonogramProblem
     }
     
     
+    // Read a problem from its text file, or from the puzzle pack if there is no such file.
     private void readProblem(int probNum) throws IOException
     {
-        String firstLine, secondLine, thirdLine;
-        Scanner fileScan; 
-        String path = "src/resources/Problems/Problem_" + r + "x" + c + "/";
+        String path = PROBLEM_DIR + "Problem_" + r + "x" + c + "/";
         File input = new File(path + "Problem_" + r + "x" + c + "_" + probNum + ".txt");
-        fileScan = new Scanner(input); // Read problem file
-        fileScan.useDelimiter("}");
+        File pack = new File(PACK_FILE);
+        if (!input.exists() && pack.exists())
+        {
+            NonogramProblem packed = PuzzlePack.open(pack).getProblem(r, c, probNum);
+            rowArrays = packed.rowArrays;
+            columnArrays = packed.columnArrays;
+            solution = packed.solution;
+            return;
+        } // end if
+        readFile(input);
+    } // end readProblem
+    
+    // Read a problem from a file in the text format.
+    private void readFile(File input) throws IOException
+    {
+        PuzzleParser parser = new PuzzleParser(readBytes(input));
         
-        // Scan the row arrays
-        firstLine = fileScan.nextLine();    // Row arrays scanner
-        rowArrays = arrayScanner(firstLine);
+        rowArrays = dropZeros(parser.readClues());      // Scan the row arrays
         r = rowArrays.length;        
-        
-        // Scan the column arrays
-        secondLine = fileScan.nextLine();    // Column arrays scanner
-        columnArrays = arrayScanner(secondLine);
+        columnArrays = dropZeros(parser.readClues());   // Scan the column arrays
         c = columnArrays.length;
-                
-        // Scan the solution
-        thirdLine = fileScan.next();    // Row arrays scanner
-        thirdLine = thirdLine.substring(1);
-        solution = answerScanner(thirdLine, r, c);        
-    } // end readProblem
+        solution = parser.readSolution(r, c);   // Scan the solution
+    } // end readFile
     
-    // Scan the array of row/column arrays and return it.
-    private int[][] arrayScanner(String currentLine)
-    {
-        //System.out.println("current line: " + currentLine);
-        Scanner lineScan, arrayScan; 
-        lineScan = new Scanner(currentLine);  // Scan the row array line
-        lineScan.useDelimiter("\\W{2,}");   // At least 2 occurrences of any 
-                                            // character other than a letter, 
-                                            // digit, or underscore
-        int size = 0;     // Measure the size of the grid
-        while(lineScan.hasNext())
-        {
-            lineScan.next(); // Pop the next text           
-            size++;
-        }
-        int[][] currentArray = new int[size][];           
-        int countArray = 0;     // Count the number of row arrays
-        lineScan = new Scanner(currentLine);  // Scan the row array line
-        lineScan.useDelimiter("\\W{2,}");
-        while(lineScan.hasNext())
-        {
-            String arrayNumbers = lineScan.next(); // A row array
-            //System.out.println("current text: " + arrayNumbers);  
-            int tempArrayLen = arrayNumbers.length()/2+1;   // Temporary array size
-            int[] tempArray = new int[tempArrayLen];     // Temporary row array
-            //System.out.println("\tarray size: " + tempArrayLen);
-            arrayScan = new Scanner(arrayNumbers);  // Number scanner of the row array
-            arrayScan.useDelimiter("\\W");
-            int countInt = 0;   // Count the number of numbers in the row array (actual array size)
-            while (arrayScan.hasNextInt())
-            {
-                int curInt = arrayScan.nextInt();
-                //System.out.println("\tcurrent number: " + curInt);
-                tempArray[countInt] = curInt;    // Add the number to the temporary array
-                countInt++;
-            } // end while
-            
-            int[] actualArray;  // Actual row/column array to be stored
-            if (countInt != tempArrayLen)   // When the numbers are more than two digits
-            {
-                actualArray = new int[countInt];
-                System.arraycopy(tempArray, 0, actualArray, 0, countInt);
-                //for (int i = 0; i < countInt; i++)
-                //    actualArray[i] = tempArray[i];
-            }
-            else
-                actualArray = tempArray;
-            
-            currentArray[countArray] = actualArray;
-            countArray++;
-        } // end while
-        return currentArray;
-    } // end arrayScanner
-    
-    // Scan the answer part from the file and return it.
-    private Status[][] answerScanner(String currentLine, int rowSize, int colSize)
-    {
-        Status[][] solutionGrid = new Status[rowSize][colSize];
-        Scanner scan = new Scanner(currentLine);
-        //scan.useDelimiter("\\W");
-        int i = 0;   // row counter
-        int j = 0;   // column counter
-        while (scan.hasNext())
+    // Return the arrays with [0], the usual way to write an empty row/column,
+    // turned into an empty array.
+    private static int[][] dropZeros(int[][] arrays)
+    {
+        for (int t = 0; t < arrays.length; t++)
+            if (arrays[t].length == 1 && arrays[t][0] == 0)
+                arrays[t] = new int[0];
+        return arrays;
+    } // end dropZeros
+    
+    // Return the bytes of a file. Large files are memory-mapped.
+    private static ByteBuffer readBytes(File input) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(input.toPath(), StandardOpenOption.READ))
         {
-            String text = scan.next();
-            //System.out.println("next text: " + text);            
-            if (text.equals("T"))
-            {
-                solutionGrid[i][j] = Status.True;
-                j++;
-            }
-            else if (text.equals("F"))
-            {
-                solutionGrid[i][j] = Status.False;
-                j++;
-            }
-            
-            if (j > 0 && j % colSize == 0)   // when column counter reaches the end of row
-                i++;    // increment the row number
-            j = j % colSize;
-            
-        } // end while
-        return solutionGrid;
-    } // end answerScanner    
+            long size = channel.size();
+            if (size >= MAP_THRESHOLD)
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) != -1)
+                ;   // Keep reading until the whole file is in the buffer
+            buffer.flip();
+            return buffer;
+        } // end try
+    } // end readBytes
     
     // Check whether the assertions for this problem are correct.
     //  Might throw an assertion error and program execution terminates.
     private void isValid()
     {
-        int[] curArray;
         for (int i = 0; i < r; i++)
-        {
-            curArray = rowArrays[i];
-            int a = curArray.length;    // The number of numbers in curArray
-            assert 1 <= a && a <= (r + 1) / 2; 
-            
-            int sum = 0;                        // sum of numbers in curArray
-            for (int ai = 0; ai < a; ai++)
-            {            
-                assert 1 <= curArray[ai] && curArray[ai] <= r;
-                sum += curArray[ai];
-            } // end for                           
-            assert sum + (a - 1) <= r;
-        } // end for
+            isValidArray(rowArrays[i], c);     // A row has c cells
+        for (int j = 0; j < c; j++)
+            isValidArray(columnArrays[j], r);  // A column has r cells
     } // end isValid
     
+    // Check that a row/column array fits in a line of len cells.
+    // An empty array is a line with no True cell.
+    private void isValidArray(int[] curArray, int len)
+    {
+        int a = curArray.length;    // The number of numbers in curArray
+        assert a <= (len + 1) / 2; 
+        
+        int sum = 0;                        // sum of numbers in curArray
+        for (int ai = 0; ai < a; ai++)
+        {            
+            assert 1 <= curArray[ai] && curArray[ai] <= len;
+            sum += curArray[ai];
+        } // end for                           
+        assert sum + (a - 1) <= len;
+    } // end isValidArray
+    
     private String solutionToString()
     {
         String result = "";
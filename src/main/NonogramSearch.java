@@ -0,0 +1,269 @@
+package main;
+
+/*
+ * A class that finishes a Nonogram puzzle once line logic has stalled.
+ *
+ *  Probing:        tentatively set an Empty cell and propagate; if that leads
+ *                  to a contradiction, the cell must have the other Status.
+ *  Backtracking:   when probing stops finding cells, guess a cell and search
+ *                  depth-first, undoing guesses that lead to a contradiction.
+ *
+ * Every trial propagation counts against a limit, so the search always ends
+ * in bounded time; isLimitReached() tells a failed search from a proof that
+ * there is no solution. solveAll() keeps searching past the first solution,
+ * which is how SolutionCounter checks that a puzzle is unique.
+ *
+ * With a ForkJoinPool set, the two branches of every guess are searched as
+ * separate tasks on their own copies of the solver, and the first branch to
+ * find a solution cancels the branches that have not started yet.
+ */
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+public class NonogramSearch
+{
+    private static final Status[] GUESSES = {Status.True, Status.False};
+
+    private final int limit;            // Maximum number of trial propagations
+    private final AtomicInteger trials = new AtomicInteger();  // Trial propagations so far
+    private volatile boolean limitReached;  // true if the search stopped at the limit
+    private ForkJoinPool pool;          // Pool for parallel backtracking; null to search on this thread
+
+    /** Creates a search with a limit on the work it may do.
+     * @param maxTrials The maximum number of trial propagations
+     */
+    public NonogramSearch(int maxTrials)
+    {
+        limit = maxTrials;
+    } // end constructor
+
+    /** Sets the pool used to search branches in parallel.
+     * @param newPool A ForkJoinPool, or null to backtrack on the calling thread
+     */
+    public void setPool(ForkJoinPool newPool)
+    {
+        pool = newPool;
+    } // end setPool
+
+    /** Solves a puzzle from its current cells by probing and backtracking.
+     *  The given solver must propagate with a line solver that detects contradictions.
+     * @param start The solver to start from; it is modified by probing
+     * @return A solver whose answer is complete and valid;
+     *         null if there is no solution or the limit was reached
+     */
+    public NonogramSolution solve(NonogramSolution start)
+    {
+        if (!start.propagate())
+            return null;
+        if (!probe(start))
+            return null;
+        if (start.isComplete())
+            return start;
+        if (pool != null)
+            return parallelBacktrack(start);
+        List<NonogramSolution> found = new ArrayList<>(1);
+        backtrack(start, 1, found);
+        return found.isEmpty() ? null : found.get(0);
+    } // end solve
+
+    /** Finds up to maxCount solutions of a puzzle from its current cells,
+     *  searching on the calling thread.
+     * @param start The solver to start from; it is modified by probing
+     * @param maxCount The number of solutions after which to stop, at least 1
+     * @return A list of solvers with complete, valid answers, in the order found;
+     *         fewer than maxCount if there are no more or the limit was reached
+     */
+    public List<NonogramSolution> solveAll(NonogramSolution start, int maxCount)
+    {
+        if (maxCount < 1)
+            throw new IllegalArgumentException("Solution count must be at least 1: " + maxCount);
+        List<NonogramSolution> found = new ArrayList<>();
+        if (start.propagate() && probe(start))
+            backtrack(start, maxCount, found);
+        return found;
+    } // end solveAll
+
+    /** Returns the number of trial propagations done so far.
+     * @return An integer containing the number of trials
+     */
+    public int getTrialCount()
+    {
+        return trials.get();
+    } // end getTrialCount
+
+    /** Returns true if the search gave up at the limit.
+     * @return true if the limit on trial propagations was reached
+     */
+    public boolean isLimitReached()
+    {
+        return limitReached;
+    } // end isLimitReached
+
+    /** Fixes every Empty cell whose opposite leads to a contradiction,
+     *  until no more cells can be fixed this way.
+     * @param sol The solver to probe; fixed cells are set and propagated in it
+     * @return false if the puzzle has no solution from the current cells
+     */
+    public boolean probe(NonogramSolution sol)
+    {
+        boolean progress = true;
+        while (progress && !sol.isComplete())
+        {
+            progress = false;
+            for (int i = 0; i < sol.getRowNum(); i++)
+            {
+                for (int j = 0; j < sol.getColNum(); j++)
+                {
+                    if (sol.getCell(i, j) != Status.Empty)
+                        continue;
+                    for (Status guess : GUESSES)
+                    {
+                        if (!spendTrial())
+                            return true;    // Out of budget; what is fixed so far is still valid
+                        NonogramSolution trial = sol.copy();
+                        trial.setCell(i, j, guess);
+                        if (!trial.propagate())
+                        {
+                            sol.setCell(i, j, opposite(guess));
+                            if (!sol.propagate())
+                                return false;
+                            progress = true;
+                            break;
+                        } // end if
+                    } // end for
+                } // end for
+            } // end for
+        } // end while
+        return true;
+    } // end probe
+
+    // Depth-first search over guesses, True before False, until maxCount
+    // complete solvers are in found, the tree is exhausted, or the limit is reached.
+    private void backtrack(NonogramSolution start, int maxCount, List<NonogramSolution> found)
+    {
+        ArrayDeque<NonogramSolution> stack = new ArrayDeque<>();
+        stack.push(start);
+        while (!stack.isEmpty() && found.size() < maxCount)
+        {
+            NonogramSolution sol = stack.pop();
+            if (sol.isComplete())
+            {
+                found.add(sol);
+                continue;
+            } // end if
+            int[] cell = pickCell(sol);
+            for (int g = GUESSES.length - 1; g >= 0; g--)   // Push False first so True is tried first
+            {
+                if (!spendTrial())
+                    return;
+                NonogramSolution trial = sol.copy();
+                trial.setCell(cell[0], cell[1], GUESSES[g]);
+                if (trial.propagate())
+                    stack.push(trial);
+            } // end for
+        } // end while
+    } // end backtrack
+
+    // Searches both branches of every guess as fork/join tasks.
+    private NonogramSolution parallelBacktrack(NonogramSolution start)
+    {
+        AtomicReference<NonogramSolution> found = new AtomicReference<>();
+        pool.invoke(new BranchTask(start, -1, -1, null, found));
+        return found.get();
+    } // end parallelBacktrack
+
+    // A branch of the parallel search: sets one cell in a copy of the
+    // parent solver, propagates, and searches both branches below it.
+    private class BranchTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+        private final NonogramSolution parent;
+        private final int row, col;         // Cell to set; -1 for the root task
+        private final Status guess;         // Status to set the cell to
+        private final AtomicReference<NonogramSolution> found;
+
+        BranchTask(NonogramSolution parent, int row, int col, Status guess,
+                   AtomicReference<NonogramSolution> found)
+        {
+            this.parent = parent;
+            this.row = row;
+            this.col = col;
+            this.guess = guess;
+            this.found = found;
+        } // end constructor
+
+        @Override
+        protected void compute()
+        {
+            if (found.get() != null)
+                return;
+            NonogramSolution sol = parent;
+            if (row != -1)
+            {
+                if (!spendTrial())
+                    return;
+                sol = parent.copy();
+                sol.setCell(row, col, guess);
+                if (!sol.propagate())
+                    return;
+            } // end if
+            if (sol.isComplete())
+            {
+                found.compareAndSet(null, sol);
+                return;
+            } // end if
+
+            int[] cell = pickCell(sol);
+            BranchTask falseBranch = new BranchTask(sol, cell[0], cell[1], Status.False, found);
+            falseBranch.fork();
+            new BranchTask(sol, cell[0], cell[1], Status.True, found).compute();
+            if (found.get() != null)
+                falseBranch.cancel(false);  // Only if it hasn't started; a running one stops at its next found check
+            else
+                falseBranch.join();
+        } // end compute
+    } // end BranchTask
+
+    /** Returns the Empty cell to branch on: the first one in the row with the fewest Empty cells.
+     * @param sol The solver to branch in
+     * @return An integer array {row index, column index}
+     */
+    public static int[] pickCell(NonogramSolution sol)
+    {
+        int bestRow = -1;
+        for (int i = 0; i < sol.getRowNum(); i++)
+        {
+            int numE = sol.getEmptyCount(RowCol.Row, i);
+            if (numE > 0 && (bestRow == -1 || numE < sol.getEmptyCount(RowCol.Row, bestRow)))
+                bestRow = i;
+        } // end for
+        int j = 0;
+        while (sol.getCell(bestRow, j) != Status.Empty)
+            j++;
+        int[] cell = {bestRow, j};
+        return cell;
+    } // end pickCell
+
+    // Counts one trial propagation. Returns false once the limit is reached.
+    private boolean spendTrial()
+    {
+        if (trials.incrementAndGet() > limit)
+        {
+            trials.decrementAndGet();
+            limitReached = true;
+            return false;
+        } // end if
+        return true;
+    } // end spendTrial
+
+    // Returns True for False and False for True.
+    private static Status opposite(Status stat)
+    {
+        return (stat == Status.True) ? Status.False : Status.True;
+    } // end opposite
+} // end NonogramSearch
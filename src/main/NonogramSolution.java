@@ -10,17 +10,40 @@ package main;
  */
 import main.NonogramProblem;
 import main.ArrayInfo;
-import java.util.Arrays;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import jdk.jfr.FlightRecorder;
 public class NonogramSolution
 {   
+    public static final int DEFAULT_SEARCH_LIMIT = 10000;   // Trial propagations allowed per search; about 2 s on a 25x25 puzzle
+    public static final int DEFAULT_STALL_LIMIT = 4;        // Loops in a row without a new cell before searching
+    private static final LineSolver FALLBACK_SOLVER = new DynamicLineSolver();  // Solves a line the rules fail on
+    
     private final int[][] PROB_ROW;     // Row arrays of the problem
     private final int[][] PROB_COL;     // Column arrays of the problem   
     private final Status[][] SOLUTION;  // Solution to the problem
-    private Status[][] myAnswer;          // Answer that this solver produces
+    private final BitGrid myAnswer;     // Answer that this solver produces
     private final int m, n;             // size of row and column, respectively
     private final ArrayInfo[] row_arrays;     // An array of array information objects for row arrays
     private final ArrayInfo[] col_arrays;     // An array of array information objects for column arrays
+    private LineSolver lineSolver;      // Engine for each row/column; null to use the rules below
+    private final LineQueue queue;      // Rows/columns waiting to be solved
+    private boolean changedSinceSweep;  // true if any cell changed since the last full sweep
+    private int loopCount;              // Number of loops run so far
+    private int lineSolveCount;         // Number of rows/columns solved so far
+    private final int[] rowEmpty, colEmpty;     // Number of Empty cells in each row/column
+    private final int[] rowChanges, colChanges; // Cells newly set in each row/column since its last visit
+    private boolean contradiction;      // true if a row/column has no valid placement
+    private int searchLimit;            // Maximum trial propagations once line logic stalls; 0 disables search
+    private boolean searched;           // true once a search has been run
+    private ForkJoinPool searchPool;    // Pool for parallel backtracking; null to search on one thread
+    private int stallLimit;             // Loops in a row without a new cell after which solve() stops
+    private int idleLoops;              // Loops in a row that decided no cell
+    private final ArrayList<Integer> decidedPerLoop;    // Cells decided by each loop
+    private SolveRecorder recorder;     // Receives the steps of the solve; null to record nothing
+    private boolean trackChanges;       // true to list the cells changed by each step
+    private CellChanges lastChanges;    // Cells changed by the current/last step; null if not tracked
     
     /** Initializes parameters by loading a new problem.
      * @param newProblem A Nonogram problem to solve
@@ -37,72 +60,591 @@ public class NonogramSolution
         
         row_arrays = new ArrayInfo[m];
         for (int i = 0; i < m; i++)
-            row_arrays[i] = new ArrayInfo(PROB_ROW[i], m);
+            row_arrays[i] = new ArrayInfo(PROB_ROW[i], n);  // A row has n cells
         col_arrays = new ArrayInfo[n];
         for (int j = 0; j < n; j++)
-            col_arrays[j] = new ArrayInfo(PROB_COL[j], n);
+            col_arrays[j] = new ArrayInfo(PROB_COL[j], m);  // A column has m cells
         
         
-        myAnswer = new Status[m][n];
-        for (int i = 0; i < m; i++) // Initialize answer as Empty
-            for (int j = 0; j < n; j++)
-                myAnswer[i][j] = Status.Empty;        
+        myAnswer = new BitGrid(m, n);   // Initialize answer as Empty
+        rowEmpty = new int[m];
+        colEmpty = new int[n];
+        Arrays.fill(rowEmpty, n);
+        Arrays.fill(colEmpty, m);
+        rowChanges = new int[m];
+        colChanges = new int[n];
+        
+        queue = new LineQueue(m, n);    // Every array is solved at least once
+        for (int i = 0; i < m; i++)
+            queue.add(RowCol.Row, i, getScore(RowCol.Row, i));
+        for (int j = 0; j < n; j++)
+            queue.add(RowCol.Column, j, getScore(RowCol.Column, j));
+        searchLimit = DEFAULT_SEARCH_LIMIT;
+        stallLimit = DEFAULT_STALL_LIMIT;
+        decidedPerLoop = new ArrayList<>();
     } // end constructor    
     
+    // Copy constructor. The copy has its own cells and array information,
+    // an empty work queue, and never starts a search by itself.
+    private NonogramSolution(NonogramSolution other)
+    {
+        PROB_ROW = other.PROB_ROW;
+        PROB_COL = other.PROB_COL;
+        SOLUTION = other.SOLUTION;
+        m = other.m;
+        n = other.n;
+        
+        row_arrays = new ArrayInfo[m];
+        for (int i = 0; i < m; i++)
+            row_arrays[i] = new ArrayInfo(other.row_arrays[i]);
+        col_arrays = new ArrayInfo[n];
+        for (int j = 0; j < n; j++)
+            col_arrays[j] = new ArrayInfo(other.col_arrays[j]);
+        
+        myAnswer = other.myAnswer.copy();
+        rowEmpty = other.rowEmpty.clone();
+        colEmpty = other.colEmpty.clone();
+        rowChanges = other.rowChanges.clone();
+        colChanges = other.colChanges.clone();
+        queue = new LineQueue(m, n);
+        lineSolver = other.lineSolver;
+        contradiction = other.contradiction;
+        searchLimit = other.searchLimit;
+        searchPool = other.searchPool;
+        stallLimit = other.stallLimit;
+        decidedPerLoop = new ArrayList<>();
+        searched = true;
+    } // end copy constructor
+    
+    /** Returns a copy of this solver with its own cells and array information.
+     *  The copy starts with an empty work queue.
+     * @return A new NonogramSolution in the same state
+     */
+    public NonogramSolution copy()
+    {
+        return new NonogramSolution(this);
+    } // end copy
+    
+    // Overwrites the cells and array information with those of another copy.
+    private void copyFrom(NonogramSolution other)
+    {
+        myAnswer.copyFrom(other.myAnswer);
+        for (int i = 0; i < m; i++)
+            row_arrays[i] = new ArrayInfo(other.row_arrays[i]);
+        for (int j = 0; j < n; j++)
+            col_arrays[j] = new ArrayInfo(other.col_arrays[j]);
+        System.arraycopy(other.rowEmpty, 0, rowEmpty, 0, m);
+        System.arraycopy(other.colEmpty, 0, colEmpty, 0, n);
+        contradiction = other.contradiction;
+    } // end copyFrom
+    
+    /** Sets the recorder that receives each loop, row/column visit, rule and cell change.
+     *  Copies made for search don't record; the cells search decides are recorded at its end.
+     * @param newRecorder A SolveRecorder for a grid of this size, or null to stop recording
+     */
+    public void setRecorder(SolveRecorder newRecorder)
+    {
+        recorder = newRecorder;
+    } // end setRecorder
+    
+    /** Sets whether each step lists the cells it changed, for getLastChanges().
+     *  Copies made for search don't track changes.
+     * @param track true to list the changed cells of every step
+     */
+    public void setTrackChanges(boolean track)
+    {
+        trackChanges = track;
+        if (!track)
+            lastChanges = null;
+    } // end setTrackChanges
+    
+    /** Returns the cells changed by the last call of step().
+     *  The list is new in every step, so it isn't modified by later steps.
+     * @return A CellChanges; empty if no step has run with change tracking on
+     */
+    public CellChanges getLastChanges()
+    {
+        return (lastChanges == null) ? new CellChanges() : lastChanges;
+    } // end getLastChanges
+    
+    /** Sets the engine used to solve each row/column.
+     * @param newSolver A LineSolver to use, or null to use the built-in rules of findArraySolution
+     */
+    public void setLineSolver(LineSolver newSolver)
+    {
+        lineSolver = newSolver;
+    } // end setLineSolver
+    
+    /** Sets how much searching is allowed once line logic stalls.
+     * @param maxTrials The maximum number of trial propagations; 0 disables searching
+     */
+    public void setSearchLimit(int maxTrials)
+    {
+        searchLimit = maxTrials;
+    } // end setSearchLimit
+    
+    /** Sets the pool used to search branches in parallel once line logic stalls.
+     * @param pool A ForkJoinPool, e.g. ForkJoinPool.commonPool(); null to search on the calling thread
+     */
+    public void setSearchPool(ForkJoinPool pool)
+    {
+        searchPool = pool;
+    } // end setSearchPool
+    
+    /** Sets how many loops in a row may decide no cell before solve() stops line logic and searches.
+     * @param loops The number of idle loops allowed, at least 1
+     */
+    public void setStallLimit(int loops)
+    {
+        stallLimit = loops;
+    } // end setStallLimit
+    
     /** Solves the given problem.
-     *  Tries to solve row by row, column by column until all is solved.
+     *  Tries to solve rows and columns from the work queue until the queue is empty,
+     *  or until stallLimit loops in a row have decided no cell, and then searches.
+     *  Each loop but the last stallLimit decides a cell and there is one search,
+     *  so every puzzle ends in a bounded number of loops. If a line solver
+     *  throws, solving stops there and the cells decided so far are returned.
+     * @return A SolveResult with the status, the cells decided so far and the work done
      */
-    public void solve()
+    public SolveResult solve()
     {
-        boolean noEmpty = false;    // true if there is no empty cells
-        int loopCount = 0;
-        while (!noEmpty)    // Keep solving arrays until there is no empty cell
+        try
         {
-            noEmpty = true;     // initialize noEmpty every loop
-            System.out.println("==============================================" +
-                               "=========\n\t\t\tLoop "+ (loopCount+1) +
-                               "\n============================================" +
-                               "===========");
-            System.out.println("----------------------- Row - " + (loopCount+1) +
-                               " -----------------------");            
-            for (int i = 0; i < m; i++) // Scan rows
-            {                
-                if (!row_arrays[i].isSolved())
+            while (step())
+            {
+                // The rules queue a line again whenever its ArrayInfo moves, even
+                // if no cell was decided, so the queue may never run dry.
+                if (idleLoops >= stallLimit && !queue.isEmpty())
                 {
-                    System.out.println("Array " + Arrays.toString(PROB_ROW[i]) +
-                            " -> " + Arrays.toString(row_arrays[i].getArray()) + ":");
-                    Status[] temp = findArraySolution(RowCol.Row,i, m, myAnswer, row_arrays[i]);
-                    System.arraycopy(temp, 0, myAnswer[i], 0, n); 
-                    //for (int j = 0; j < n; j++)
-                    //    answer[i][j] = temp[j]; 
-                }
-                else
-                    System.out.println("Array " + Arrays.toString(PROB_ROW[i]) 
-                                       + " is solved.");
-            } // end for
-            
-            System.out.println("--------------------- Column - " + (loopCount+1) +
-                               " ---------------------");
-            for (int j = 0; j < n; j++) // Scan columns
+                    if (Trace.LOOP)
+                        Trace.println("No cell decided in " + idleLoops + " loops. Stopping line logic.");
+                    queue.clear();
+                    idleLoops = 0;
+                } // end if
+            } // end while
+        }
+        catch (RuntimeException ex)
+        {
+            // A line is written back only after it is solved, so the grid is consistent.
+            if (Trace.LOOP)
+                Trace.println("Solving stopped by " + ex);
+            queue.clear();
+        } // end try
+        return getResult();
+    } // end solve
+    
+    /** Returns the current state of the solver as a result.
+     * @return A SolveResult with the status, the cells decided so far and the work done
+     */
+    public SolveResult getResult()
+    {
+        SolveStatus status = contradiction ? SolveStatus.Contradiction
+                : !myAnswer.isComplete() ? SolveStatus.Stalled
+                : isValid() ? SolveStatus.Solved : SolveStatus.Contradiction;
+        int[] decided = new int[decidedPerLoop.size()];
+        for (int t = 0; t < decided.length; t++)
+            decided[t] = decidedPerLoop.get(t);
+        return new SolveResult(status, getAnswer(), loopCount, lineSolveCount, decided,
+                               openLines(rowEmpty), openLines(colEmpty));
+    } // end getResult
+    
+    /** Runs one loop of the solver.
+     *  Solves every row/column that was in the work queue when the loop started.
+     *  A row/column is queued again only when a cell crossing it has changed.
+     *  Once the queue is empty with cells still undecided, the next loop
+     *  searches by probing and branching on the undecided cells.
+     * @return true if there is work left to do.
+     */
+    public boolean step()
+    {
+        boolean search = queue.isEmpty();   // Nothing queued: line logic has stalled
+        if (search && !needsSearch())
+            return false;
+        int emptyBefore = myAnswer.count(Status.Empty);
+        int linesBefore = lineSolveCount;
+        lastChanges = trackChanges ? new CellChanges() : null;
+        LoopEvent event = null;
+        if (FlightRecorder.isInitialized())     // Touching an event class starts JFR, so wait for a recording
+        {
+            event = new LoopEvent();
+            event.begin();
+        } // end if
+        boolean more;
+        try
+        {
+            if (search)
+            {
+                runSearch();
+                more = false;
+            }
+            else
             {
+                runLoop();
+                more = !queue.isEmpty() || needsSearch();
+            } // end if
+        }
+        finally     // The loop is counted and its event closed even if a line solver throws
+        {
+            if (event != null)
+                event.end();
+            int emptyAfter = myAnswer.count(Status.Empty);
+            int decided = emptyBefore - emptyAfter;
+            decidedPerLoop.add(decided);
+            idleLoops = (decided == 0) ? idleLoops + 1 : 0;
+            if (event != null && event.shouldCommit())
+            {
+                event.loop = loopCount;
+                event.search = search;
+                event.lineSolves = lineSolveCount - linesBefore;
+                event.decided = decided;
+                event.emptyLeft = emptyAfter;
+                event.queued = queue.size();
+                event.commit();
+            } // end if
+        } // end try
+        return more;
+    } // end step
+    
+    /** Solves rows and columns from the work queue until it is empty, without searching.
+     * @return false if a row/column has no valid placement.
+     */
+    public boolean propagate()
+    {
+        while (!queue.isEmpty())
+            runLoop();
+        return !contradiction;
+    } // end propagate
+    
+    /** Sets a cell and queues its row and column.
+     *  Setting a decided cell to the other Status is a contradiction.
+     * @param i An integer containing an index of row component
+     * @param j An integer containing an index of column component
+     * @param stat The new Status of the cell, True or False
+     */
+    public void setCell(int i, int j, Status stat)
+    {
+        Status old = myAnswer.get(i, j);
+        if (old == stat)
+            return;
+        if (old != Status.Empty)
+        {
+            contradiction = true;
+            return;
+        } // end if
+        myAnswer.set(i, j, stat);
+        rowEmpty[i]--;
+        colEmpty[j]--;
+        rowChanges[i]++;
+        colChanges[j]++;
+        if (!row_arrays[i].isSolved())
+            queue.add(RowCol.Row, i, getScore(RowCol.Row, i));
+        if (!col_arrays[j].isSolved())
+            queue.add(RowCol.Column, j, getScore(RowCol.Column, j));
+    } // end setCell
+    
+    /** Returns the status of cell (i, j) in the answer.
+     * @param i An integer containing an index of row component
+     * @param j An integer containing an index of column component
+     * @return The Status of the cell
+     */
+    public Status getCell(int i, int j)
+    {
+        return myAnswer.get(i, j);
+    } // end getCell
+    
+    /** Returns the number of Empty cells left in a row/column.
+     * @param rowcol  Indicator whether a row or a column is requested
+     * @param idx The index of row/column
+     * @return An integer containing the number of Empty cells
+     */
+    public int getEmptyCount(RowCol rowcol, int idx)
+    {
+        return (rowcol == RowCol.Row) ? rowEmpty[idx] : colEmpty[idx];
+    } // end getEmptyCount
+    
+    /** Returns the number of rows.
+     * @return An integer containing the number of rows
+     */
+    public int getRowNum()
+    {
+        return m;
+    } // end getRowNum
+    
+    /** Returns the number of columns.
+     * @return An integer containing the number of columns
+     */
+    public int getColNum()
+    {
+        return n;
+    } // end getColNum
+    
+    /** Returns true if no cell in the answer is Empty.
+     * @return true if every cell is decided
+     */
+    public boolean isComplete()
+    {
+        return myAnswer.isComplete();
+    } // end isComplete
+    
+    /** Returns true if a row/column was found with no valid placement,
+     *  i.e. the puzzle has no solution from the current cells.
+     * @return true if a contradiction was found
+     */
+    public boolean isContradiction()
+    {
+        return contradiction;
+    } // end isContradiction
+    
+    // Solves every row/column that was in the work queue when the loop started.
+    private void runLoop()
+    {
+        if (Trace.LOOP)
+            Trace.println("==============================================" +
+                          "=========\n\t\t\tLoop "+ (loopCount+1) +
+                          "\n============================================" +
+                          "===========");
+        if (recorder != null)
+            recorder.loop(loopCount + 1);
+        int numLines = queue.size();    // Arrays queued before this loop
+        for (int t = 0; t < numLines && !contradiction; t++)
+        {
+            int id = queue.poll();
+            solveQueuedArray(queue.getRowCol(id), queue.getIndex(id));
+        } // end for
+        loopCount++;
+        
+        if (contradiction)
+            queue.clear();
+        else if (lineSolver == null && myAnswer.isComplete())  // No empty cell is left
+            queue.clear();
+        else if (queue.isEmpty() && lineSolver == null && changedSinceSweep)
+        {
+            // The rules in findArraySolution don't always finish an array in 
+            // one visit, so sweep all unsolved arrays once more.
+            changedSinceSweep = false;
+            for (int i = 0; i < m; i++)
+                if (!row_arrays[i].isSolved())
+                    queue.add(RowCol.Row, i, getScore(RowCol.Row, i));
+            for (int j = 0; j < n; j++)
                 if (!col_arrays[j].isSolved())
-                {
-                    System.out.println("Array " + Arrays.toString(PROB_COL[j]) +
-                            "->" + Arrays.toString(col_arrays[j].getArray()) + ":");
-                    Status[] temp = findArraySolution(RowCol.Column, j, n, myAnswer, col_arrays[j]);
-                    for (int i = 0; i < n; i++)
-                    {
-                        myAnswer[i][j] = temp[i]; 
-                        noEmpty = noEmpty && (myAnswer[i][j] != Status.Empty);
-                    } // end for
-                }
-                else                                    
-                    System.out.println("Array " + Arrays.toString(PROB_COL[j]) 
-                                       + " is solved.");
-            } // end for
-            loopCount++;            
+                    queue.add(RowCol.Column, j, getScore(RowCol.Column, j));
+        } // end if
+    } // end runLoop
+    
+    // Returns true if line logic has stalled with cells left to decide,
+    // or if the rules have filled a grid that breaks an array.
+    private boolean needsSearch()
+    {
+        if (searched || searchLimit <= 0 || contradiction)
+            return false;
+        return !myAnswer.isComplete() || (lineSolver == null && !isValid());
+    } // end needsSearch
+    
+    // Line logic has stalled: probe and branch on the undecided cells.
+    // The rules in findArraySolution can't detect a contradiction and may set
+    // a wrong cell, so after them the search starts again from the arrays
+    // with a DynamicLineSolver. Every cell the rules decide correctly follows
+    // from line logic, so it is found again by the first propagation.
+    // If the limit is reached, the cells fixed by probing are kept.
+    private void runSearch()
+    {
+        searched = true;
+        if (Trace.LOOP)
+            Trace.println("Line logic stalled with " + myAnswer.count(Status.Empty) +
+                          " empty cells. Searching...");
+        NonogramSolution start;
+        if (lineSolver == null)
+        {
+            start = new NonogramSolution(new NonogramProblem(PROB_ROW, PROB_COL, SOLUTION));
+            start.lineSolver = new DynamicLineSolver();
+            start.searched = true;
+        }
+        else
+            start = copy();
+        NonogramSearch search = new NonogramSearch(searchLimit);
+        search.setPool(searchPool);
+        NonogramSolution result = search.solve(start);
+        if (result == null && search.isLimitReached())
+            result = start;         // Keep what probing has fixed
+        if (result != null)
+        {
+            if (recorder != null || lastChanges != null)
+                recordSearch(result);
+            copyFrom(result);
+        } // end if
+        else
+            contradiction = true;   // Every branch failed: the puzzle has no solution
+        if (Trace.LOOP)
+            Trace.println("Search finished after " + search.getTrialCount() + " trials: " +
+                          (search.isLimitReached() ? "limit reached." : contradiction ? "no solution." : "solved."));
+        loopCount++;
+    } // end runSearch
+    
+    /** Returns the number of loops run so far.
+     * @return An integer containing the loop count
+     */
+    public int getLoopCount()
+    {
+        return loopCount;
+    } // end getLoopCount
+    
+    /** Returns the number of rows/columns solved so far.
+     * @return An integer containing the number of line solves
+     */
+    public int getLineSolveCount()
+    {
+        return lineSolveCount;
+    } // end getLineSolveCount
+    
+    /** Returns the answer that this solver has produced so far.
+     * @return A 2D array of status of each cell of the grid
+     */
+    public Status[][] getAnswer()
+    {
+        return myAnswer.toArray();
+    } // end getAnswer
+    
+    // Solves a row/column taken from the queue and queues the crossing
+    // arrays of every cell that has changed.
+    private void solveQueuedArray(RowCol rowcol, int idx)
+    {
+        boolean isRow = (rowcol == RowCol.Row);
+        ArrayInfo curArrayInfo = isRow ? row_arrays[idx] : col_arrays[idx];
+        int[] probArray = isRow ? PROB_ROW[idx] : PROB_COL[idx];
+        if (curArrayInfo.isSolved())
+        {
+            if (Trace.LINE)
+                Trace.println("Array " + Arrays.toString(probArray) + " is solved.");
+            return;
+        } // end if
+        if (Trace.LINE)
+            Trace.println(rowcol + " " + idx + ": Array " + Arrays.toString(probArray) +
+                          " -> " + Arrays.toString(curArrayInfo.getArray()) + ":");
+        
+        if (recorder != null)
+            recorder.line(rowcol, idx);
+        
+        int[] changes = isRow ? rowChanges : colChanges;
+        changes[idx] = 0;
+        BitLine before = myAnswer.getLine(rowcol, idx);
+        BitLine arrayAnswer = before.copy();
+        int oldNum = curArrayInfo.getNum();
+        int oldBeg = curArrayInfo.getBeg();
+        int oldEnd = curArrayInfo.getEnd();
+        LineSolveEvent event = null;
+        if (FlightRecorder.isInitialized())
+        {
+            event = new LineSolveEvent();
+            event.begin();
+        } // end if
+        solveArray(rowcol, idx, isRow ? n : m, arrayAnswer, curArrayInfo);
+        if (event != null)
+            event.end();
+        lineSolveCount++;
+        myAnswer.setLine(rowcol, idx, arrayAnswer);
+        
+        // Queue the crossing arrays of the changed cells
+        RowCol crossing = isRow ? RowCol.Column : RowCol.Row;
+        ArrayInfo[] crossingArrays = isRow ? col_arrays : row_arrays;
+        int[] crossingEmpty = isRow ? colEmpty : rowEmpty;
+        int[] crossingChanges = isRow ? colChanges : rowChanges;
+        int[] lineEmpty = isRow ? rowEmpty : colEmpty;
+        int i = arrayAnswer.nextDifference(before, 0);
+        while (i < arrayAnswer.length())
+        {
+            if (recorder != null)
+                recorder.cell(isRow ? idx : i, isRow ? i : idx, arrayAnswer.get(i));
+            if (lastChanges != null)
+                lastChanges.add(isRow ? idx : i, isRow ? i : idx, arrayAnswer.get(i));
+            lineEmpty[idx]--;
+            crossingEmpty[i]--;
+            crossingChanges[i]++;
+            if (!crossingArrays[i].isSolved())
+                queue.add(crossing, i, getScore(crossing, i));
+            changedSinceSweep = true;
+            i = arrayAnswer.nextDifference(before, i + 1);
         } // end while
-    } // end solve
+        if (event != null && event.shouldCommit())
+        {
+            event.rowcol = rowcol.name();
+            event.index = idx;
+            event.length = arrayAnswer.length();
+            event.emptyBefore = before.count(Status.Empty);
+            event.emptyAfter = lineEmpty[idx];
+            event.engine = (lineSolver == null) ? "rules" : lineSolver.getClass().getSimpleName();
+            event.commit();
+        } // end if
+        
+        // The rules keep their progress in ArrayInfo, so visit again if it moved.
+        boolean infoChanged = oldNum != curArrayInfo.getNum() ||
+                oldBeg != curArrayInfo.getBeg() || oldEnd != curArrayInfo.getEnd();
+        if (!curArrayInfo.isSolved() && infoChanged)
+            queue.add(rowcol, idx, getScore(rowcol, idx));
+    } // end solveQueuedArray
+    
+    // Records/lists the cells that search decided, before they are copied in.
+    private void recordSearch(NonogramSolution result)
+    {
+        if (recorder != null)
+            recorder.rule(Rule.Search);
+        for (int i = 0; i < m; i++)
+            for (int j = 0; j < n; j++)
+            {
+                Status stat = result.myAnswer.get(i, j);
+                if (myAnswer.get(i, j) == stat)
+                    continue;
+                if (recorder != null)
+                    recorder.cell(i, j, stat);
+                if (lastChanges != null)
+                    lastChanges.add(i, j, stat);
+            } // end for
+    } // end recordSearch
+    
+    // Marks the start of a rule on the row/column being solved; pass the mark to endRule().
+    private long startRule(BitLine arrayAnswer)
+    {
+        if (recorder == null && !RuleStats.ENABLED)
+            return 0;
+        return RuleStats.start(arrayAnswer);
+    } // end startRule
+    
+    // Counts a rule in RuleStats and, if it decided any cells, records it.
+    private void endRule(Rule rule, long mark, BitLine arrayAnswer)
+    {
+        if (recorder == null && !RuleStats.ENABLED)
+            return;
+        if (RuleStats.stop(rule, mark, arrayAnswer) > 0 && recorder != null)
+            recorder.rule(rule);
+    } // end endRule
+    
+    // Returns the indices of the rows/columns that have Empty cells left.
+    private static int[] openLines(int[] emptyCounts)
+    {
+        int count = 0;
+        for (int numE : emptyCounts)
+            if (numE > 0)
+                count++;
+        int[] result = new int[count];
+        count = 0;
+        for (int t = 0; t < emptyCounts.length; t++)
+            if (emptyCounts[t] > 0)
+                result[count++] = t;
+        return result;
+    } // end openLines
+    
+    // Returns the priority of a row/column in the work queue; lower is solved first.
+    // Tight arrays (little slack), arrays crossed by many newly set cells and
+    // arrays with few empty cells left are the likeliest to give new cells.
+    private int getScore(RowCol rowcol, int idx)
+    {
+        boolean isRow = (rowcol == RowCol.Row);
+        ArrayInfo curArrayInfo = isRow ? row_arrays[idx] : col_arrays[idx];
+        int slack = curArrayInfo.getLength() - (curArrayInfo.getSum() + curArrayInfo.getNum() - 1);
+        int numE = isRow ? rowEmpty[idx] : colEmpty[idx];
+        int newlySet = isRow ? rowChanges[idx] : colChanges[idx];
+        return slack + numE - 2 * newlySet;
+    } // end getScore
     
     /** Checks whether the solution is correct.
      *  Compares the answer to the given solution for the problem.
@@ -113,20 +655,64 @@ public class NonogramSolution
         boolean result = true;
         for (int i = 0; i < m; i ++)
             for (int j = 0; j < n; j++)
-                result = result && (myAnswer[i][j] == SOLUTION[i][j]);
+                result = result && (myAnswer.get(i, j) == SOLUTION[i][j]);
         return result;
     } // end isCorrect
     
+    /** Returns true if the answer is complete and every row and column matches its array.
+     *  Unlike isCorrect(), this needs no stored solution.
+     * @return false if a cell is Empty or a row/column breaks its array
+     */
+    public boolean isValid()
+    {
+        if (!myAnswer.isComplete())
+            return false;
+        for (int i = 0; i < m; i++)
+            if (!matchesArray(myAnswer.getRow(i), PROB_ROW[i]))
+                return false;
+        for (int j = 0; j < n; j++)
+            if (!matchesArray(myAnswer.getColumn(j), PROB_COL[j]))
+                return false;
+        return true;
+    } // end isValid
+    
+    // Returns true if the runs of True cells in a line are the numbers of
+    // its array, in order. Zeros in the array are ignored.
+    private static boolean matchesArray(BitLine line, int[] probArray)
+    {
+        int s = 0;          // Index of the next number of probArray
+        int run = 0;        // Length of the current run of True cells
+        for (int i = 0; i <= line.length(); i++)
+        {
+            if (i < line.length() && line.get(i) == Status.True)
+            {
+                run++;
+                continue;
+            } // end if
+            if (run == 0)
+                continue;
+            while (s < probArray.length && probArray[s] == 0)
+                s++;
+            if (s == probArray.length || probArray[s] != run)
+                return false;
+            s++;
+            run = 0;
+        } // end for
+        while (s < probArray.length && probArray[s] == 0)
+            s++;
+        return s == probArray.length;
+    } // end matchesArray
+    
     /** Construct a string that shows the answer that this solver produces.
      * @return A String containing the answer to the problem.
      */
     @Override
     public String toString()
     {
-        String result = "Answer to " + m + " x " + n + " Nonogram Puzzle:\n";
+        StringBuilder result = new StringBuilder("Answer to " + m + " x " + n + " Nonogram Puzzle:\n");
         for (int i = 0; i < m; i++)            
-            result += printCells(myAnswer[i]) + "\n";                    
-        return result;
+            result.append(printCells(myAnswer.getRow(i))).append('\n');
+        return result.toString();
     } // end toString   
     
     /** Tries to solve the given array.
@@ -139,13 +725,79 @@ public class NonogramSolution
      */
     public Status[] findArraySolution(RowCol rowcol, int idx, int k, Status[][] answer, ArrayInfo curArrayInfo)
     {           
-        Status[] arrayAnswer = new Status[k];    // The answer for the curArray          
-        if (rowcol == RowCol.Row)           // When inspecting a row                    
-            arrayAnswer = answer[idx];                    
-        else // (rowcol == RowCol.Column)   // When inspecting a column                    
-            for (int i = 0; i < k; i++)
-                arrayAnswer[i] = answer[i][idx];
-                
+        BitLine arrayAnswer = new BitLine(k);    // The answer for the curArray          
+        for (int i = 0; i < k; i++)
+            arrayAnswer.set(i, rowcol == RowCol.Row ? answer[idx][i] : answer[i][idx]);
+        
+        solveArray(rowcol, idx, k, arrayAnswer, curArrayInfo);
+        
+        // Write the updated array back to both the given grid and this answer
+        for (int i = 0; i < k; i++)
+        {
+            if (rowcol == RowCol.Row)       // When inspecting a row
+                answer[idx][i] = arrayAnswer.get(i);
+            else // (rowcol == RowCol.Column)   // When inspecting a column
+                answer[i][idx] = arrayAnswer.get(i);
+        } // end for
+        myAnswer.setLine(rowcol, idx, arrayAnswer);
+        return arrayAnswer.toArray();
+    } // end findArraySolution
+    
+    // Solves the given array in place with the line solver if one is set,
+    // otherwise with the rules in findLineSolution.
+    private void solveArray(RowCol rowcol, int idx, int k, BitLine arrayAnswer, ArrayInfo curArrayInfo)
+    {
+        int[] curArray = (rowcol == RowCol.Row) ? PROB_ROW[idx] : PROB_COL[idx];
+        if (lineSolver == null)
+        {
+            BitLine start = arrayAnswer.copy();
+            try
+            {
+                findLineSolution(rowcol, idx, k, arrayAnswer, curArrayInfo);
+            }
+            catch (RuntimeException ex)
+            {
+                // A few rules index outside the array on some lines. Solve the line
+                // from its cells with dynamic programming and restart its rules.
+                if (Trace.LINE)
+                    Trace.println("\tThe rules failed with " + ex + "; solving the array by dynamic programming.");
+                arrayAnswer.copyFrom(start);
+                ArrayInfo fresh = new ArrayInfo(curArray, k);
+                if (FALLBACK_SOLVER.solveLine(curArray, arrayAnswer))
+                    fresh.setSolved(arrayAnswer.isComplete());
+                else
+                    arrayAnswer.copyFrom(start);    // A wrong cell from earlier rules; getResult() validates the grid
+                if (rowcol == RowCol.Row)
+                    row_arrays[idx] = fresh;
+                else
+                    col_arrays[idx] = fresh;
+            } // end try
+            return;
+        } // end if
+        
+        long mark = startRule(arrayAnswer);
+        boolean valid = lineSolver.solveLine(curArray, arrayAnswer);
+        endRule(Rule.LineSolver, mark, arrayAnswer);
+        if (!valid)
+        {
+            if (Trace.LINE)
+                Trace.println("\tNo placement of the numbers fits the array.");
+            contradiction = true;
+        } // end if
+        curArrayInfo.setSolved(valid && arrayAnswer.isComplete());
+        if (Trace.LINE)
+            Trace.println("\t" + printCells(arrayAnswer));
+    } // end solveArray
+    
+    /** Tries to solve the given array in place.
+     * @param rowcol  Indicator whether a row or a column is being investigated
+     * @param idx The index of row/column in the 2D array
+     * @param k The length of the row or column
+     * @param arrayAnswer The bit-packed cells of the row/column, updated in place
+     * @param curArrayInfo  An ArrayInfo object containing current information of the row/col array.
+     */
+    private void findLineSolution(RowCol rowcol, int idx, int k, BitLine arrayAnswer, ArrayInfo curArrayInfo)
+    {
         int b = curArrayInfo.getBeg();  // effective beginning index
         int e = curArrayInfo.getEnd();  // effective end index
         // Push beginning and end index inward if there are consecutive Falses.
@@ -153,13 +805,17 @@ public class NonogramSolution
         b = be[0]; 
         e = be[1];
         int[] oldbe;// = be;
+        long mark;      // Start of a rule, for endRule()
         
         int[] curArray = curArrayInfo.getArray(); // Row/column array        
         int a = curArrayInfo.getNum();            // The number of numbers in curArray
         int ke = curArrayInfo.getLength();       // Effective length of this row/column
-        System.out.println("\tBeginning of the array:");
-        System.out.println("\tb = " + b + ", e = " + e + ", ke = " + ke);
-        System.out.println("\t" + printCells(arrayAnswer));
+        if (Trace.RULE)
+        {
+            Trace.println("\tBeginning of the array:");
+            Trace.println("\tb = " + b + ", e = " + e + ", ke = " + ke);
+            Trace.println("\t" + printCells(arrayAnswer));
+        } // end if
         
         boolean solved = false;             // true if curArray is solved        
         int sum = curArrayInfo.getSum();                        // sum of numbers in curArray        
@@ -170,54 +826,69 @@ public class NonogramSolution
         // Start investigation!
         if (sum + (a - 1) == ke) // current condition automatically solves
         {
-            System.out.println("\tSolution is found for the array; sum of numbers and spaces == effective length of row/column.");            
+            if (Trace.RULE)
+                Trace.println("\tSolution is found for the array; sum of numbers and spaces == effective length of row/column.");            
+            mark = startRule(arrayAnswer);
                         
             int count = b;      // index count for the answer array
             for (int s = 0; s < a; s++) // loop through numbers in the array (sections)
             {
                 int x = curArray[s];    // current number
-                System.out.println("\tCurrent number: " + x);
+                if (Trace.RULE)
+                    Trace.println("\tCurrent number: " + x);
                 for (int xi = 0; xi < x; xi++)  // Fill up the cells as many as x
                 {
-                    arrayAnswer[count] = Status.True;
+                    arrayAnswer.set(count, Status.True);
                     count++;
                 } // end for
                 if (count < e+1)  // After filling up cells, the immediate cell 
                 {               // after the section must be false unless last
-                    arrayAnswer[count] = Status.False;
+                    arrayAnswer.set(count, Status.False);
                     count++;
                 } // end if
             } // end for
+            endRule(Rule.ExactFit, mark, arrayAnswer);
             solved = true;
-            System.out.println("\t" + printCells(arrayAnswer));
+            if (Trace.RULE)
+                Trace.println("\t" + printCells(arrayAnswer));
         } 
         else if (sum == numT)   // When all true cells are found
         {            
-            System.out.println("\tSolution is found for the array; sum of numbers == number of True");
+            if (Trace.RULE)
+                Trace.println("\tSolution is found for the array; sum of numbers == number of True");
+            mark = startRule(arrayAnswer);
                        
             // Make all empty cells False
             for (int i = b; i < e+1; i++) 
-                if (arrayAnswer[i] == Status.Empty)
-                    arrayAnswer[i] = Status.False;
+                if (arrayAnswer.get(i) == Status.Empty)
+                    arrayAnswer.set(i, Status.False);
+            endRule(Rule.AllTrueFound, mark, arrayAnswer);
             solved = true;
-            System.out.println("\t" + printCells(arrayAnswer));
+            if (Trace.RULE)
+                Trace.println("\t" + printCells(arrayAnswer));
         }
         else if (sum == numE && numF + numE == ke || (numE + numT == sum)) // When there are only empty and false cells and all numbers in the array fit into empty cells
         {
-            System.out.println("\tSolution is found for the array; sum of numbers == number of Empty OR number of Empty+True");
+            if (Trace.RULE)
+                Trace.println("\tSolution is found for the array; sum of numbers == number of Empty OR number of Empty+True");
+            mark = startRule(arrayAnswer);
                        
             // Make all empty cells True
             for (int i = b; i < e+1; i++) 
-                if (arrayAnswer[i] == Status.Empty)
-                    arrayAnswer[i] = Status.True;
+                if (arrayAnswer.get(i) == Status.Empty)
+                    arrayAnswer.set(i, Status.True);
+            endRule(Rule.EmptyFit, mark, arrayAnswer);
             solved = true;
-            System.out.println("\t" + printCells(arrayAnswer));
+            if (Trace.RULE)
+                Trace.println("\t" + printCells(arrayAnswer));
         }
         else
         {   
             /*  Check the first and the last cell */    
             oldbe = be;
+            mark = startRule(arrayAnswer);
             be = removeEnds(curArrayInfo, arrayAnswer);
+            endRule(Rule.RemoveEnds, mark, arrayAnswer);
             b = be[0];
             e = be[1];
             solved = checkAllTrue(curArrayInfo, arrayAnswer, solved);    
@@ -226,13 +897,15 @@ public class NonogramSolution
             curArray = curArrayInfo.getArray(); // Row/column array        
             a = curArrayInfo.getNum();          // The number of numbers in curArray
             ke = curArrayInfo.getLength();      // Effective length of grid                            
-            if (!Arrays.equals(oldbe, be))    // If anything is updated, print out the array.
-                System.out.println("\tAfter removing ends:\n\tb = " + b + ", e = " + e + ", ke = " + ke + ", a = " + a);
+            if (Trace.RULE && !Arrays.equals(oldbe, be))    // If anything is updated, print out the array.
+                Trace.println("\tAfter removing ends:\n\tb = " + b + ", e = " + e + ", ke = " + ke + ", a = " + a);
             
             /*  Fill up by general rules. */                
             if (!solved)
             {
+                mark = startRule(arrayAnswer);
                 fillUp(curArrayInfo, arrayAnswer);
+                endRule(Rule.FillUp, mark, arrayAnswer);
                 solved = checkAllTrue(curArrayInfo, arrayAnswer, solved);    
             } // end if
             
@@ -258,18 +931,23 @@ public class NonogramSolution
             /* When there is only one number in the array */
             if (a == 1 && !solved) 
             {
-                System.out.println("\t\tThere is only one number in the array.");
+                if (Trace.RULE)
+                    Trace.println("\t\tThere is only one number in the array.");
+                mark = startRule(arrayAnswer);
                 // Fill up between the first and the last true
                 int locCurTrue = getFirstStatus(b-1, e, arrayAnswer, Status.True);
                 int lastCurTrue = getLastStatus(locCurTrue, e+1, arrayAnswer, Status.True);                
                 if (b <= locCurTrue && locCurTrue <= e && locCurTrue != lastCurTrue)    
                 {
-                    System.out.println("\t\t\tFill up between first true: " + locCurTrue + " and last true: " + lastCurTrue);
+                    if (Trace.RULE)
+                        Trace.println("\t\t\tFill up between first true: " + locCurTrue + " and last true: " + lastCurTrue);
                     for (int i = locCurTrue; i <= lastCurTrue; i++)
-                        if (arrayAnswer[i] == Status.Empty)
-                            arrayAnswer[i] = Status.True;
-                    System.out.println("\t\t" + printCells(arrayAnswer)); 
+                        if (arrayAnswer.get(i) == Status.Empty)
+                            arrayAnswer.set(i, Status.True);
+                    if (Trace.RULE)
+                        Trace.println("\t\t" + printCells(arrayAnswer)); 
                 } // end if
+                endRule(Rule.SingleNumber, mark, arrayAnswer);
                 
                 // Make small empty clusters false.                 
                 for (int i = 0; i < emptyClusterLen.length; i++)
@@ -278,8 +956,8 @@ public class NonogramSolution
                     int curEmptyClusterLen = emptyClusterLen[i];
                     int curEndIdxEmpty = curBegIdxEmpty + curEmptyClusterLen - 1;
                     boolean isBetweenFalses  = 
-                    ((curBegIdxEmpty - 1 == -1) || (arrayAnswer[curBegIdxEmpty - 1] == Status.False)) &&
-                    ((curEndIdxEmpty+1 == k) || (arrayAnswer[curEndIdxEmpty+1] == Status.False));                    
+                    ((curBegIdxEmpty - 1 == -1) || (arrayAnswer.get(curBegIdxEmpty - 1) == Status.False)) &&
+                    ((curEndIdxEmpty+1 == k) || (arrayAnswer.get(curEndIdxEmpty+1) == Status.False));                    
                     
                     // Find a true cluster whose length is the same as x and in a later section.
                     boolean foundLaterTrue = false;
@@ -288,11 +966,15 @@ public class NonogramSolution
                     
                     if ((curEmptyClusterLen < curArray[0] || foundLaterTrue) && isBetweenFalses) 
                     {
-                        System.out.println("\t\t\tMake smaller empty clusters false");
+                        if (Trace.RULE)
+                            Trace.println("\t\t\tMake smaller empty clusters false");
+                        mark = startRule(arrayAnswer);
                         for (int ii = curBegIdxEmpty; ii < curBegIdxEmpty + curEmptyClusterLen; ii++)
-                            if (arrayAnswer[ii] == Status.Empty)
-                                arrayAnswer[ii] = Status.False;     
-                        System.out.println("\t\t" + printCells(arrayAnswer)); 
+                            if (arrayAnswer.get(ii) == Status.Empty)
+                                arrayAnswer.set(ii, Status.False);     
+                        endRule(Rule.SmallGapsFalse, mark, arrayAnswer);
+                        if (Trace.RULE)
+                            Trace.println("\t\t" + printCells(arrayAnswer)); 
                     } // end if                            
                 } // end for 
                 
@@ -305,7 +987,9 @@ public class NonogramSolution
                e. g., [3, 3] _ _ _ _ _ _ _ O _ --> _ _ _ _ _ _ O O _ */
             if (!solved)
             {
+                mark = startRule(arrayAnswer);
                 fillUpEnd(curArrayInfo, arrayAnswer);
+                endRule(Rule.FillUpEnd, mark, arrayAnswer);
                 /* Check whether this array is solved. */
                 solved = checkAllTrue(curArrayInfo, arrayAnswer, solved);
             } // end if
@@ -315,7 +999,9 @@ public class NonogramSolution
                e. g., [4, 3] _ _ _ _ _ O _ _ _ --> _ _ _ _ _ O _ _ X */
             if (!solved)
             {
+                mark = startRule(arrayAnswer);
                 falseEnd(curArrayInfo, arrayAnswer);
+                endRule(Rule.FalseEnd, mark, arrayAnswer);
                 /* Check whether this array is solved. */
                 solved = checkAllTrue(curArrayInfo, arrayAnswer, solved);
             } // end if
@@ -324,7 +1010,9 @@ public class NonogramSolution
             {
                 /*  Check the first and the last cell */    
                 oldbe = be;
+                mark = startRule(arrayAnswer);
                 be = removeEnds(curArrayInfo, arrayAnswer);
+                endRule(Rule.RemoveEnds, mark, arrayAnswer);
                 b = be[0];
                 e = be[1];
                 solved = checkAllTrue(curArrayInfo, arrayAnswer, solved); 
@@ -332,7 +1020,9 @@ public class NonogramSolution
             
             if (!solved)
             {
+                mark = startRule(arrayAnswer);
                 makeTrueBetweenTrues(curArrayInfo, arrayAnswer);
+                endRule(Rule.MakeTrueBetweenTrues, mark, arrayAnswer);
                 /* Check whether this array is solved. */
                 solved = checkAllTrue(curArrayInfo, arrayAnswer, solved);
             }
@@ -347,17 +1037,19 @@ public class NonogramSolution
                 sum = curArrayInfo.getSum();        // sum of numbers in curArray            
                 numT = numOfStatus(b, e, arrayAnswer, Status.True);  // The number of True cells    
                 numE = numOfStatus(b, e, arrayAnswer, Status.Empty); // The number of Empty cells                         
-                if (!Arrays.equals(oldbe, be))    // If anything is updated, print out the array.
-                    System.out.println("\tAfter removing ends:\n\tb = " + b + ", e = " + e + ", ke = " + ke + ", a = " + a);
+                if (Trace.RULE && !Arrays.equals(oldbe, be))    // If anything is updated, print out the array.
+                    Trace.println("\tAfter removing ends:\n\tb = " + b + ", e = " + e + ", ke = " + ke + ", a = " + a);
                 
                 int p = -1;      // The last cell index in the previous false cluster
                 int q = b-1;     // The first cell index in the next false cluster
                 int s = 0;
+                int lastQ = -1;  // q when the last number was last revisited
                 while (s < a && !solved) // loop through numbers in the array (sections)
                 //for (int s = 0; s < a; s++) // loop through numbers in the array (sections)
                 {       
                     int x = curArray[s];    // current number
-                    System.out.println("\tCurrent number: " + x);
+                    if (Trace.RULE)
+                        Trace.println("\tCurrent number: " + x);
                     
                     /* Determine current section. */
                     // When the section ended where there are still numbers in the array to be investigated,
@@ -403,7 +1095,8 @@ public class NonogramSolution
                         kp = q - p - 1;
                     }
                     
-                    System.out.println("\tSection "+ (s+1) +" / "+a+": p = " + p + ", q = " + q + ", k' = " + kp);
+                    if (Trace.RULE)
+                        Trace.println("\tSection "+ (s+1) +" / "+a+": p = " + p + ", q = " + q + ", k' = " + kp);
                     
 
                     /* Procede only when the index is within boundary */
@@ -431,23 +1124,26 @@ public class NonogramSolution
                         int[] curTrue = getCurrentStatusCluster(x, p, q, Status.True, curArrayInfo, arrayAnswer);
                         int locCurTrue = curTrue[0];   // Beginning index of current True cluster (-1 if none)
                         int lenCurTrue = curTrue[1];    // Length of current True cluster
-                        if (lenCurTrue != 0)
-                            System.out.println("\t\tCurrent True Cluster: from " + locCurTrue + " to " + (locCurTrue + lenCurTrue - 1));
+                        if (Trace.RULE && lenCurTrue != 0)
+                            Trace.println("\t\tCurrent True Cluster: from " + locCurTrue + " to " + (locCurTrue + lenCurTrue - 1));
                                                 
                         
                         // If current true cluster is bigger than x, skip to the next number in the array
                         if (lenCurTrue > x && s < a-1)
                         {
-                            System.out.println("\t\tCurrent true cluster > x; moving to the next number in the array...");
+                            if (Trace.RULE)
+                                Trace.println("\t\tCurrent true cluster > x; moving to the next number in the array...");
                             s++;
                             x = curArray[s];                            
-                            System.out.println("\t\tCurrent number: " + x);
+                            if (Trace.RULE)
+                                Trace.println("\t\tCurrent number: " + x);
                             pq = getpq_general(curArrayInfo, s);
                             p = pq[0];
                             pq = getpq(arrayAnswer,curArrayInfo,s,q);                            
                             q = pq[1]; 
                             kp = q - p - 1; // The number of empty cells between p and q
-                            System.out.println("\t\tp = " + p + ", q = " + q + ", k' = " + kp);
+                            if (Trace.RULE)
+                                Trace.println("\t\tp = " + p + ", q = " + q + ", k' = " + kp);
                         } // end if
                         
                         /* Make remaining empty cells False when x is the last. */
@@ -456,7 +1152,9 @@ public class NonogramSolution
                         // make them false.
                         if (!solved && (s == a-1) && (q < e)) 
                         {
+                            mark = startRule(arrayAnswer);
                             makeLaterEmptyFalse(s, x, p, q, curArrayInfo, arrayAnswer);  
+                            endRule(Rule.MakeLaterEmptyFalse, mark, arrayAnswer);
                             // Update parameters
                             be = updateEnds(b, e,curArrayInfo, arrayAnswer);            
                             b = be[0]; 
@@ -534,7 +1232,7 @@ public class NonogramSolution
                             int trueLen = 0;
                             for (int ii = curEnd+1; ii < nextBeg;ii++)
                             {
-                                boolean isTrue = arrayAnswer[ii] == Status.True;
+                                boolean isTrue = arrayAnswer.get(ii) == Status.True;
                                 if (isTrue)
                                     trueLen++;
                                 if (trueLen == 1)
@@ -543,7 +1241,7 @@ public class NonogramSolution
                             } // end for
                             
                             boolean temp = (curBeg < p) && (curLen >= x || (emptyBetweenO && s>0 && x+curArray[s-1]+1 <= nextEnd - curBeg + 1)) && (curEnd < p || q == e + 1);
-                            boolean isLocValid = (b+sumToX < p+1) || (-1 < p && arrayAnswer[p] != Status.False);   
+                            boolean isLocValid = (b+sumToX < p+1) || (-1 < p && arrayAnswer.get(p) != Status.False);   
                             foundEffectiveEarlierLargerEmpty = foundEffectiveEarlierLargerEmpty || (temp && isLocValid);
                             if (foundEffectiveEarlierLargerEmpty)
                             {
@@ -640,10 +1338,10 @@ public class NonogramSolution
                             int nextLen = emptyClusterLen[i+1];
                             int nextEnd = nextBeg + nextLen - 1;
                             for (int ii = curEnd+1; ii < nextBeg;ii++)
-                                emptyBetweenO = emptyBetweenO && (arrayAnswer[ii] == Status.True);
+                                emptyBetweenO = emptyBetweenO && (arrayAnswer.get(ii) == Status.True);
                             
                             boolean temp = (q < curBeg) && 
-                                    ((q+sumFromX <= e)||(q <= e && arrayAnswer[q] == Status.True && q+sumFromX-1 <= e)) && //[3,6]  X _ _ O _ O _ _ _ O _ _ _ _ _ : x = 3, (0,5) when q is true, include q to count effective length of next empty length
+                                    ((q+sumFromX <= e)||(q <= e && arrayAnswer.get(q) == Status.True && q+sumFromX-1 <= e)) && //[3,6]  X _ _ O _ O _ _ _ O _ _ _ _ _ : x = 3, (0,5) when q is true, include q to count effective length of next empty length
                                     (curLen >= x || (emptyBetweenO && x < nextEnd - curBeg + 1));
                             // Check whether this later larger empty is located where x can be.
                             boolean isLocValid = sumFromX <= e - curBeg + 1;
@@ -662,7 +1360,7 @@ public class NonogramSolution
                         boolean foundNonFalse = false;
                         while (ii >= b && !foundNonFalse)
                         {
-                            foundNonFalse = arrayAnswer[ii] != Status.False;
+                            foundNonFalse = arrayAnswer.get(ii) != Status.False;
                             if (foundNonFalse)
                                 idxLastNonFalse = ii;                            
                             else
@@ -670,7 +1368,7 @@ public class NonogramSolution
                         } // end while
                         for (int i = idxLastNonFalse; i >= b; i--)
                         {
-                            if (arrayAnswer[i] != Status.False)
+                            if (arrayAnswer.get(i) != Status.False)
                             {
                                 conscNonFalseLen++;
                                 begConscNonFalse = i;
@@ -686,9 +1384,9 @@ public class NonogramSolution
                             int curEmptyClusterLen = emptyClusterLen[i];
                             int curEndIdxEmpty = curBegIdxEmpty+curEmptyClusterLen-1;
                             if (curBegIdxEmpty >= p && curBegIdxEmpty>=1) // > 0
-                                emptyBetweenO = emptyBetweenO || (arrayAnswer[curBegIdxEmpty-1] == Status.True);
+                                emptyBetweenO = emptyBetweenO || (arrayAnswer.get(curBegIdxEmpty-1) == Status.True);
                             if (curEndIdxEmpty+1 < k) // If any of empty cluster follows immediately after true, the empty cluster count may not be correct.
-                                emptyBetweenO = emptyBetweenO || (arrayAnswer[curEndIdxEmpty+1] == Status.True);
+                                emptyBetweenO = emptyBetweenO || (arrayAnswer.get(curEndIdxEmpty+1) == Status.True);
                         } // end for
                         
                         // [1,2,6] _ X O _ O O X _ O O O O O _ X --> Don't fill                        
@@ -767,8 +1465,10 @@ public class NonogramSolution
                         // e.g., [3, 2] _ _ _ O _ _ X _ _ X --> X _ _ O _ _ X _ _ X
                         if (!solved)
                         {
+                            mark = startRule(arrayAnswer);
                             solved = makeFarCellsFalse(x, p, q, s, k, curArrayInfo, numT, sum, 
                                                        solved, arrayAnswer);
+                            endRule(Rule.MakeFarCellsFalse, mark, arrayAnswer);
                             /* Check whether this array is solved. */
                             solved = checkAllTrue(curArrayInfo, arrayAnswer, solved);
                         } // end if
@@ -798,12 +1498,16 @@ public class NonogramSolution
                             //(foundLaterSameTrue && foundThisSameEmpty && validLaterLargerEmptyLen <= x)))
                         {
                             // When there is a true cluster whose length is the same as x and not in the current section, don't fill up.
-                            System.out.println("\t\tFill up middle (2x-k') cells");
+                            if (Trace.RULE)
+                                Trace.println("\t\tFill up middle (2x-k') cells");
+                            mark = startRule(arrayAnswer);
                             for (int i = i0; i <= p + x; i++)
-                                if (arrayAnswer[i] == Status.Empty)
-                                    arrayAnswer[i] = Status.True;   
+                                if (arrayAnswer.get(i) == Status.Empty)
+                                    arrayAnswer.set(i, Status.True);   
+                            endRule(Rule.SectionOverlap, mark, arrayAnswer);
                             numT = numOfStatus(b, e, arrayAnswer, Status.True); // Update numT
-                            System.out.println("\t\t" + printCells(arrayAnswer)); 
+                            if (Trace.RULE)
+                                Trace.println("\t\t" + printCells(arrayAnswer)); 
                             /* Check whether this array is solved. */
                             solved = checkAllTrue(curArrayInfo, arrayAnswer, solved);
 
@@ -826,11 +1530,15 @@ public class NonogramSolution
                         if (!solved && (x > kp || (a-1 == s && foundX && !foundValidEarlierSameTrue)) && !canPreviousNumFit&& !canNextNumFit // || numT>getSumToX(s, curArrayInfo, 0))
                             && (closedWithFalse(p, q, k, arrayAnswer))) 
                         {
-                            System.out.println("\t\tMake this section false");
+                            if (Trace.RULE)
+                                Trace.println("\t\tMake this section false");
+                            mark = startRule(arrayAnswer);
                             for (int i = p + 1; i < q; i++)
-                                if (arrayAnswer[i] == Status.Empty)
-                                    arrayAnswer[i] = Status.False;         
-                            System.out.println("\t\t" + printCells(arrayAnswer)); 
+                                if (arrayAnswer.get(i) == Status.Empty)
+                                    arrayAnswer.set(i, Status.False);         
+                            endRule(Rule.SectionFalse, mark, arrayAnswer);
+                            if (Trace.RULE)
+                                Trace.println("\t\t" + printCells(arrayAnswer)); 
                         } // end if    
 
                         
@@ -838,8 +1546,10 @@ public class NonogramSolution
                         // e.g., [3, 2] _ _ _ O _ _ X _ _ X --> X _ _ O _ _ X _ _ X
                         if (!solved)
                         {
+                            mark = startRule(arrayAnswer);
                             solved = makeFarCellsFalse(x, p, q, s, k, curArrayInfo, numT, sum, 
                                                        solved, arrayAnswer);
+                            endRule(Rule.MakeFarCellsFalse, mark, arrayAnswer);
                             foundX = isNumberLocated(s, k, arrayAnswer,curArrayInfo);
                             /* Check whether this array is solved. */
                             solved = checkAllTrue(curArrayInfo, arrayAnswer, solved);
@@ -850,8 +1560,10 @@ public class NonogramSolution
                         // e.g., [1,2] _ _ _ _ _ O O _ _ _ --> _ _ _ _ X O O X _ _                               
                         if (!solved)
                         {
+                            mark = startRule(arrayAnswer);
                             curArrayInfo = makeFalseAround(s, p, q, k, foundValidLaterSameTrue,
                                                            foundX, arrayAnswer, curArrayInfo);
+                            endRule(Rule.MakeFalseAround, mark, arrayAnswer);
                             /* Check whether this array is solved. */
                             solved = checkAllTrue(curArrayInfo, arrayAnswer, solved);
                         } // end if                           
@@ -868,9 +1580,11 @@ public class NonogramSolution
                         // [3, 2] _ _ _ X O _ _ _ _ _ -->  _ _ _ X O O _ _ _ _ (when minimum > 1)
                         if(!solved)
                         {
+                            mark = startRule(arrayAnswer);
                             fillUpFromEnds(s, p, q, k, curArray, a, sum, sumToX, sumFromX, solved, lenCurTrue, 
                                     earlierEffectiveLargerEmptyLen, thisLargerEmptyLen, conscNonFalseLen, begConscNonFalse,
                                     foundEarlierLargerTrue, curArrayInfo, arrayAnswer);
+                            endRule(Rule.FillUpFromEnds, mark, arrayAnswer);
                             solved = checkAllTrue(curArrayInfo, arrayAnswer, solved);
                         } // end if
 
@@ -885,19 +1599,25 @@ public class NonogramSolution
                         numE = numOfStatus(b, e, arrayAnswer, Status.Empty);
                         if (!solved)
                         {
-                            System.out.println("\t\tFor section (" + p + ", " + q +"):");
-                            System.out.println("\t\t" + printCells(arrayAnswer)); 
+                            if (Trace.RULE)
+                            {
+                                Trace.println("\t\tFor section (" + p + ", " + q +"):");
+                                Trace.println("\t\t" + printCells(arrayAnswer)); 
+                            } // end if
                         } // end if                        
                         else
                         {
-                            System.out.println("\t\tReached end of the grid.");
+                            if (Trace.RULE)
+                                Trace.println("\t\tReached end of the grid.");
                         } // end if
                         
                         if (!solved)
                         {
                             /*  Check the first and the last cell. */ 
                             oldbe = be;
+                            mark = startRule(arrayAnswer);
                             be = removeEnds(curArrayInfo, arrayAnswer);
+                            endRule(Rule.RemoveEnds, mark, arrayAnswer);
                             b = be[0];
                             e = be[1];                        
 
@@ -910,7 +1630,8 @@ public class NonogramSolution
                             numE = numOfStatus(b, e, arrayAnswer, Status.Empty); // The number of Empty cells         
                             if (!Arrays.equals(oldbe, be))    // If anything is updated, print out the array.
                             {
-                                System.out.println("\tAfter removing ends:\n\tb = " + b + ", e = " + e + ", ke = " + ke);
+                                if (Trace.RULE)
+                                    Trace.println("\tAfter removing ends:\n\tb = " + b + ", e = " + e + ", ke = " + ke);
                                 if (oldbe[0] < b)   // first number is removed or this section was made false
                                     s--;
                             }
@@ -922,12 +1643,17 @@ public class NonogramSolution
                     // If we reach the last number in the array but there are more sections left,
                     // investigate the later section with the last number.
                     if (s == a && q - 1 < e)                    
+                    {
+                        if (q == lastQ)     // The section didn't move; revisiting it would never end
+                            break;
+                        lastQ = q;
                         s--;
+                    } // end if
                     
                 } // end while                
             } // end if
-            if (solved)
-                System.out.println("\t\t" + printCells(arrayAnswer));
+            if (Trace.RULE && solved)
+                Trace.println("\t\t" + printCells(arrayAnswer));
         } // end if
         // Update beginning and end index
         oldbe = be;
@@ -935,90 +1661,69 @@ public class NonogramSolution
         b = be[0];
         e = be[1];
         ke = curArrayInfo.getLength();
-        if (!Arrays.equals(oldbe, be))    // If anything is updated, print out the array.
-            System.out.println("\t\tUpdating Ends:\n\tb = " + b + ", e = " + e + ", ke = " + ke);        
+        if (Trace.RULE && !Arrays.equals(oldbe, be))    // If anything is updated, print out the array.
+            Trace.println("\t\tUpdating Ends:\n\tb = " + b + ", e = " + e + ", ke = " + ke);        
         // Update solved arrays
         curArrayInfo.setSolved(solved);     
         
         if (rowcol == RowCol.Row)           // When inspecting a row
-        {
-            myAnswer[idx] = arrayAnswer;
             row_arrays[idx] = curArrayInfo;
-        }
         else // (rowcol == RowCol.Column)   // When inspecting a column                    
-        {
-            for (int i = 0; i < k; i++)
-                myAnswer[i][idx] = arrayAnswer[i];
             col_arrays[idx] = curArrayInfo;
-        } // end if
-        myAnswer = answer;
-        return arrayAnswer;
-    } // end findArraySolution
+    } // end findLineSolution
     
-    private String printCells(Status[] anArray)
+    private String printCells(BitLine anArray)
     {
-        String result = "";
-        for (var curCell : anArray)
-        {   
-            if (null != curCell)
-                switch (curCell) {
-                case True:
-                    result += "O ";
-                    break;
-                case False:            
-                    result += "X ";
-                    break;
-                case Empty:
-                    result += "_ ";
-                    break;
-                default:
-                    break;
-            }            
-        } // end for
-        return result;
-    } // end pritnCells
+        return anArray.toString();
+    } // end printCells
     
     // Fill up true cells and make false at the end of this true cluster.
-    private void finishFirstNumber(int[] curArray, Status[] arrayAnswer, ArrayInfo curArrayInfo)
+    private void finishFirstNumber(int[] curArray, BitLine arrayAnswer, ArrayInfo curArrayInfo)
     {
-        System.out.println("\t\tRemoving the first number in the array");
+        if (Trace.RULE)
+            Trace.println("\t\tRemoving the first number in the array");
         int x = curArray[0];
         int b = curArrayInfo.getBeg();
         int e = curArrayInfo.getEnd();
-        System.out.println("\t\t\tCurrent number: " + x);
+        if (Trace.RULE)
+            Trace.println("\t\t\tCurrent number: " + x);
         for (int i = b+1; i < b+x; i++)
-            if (arrayAnswer[i] == Status.Empty)
-                arrayAnswer[i] = Status.True;
+            if (arrayAnswer.get(i) == Status.Empty)
+                arrayAnswer.set(i, Status.True);
         int i0 = b + x;
         if (i0 <= e)
-            if (arrayAnswer[i0] == Status.Empty)
-                arrayAnswer[i0] = Status.False;      
-        System.out.println("\t\t" + printCells(arrayAnswer)); 
+            if (arrayAnswer.get(i0) == Status.Empty)
+                arrayAnswer.set(i0, Status.False);      
+        if (Trace.RULE)
+            Trace.println("\t\t" + printCells(arrayAnswer)); 
         // Remove the first number from this array
         curArrayInfo.removeFirstInArray();
     } // end finishFirstNumber
     
     // Fill up true cells and make false in front of this true cluster.
-    private void finishLastNumber(int[] curArray, Status[] arrayAnswer,  ArrayInfo curArrayInfo)
+    private void finishLastNumber(int[] curArray, BitLine arrayAnswer,  ArrayInfo curArrayInfo)
     {
-        System.out.println("\t\tRemoving the last number in the array");
+        if (Trace.RULE)
+            Trace.println("\t\tRemoving the last number in the array");
         int a = curArrayInfo.getNum();
         int x = curArray[a-1];
         int b = curArrayInfo.getBeg();
         int e = curArrayInfo.getEnd();        
-        System.out.println("\t\t\tCurrent number: " + x);
+        if (Trace.RULE)
+            Trace.println("\t\t\tCurrent number: " + x);
         for (int i = e+1-x; i < e+1-1; i++)
-            if (arrayAnswer[i] == Status.Empty)
-                arrayAnswer[i] = Status.True;
+            if (arrayAnswer.get(i) == Status.Empty)
+                arrayAnswer.set(i, Status.True);
         int i0 = e+1-x-1;
         if (i0 >= b)
-            arrayAnswer[i0] = Status.False;          
-        System.out.println("\t\t" + printCells(arrayAnswer)); 
+            arrayAnswer.set(i0, Status.False);          
+        if (Trace.RULE)
+            Trace.println("\t\t" + printCells(arrayAnswer)); 
         // Remove the last number from this array
         curArrayInfo.removeLastInArray();          
     } // end finishLastNumber
     
-    private boolean checkAllTrue(ArrayInfo curArrayInfo, Status[] arrayAnswer, boolean solved)
+    private boolean checkAllTrue(ArrayInfo curArrayInfo, BitLine arrayAnswer, boolean solved)
     {        
         int b = curArrayInfo.getBeg();  // effective beginning index
         int e = curArrayInfo.getEnd();  // effective end index      
@@ -1030,12 +1735,15 @@ public class NonogramSolution
         
         if (sum == numT)   // When all true cells are found
         {            
-            System.out.println("\tSolution is found for the array; sum of numbers == number of True (else)");
+            if (Trace.RULE)
+                Trace.println("\tSolution is found for the array; sum of numbers == number of True (else)");
+            long mark = startRule(arrayAnswer);
             
             // Make all empty cells False
             for (int i = b; i < e+1; i++) 
-                if (arrayAnswer[i] == Status.Empty)
-                    arrayAnswer[i] = Status.False;
+                if (arrayAnswer.get(i) == Status.Empty)
+                    arrayAnswer.set(i, Status.False);
+            endRule(Rule.AllTrueFound, mark, arrayAnswer);
             solved = true;
             //System.out.println("\t" + printCells(arrayAnswer));
         } // end if
@@ -1058,7 +1766,7 @@ public class NonogramSolution
         return pq;
     }// end getpq_general
     
-    private int[] getpq_conditional(Status[] arrayAnswer, ArrayInfo curArrayInfo, int s, int q)
+    private int[] getpq_conditional(BitLine arrayAnswer, ArrayInfo curArrayInfo, int s, int q)
     {
         int b = curArrayInfo.getBeg();
         int e = curArrayInfo.getEnd();
@@ -1066,7 +1774,7 @@ public class NonogramSolution
                 
         int p;
         
-        if (-1 < q && q < e+1 && arrayAnswer[q] == Status.False)
+        if (-1 < q && q < e+1 && arrayAnswer.get(q) == Status.False)
             p = Math.max(q, b-1); 
         else
         {   // If it's not false at q, move one back.
@@ -1079,26 +1787,26 @@ public class NonogramSolution
                 p = Math.min(p, pGeneral); 
         }
         
-        while (p+1 < e+1 && arrayAnswer[p+1] == Status.False)
+        while (p+1 < e+1 && arrayAnswer.get(p+1) == Status.False)
             p++;                
         q = p + 1;
-        while(q < e+1 && arrayAnswer[q] == Status.Empty)
+        while(q < e+1 && arrayAnswer.get(q) == Status.Empty)
             q++;
 
         //System.out.println("p = " + p + ", q = " + q);
         if (p < e+1 && q <= e+1) // procede only when the index is within boundary
         {
-            if (p > -1 && arrayAnswer[p] == Status.True)  // push back p by one when true
+            if (p > -1 && arrayAnswer.get(p) == Status.True)  // push back p by one when true
                 p--;  
-            while (p > -1 && arrayAnswer[p] == Status.Empty)  // push back p if empty
+            while (p > -1 && arrayAnswer.get(p) == Status.Empty)  // push back p if empty
                 p--; 
-            while (q < e+1 && arrayAnswer[q] == Status.True) // push forward q to the next true cluster when true
+            while (q < e+1 && arrayAnswer.get(q) == Status.True) // push forward q to the next true cluster when true
                 q++;
-            while (q < e+1 && arrayAnswer[q] == Status.Empty)
+            while (q < e+1 && arrayAnswer.get(q) == Status.Empty)
                 q++;            
             if (s == a - 1) // When x is last number in the array
             {   // Find the first false
-                while(q < e+1 && arrayAnswer[q] != Status.False)
+                while(q < e+1 && arrayAnswer.get(q) != Status.False)
                     q++;
             } // end if 
         } // end if
@@ -1110,7 +1818,7 @@ public class NonogramSolution
     // If there are a-1 number of X clusters and distance between them are sufficient, use this criteria.
     // [2,3,6] O O X _ _ O _ O X O O O O _ _ --> divide by X
     // [3,2,1,1] _ _ O _ X _ O O X _ X X X X _ --> divide by X clusters
-    private int[] getpq_byX(Status[] arrayAnswer, ArrayInfo curArrayInfo, int s)
+    private int[] getpq_byX(BitLine arrayAnswer, ArrayInfo curArrayInfo, int s)
     {
         // Find True cell clusters [b, e], inclusive.
         int[][] falseArrays = findStatusClusters(arrayAnswer, curArrayInfo, Status.False);
@@ -1169,7 +1877,7 @@ public class NonogramSolution
         return result;
     } // end getpq_byX
     
-    private int[] getpq(Status[] arrayAnswer, ArrayInfo curArrayInfo, int s, int q)
+    private int[] getpq(BitLine arrayAnswer, ArrayInfo curArrayInfo, int s, int q)
     {
         // Determine current section (p, q), exclusive.  
         // First determine sections based on true/false cells in the current row/column.
@@ -1224,16 +1932,16 @@ public class NonogramSolution
         return result;
     } // end getpq
     
-    private int[] updateEnds(int b, int e, ArrayInfo curArrayInfo, Status[] arrayAnswer)
+    private int[] updateEnds(int b, int e, ArrayInfo curArrayInfo, BitLine arrayAnswer)
     {
         // Make beginning index the first non-false cell
         b = curArrayInfo.getBeg();  // effective beginning index        
-        while (b <= e && arrayAnswer[b] == Status.False)
+        while (b <= e && arrayAnswer.get(b) == Status.False)
             b++;
         curArrayInfo.setBeg(b);        
         // Make end index the first non-false cell from the end
         e = curArrayInfo.getEnd();  // effective end index
-        while (e >= b && arrayAnswer[e] == Status.False)
+        while (e >= b && arrayAnswer.get(e) == Status.False)
             e--;
         curArrayInfo.setEnd(e);
         //System.out.println("\tb = " + b + ", e = " + e);
@@ -1244,8 +1952,9 @@ public class NonogramSolution
     // Make cells in this section that are farther than remainingT false
     public boolean makeFarCellsFalse(int x, int p, int q, int s, int k, ArrayInfo curArrayInfo,
                                 int numT, int sum, boolean solved,  
-                                Status[] arrayAnswer)
+                                BitLine arrayAnswer)
     {   
+        long mark;      // Start of a rule, for endRule()
         // Check whether there is a true cluster that belongs this section.
         int[] curTrue = getCurrentStatusCluster(x, p, q, Status.True, curArrayInfo, arrayAnswer);
         int locCurTrue = curTrue[0];   // Beginning index of current True cluster (first one if there are multiple, -1 if none)
@@ -1261,16 +1970,23 @@ public class NonogramSolution
         {                        
             if (remainingT == 0 && numT == sum)    // All true are found
             {
-                System.out.println("\tSolution is found for the array; Remaining number of True == 0");
-                if (arrayAnswer[locCurTrue-1] == Status.Empty)
-                    arrayAnswer[locCurTrue-1] = Status.False;
+                if (Trace.RULE)
+                    Trace.println("\tSolution is found for the array; Remaining number of True == 0");
+                mark = startRule(arrayAnswer);
+                if (arrayAnswer.get(locCurTrue-1) == Status.Empty)
+                    arrayAnswer.set(locCurTrue-1, Status.False);
+                endRule(Rule.AllTrueFound, mark, arrayAnswer);
                 solved = true;
             }
             else    // Make cells in this section that are farther than remainingT false
             {  
+                mark = startRule(arrayAnswer);
                 makeFalseBetweenTrues(p, q, s, k, curArrayInfo, arrayAnswer);
+                endRule(Rule.MakeFalseBetweenTrues, mark, arrayAnswer);
                 //System.out.println("\t" + printCells(arrayAnswer)); 
+                mark = startRule(arrayAnswer);
                 makeFalseBetweenTruesOneApart(curArrayInfo, arrayAnswer);
+                endRule(Rule.MakeFalseBetweenTruesOneApart, mark, arrayAnswer);
                 //System.out.println("\t" + printCells(arrayAnswer)); 
             } // end if
         } // end if
@@ -1280,7 +1996,7 @@ public class NonogramSolution
     // If there is a true cluster whose length is maximum of the numbers, make false around it
     // e.g., [1,2] _ _ _ _ _ O O _ _ _ --> _ _ _ _ X O O X _ _     
     private ArrayInfo makeFalseAround(int s, int p, int q, int k, boolean foundValidLaterSameTrue, boolean foundX,
-                                Status[] arrayAnswer, ArrayInfo curArrayInfo)
+                                BitLine arrayAnswer, ArrayInfo curArrayInfo)
     {        
         int a = curArrayInfo.getNum();
         int b = curArrayInfo.getBeg();
@@ -1288,6 +2004,7 @@ public class NonogramSolution
         int[] curArray = curArrayInfo.getArray();        
         int kp = q - p - 1; // The number of empty cells between p and q   
         int x = curArray[s];    // Index of x in the array
+        long mark;      // Start of a rule, for endRule()
         int sum = curArrayInfo.sumArray(0,s-1) + s;
         //int locCurTrue = getFirstStatus(p, e, arrayAnswer, Status.True);
         
@@ -1420,39 +2137,49 @@ public class NonogramSolution
                 // [1,2,1] X X _ _ O _ _ _ _ _ _ _ _ X X --> X X X O X _ _ _ _ _ _ _ _ X X                
                 // [2,4,2] X X _ _ O O _ _ _ _ _ _ _ X X --> X X _ X O O X _ _ _ _ _ _ X X
             {
-                System.out.println("\t\tMake false around true cells.");
+                if (Trace.RULE)
+                    Trace.println("\t\tMake false around true cells.");
                 if (locCurTrue-1 >= b)   // Make false right before the true cluster
-                    arrayAnswer[locCurTrue-1] = Status.False;
+                    arrayAnswer.set(locCurTrue-1, Status.False);
                 if (endCurTrue+1 <= e)  // Make false right after the true cluster
-                    arrayAnswer[endCurTrue+1] = Status.False;
-                System.out.println("\t\t" + printCells(arrayAnswer)); 
+                    arrayAnswer.set(endCurTrue+1, Status.False);
+                if (Trace.RULE)
+                    Trace.println("\t\t" + printCells(arrayAnswer)); 
                 // when first number in the array, make false to the beginning
                 if (curArrayInfo.indexOf(lenCurTrue) == 0 && s == 0 && (kp < x))
                 {
-                    System.out.println("\t\t\tFisrt number in the array, make false to the beginning");
+                    if (Trace.RULE)
+                        Trace.println("\t\t\tFisrt number in the array, make false to the beginning");
                     int iFalse = locCurTrue - 2;    // False iterator
                     while (iFalse >= b)
                     {
-                        arrayAnswer[iFalse] = Status.False;
+                        arrayAnswer.set(iFalse, Status.False);
                         iFalse--;
                     } // end while                                
                     curArrayInfo.setBeg(locCurTrue);    // Update beginning to the locCurTrue
+                    mark = startRule(arrayAnswer);
                     finishFirstNumber(curArray, arrayAnswer, curArrayInfo);
-                    System.out.println("\t\t" + printCells(arrayAnswer));
+                    endRule(Rule.FinishFirstNumber, mark, arrayAnswer);
+                    if (Trace.RULE)
+                        Trace.println("\t\t" + printCells(arrayAnswer));
                 } // end if
                 // when last number in the array, make false to the end
                 else if (curArrayInfo.indexOf(lenCurTrue) == a-1)     
                 {
-                    System.out.println("\t\tLast number in the array, make false to the end");
+                    if (Trace.RULE)
+                        Trace.println("\t\tLast number in the array, make false to the end");
                     int iFalse = endCurTrue + 2;    // False iterator
                     while (iFalse <= e)
                     {
-                        arrayAnswer[iFalse] = Status.False;
+                        arrayAnswer.set(iFalse, Status.False);
                         iFalse++;
                     } // end while                                
                     curArrayInfo.setEnd(endCurTrue);    // Update end to the last true
+                    mark = startRule(arrayAnswer);
                     finishLastNumber(curArray, arrayAnswer, curArrayInfo);
-                    System.out.println("\t\t" + printCells(arrayAnswer));
+                    endRule(Rule.FinishLastNumber, mark, arrayAnswer);
+                    if (Trace.RULE)
+                        Trace.println("\t\t" + printCells(arrayAnswer));
                 } // end if                 
             } // end if                        
         } // end if
@@ -1461,79 +2188,55 @@ public class NonogramSolution
     
     // Returns the index of the first occurrence of the given Status stat between p+1 and e.
     // e.g., X _ O _ O O _ X _ _ --> Finding first true, p = 0, e = 9 --> 2
-    private int getFirstStatus(int p, int e, Status[] arrayAnswer, Status stat)
+    private int getFirstStatus(int p, int e, BitLine arrayAnswer, Status stat)
     {
-        int firstStatus = p+1;
-        while (firstStatus < e+1 && arrayAnswer[firstStatus] != stat)
-            firstStatus++;
-        return firstStatus;
+        return arrayAnswer.nextIndexOf(stat, p+1, e);
     } // end getFirstStatus
     
     // Returns the index of the last occurrence of the given Status stat between b and q-1.
     // e.g., X _ O _ O O _ X _ _  --> firstStatus = 2, e = 9 --> lastStatus = 5
-    private int getLastStatus(int b, int q, Status[] arrayAnswer, Status stat)
+    private int getLastStatus(int b, int q, BitLine arrayAnswer, Status stat)
     {        
-        int lastStatus = q-1;
-        while(lastStatus >= b && arrayAnswer[lastStatus] != stat)
-            lastStatus--;
-        return lastStatus;
+        return arrayAnswer.prevIndexOf(stat, q-1, b);
     } // end getLastStatus
     
     // Returns the index of the last occurrence of the given Status cluster.
     // e.g., X _ O _ O O _ X _ _ --> firstStatus = 2, e = 9 --> lastStatus = 2
-    private int getEndIdxCurStatusCluster(int firstStatus, int e, Status[] arrayAnswer, Status stat)
+    private int getEndIdxCurStatusCluster(int firstStatus, int e, BitLine arrayAnswer, Status stat)
     {        
-        int lastStatus = firstStatus - 1;
-        while(lastStatus + 1 <= e && arrayAnswer[lastStatus + 1] == stat)
-            lastStatus++;
-        return lastStatus;
+        return arrayAnswer.nextIndexNotOf(stat, firstStatus, e) - 1;
     } // end getEndIdxCurStatusCluster
     
     // Returns the index of the first occurrence of the not-Status stat between p+1 and e.
     // e.g., X _ O _ O O _ X _ _ --> Finding first not-false, p = 0, e = 9 --> firstNotStatus = 1
-    private int getFirstNotStatus(int p, int e, Status[] arrayAnswer, Status stat)
+    private int getFirstNotStatus(int p, int e, BitLine arrayAnswer, Status stat)
     {
-        int firstNotStatus = p+1;
-        while (firstNotStatus < e+1 && arrayAnswer[firstNotStatus] == stat)
-            firstNotStatus++;
-        return firstNotStatus;
+        return arrayAnswer.nextIndexNotOf(stat, p+1, e);
     } // end getFirstNotStatus
     
     // Returns the index of the last occurrence of the not-Status stat between b and q-1.
     // e.g., X _ O _ O O _ X _ _  --> firstNotStatus = 1, q = 9 --> lastStatus = 8
-    private int getLastNotStatus(int b, int q, Status[] arrayAnswer, Status stat)
+    private int getLastNotStatus(int b, int q, BitLine arrayAnswer, Status stat)
     {        
-        int lastNotStatus = q-1;
-        while(lastNotStatus >= b && arrayAnswer[lastNotStatus] == stat)
-            lastNotStatus--;
-        return lastNotStatus;
+        return arrayAnswer.prevIndexNotOf(stat, q-1, b);
     } // end getLastNotStatus
     
     // Returns the index of the last occurrence of the not-Status cluster, starting from firstStatus
     // e.g., X _ O _ O O _ X _ _ --> firstNotStatus = 1, e = 9 --> endIdxCurNotStatus = 2
-    private int getEndIdxCurNotStatusCluster(int firstNotStatus, int e, Status[] arrayAnswer, Status stat)
+    private int getEndIdxCurNotStatusCluster(int firstNotStatus, int e, BitLine arrayAnswer, Status stat)
     {        
-        int endIdxCurNotStatus = firstNotStatus - 1;
-        while(endIdxCurNotStatus + 1 <= e && arrayAnswer[endIdxCurNotStatus + 1] != stat)
-            endIdxCurNotStatus++;
-        return endIdxCurNotStatus;
+        return arrayAnswer.nextIndexOf(stat, firstNotStatus, e) - 1;
     } // end getEndIdxCurNotStatusCluster
     
     // Returns the number of cells with given Status stat between b and e, inclusive.
-    private int numOfStatus(int b, int e, Status[] arrayAnswer, Status stat)
+    private int numOfStatus(int b, int e, BitLine arrayAnswer, Status stat)
     {
-        int numStat = 0;        
-        for (int i = b; i < e+1; i++)   
-        {
-            if (arrayAnswer[i] == stat)
-                numStat++;
-        } // end for
-        return numStat;
+        return arrayAnswer.count(stat, b, e);
     } // end numOfStatus
     
     // Returns an array of beginning index of stat cells and 
     //         an array of length of the stat clusters 
-    private int[][] findStatusClusters(Status[] arrayAnswer, ArrayInfo curArrayInfo, Status stat)
+    private int[][] findStatusClusters(BitLine arrayAnswer, ArrayInfo curArrayInfo, Status stat)
     {
         int b = curArrayInfo.getBeg();
         int e = curArrayInfo.getEnd();        
@@ -1542,79 +2245,53 @@ public class NonogramSolution
     
     // Returns an array of beginning index of stat cells and 
     //         an array of length of the stat clusters at [b, e], inclusive.
-    private int[][] findStatusClusters(int b, int e, Status[] arrayAnswer, Status stat)
+    private int[][] findStatusClusters(int b, int e, BitLine arrayAnswer, Status stat)
     {        
-        ArrayList<Integer> begStatusIdx_temp = new ArrayList<>();
-        ArrayList<Integer> lenStatus_temp = new ArrayList<>();        
-        
-        int locCurStatus, lastCurStatus, lenCurStatus;
-        int i = b;
-        while (i <= e)
-        {
-            locCurStatus = getFirstStatus(i - 1, e, arrayAnswer, stat);
-            lastCurStatus = getEndIdxCurStatusCluster(locCurStatus, e, arrayAnswer, stat);            
-            lenCurStatus = lastCurStatus - locCurStatus + 1;
-            if (lenCurStatus > 0)
-            {
-                begStatusIdx_temp.add(locCurStatus);
-                lenStatus_temp.add(lenCurStatus);
-            } // end if
-            i = lastCurStatus + 1;
-        } // end while
-        int arrayLen = begStatusIdx_temp.size();
-        int[] begStatusIdx = new int[arrayLen];
-        int[] lenStatus = new int[arrayLen];
-        for (i = 0; i < arrayLen; i++)
-        {
-            begStatusIdx[i] = begStatusIdx_temp.get(i);
-            lenStatus[i] = lenStatus_temp.get(i);
-        } // end for
-        
-        int[][] statArrays = {begStatusIdx, lenStatus};
-        return statArrays;
+        return findClusters(b, e, arrayAnswer, stat, false);
     } // end findStatusClusters
     
     
     // Returns an array of beginning index of not-stat cells and 
     //         an array of length of the not-stat clusters at [b, e], inclusive.
     // O _ O _ _ X _ X O X X X X _ _ --> [[0,6,8,13],[5,1,1,2]] for stat = Status.False
-    private int[][] findNotStatusClusters(int b, int e, Status[] arrayAnswer, Status stat)
+    private int[][] findNotStatusClusters(int b, int e, BitLine arrayAnswer, Status stat)
     {        
-        ArrayList<Integer> begNotStatusIdx_temp = new ArrayList<>();
-        ArrayList<Integer> lenNotStatus_temp = new ArrayList<>();        
-        
-        int locCurNotStatus, lastCurNotStatus, lenCurNotStatus;
+        return findClusters(b, e, arrayAnswer, stat, true);
+    } // end findNotStatusClusters
+    
+    // Returns an array of beginning index and an array of length of the clusters 
+    // of stat (or not-stat if negate) at [b, e], inclusive.
+    // Jumps from one cluster boundary to the next a word at a time.
+    private int[][] findClusters(int b, int e, BitLine arrayAnswer, Status stat, boolean negate)
+    {
+        int capacity = Math.max(e - b + 2, 0) / 2 + 1;  // Clusters are at least one apart
+        int[] begIdx = new int[capacity];
+        int[] len = new int[capacity];
+        int arrayLen = 0;
         int i = b;
         while (i <= e)
         {
-            locCurNotStatus = getFirstNotStatus(i - 1, e, arrayAnswer, stat);
-            lastCurNotStatus = getEndIdxCurNotStatusCluster(locCurNotStatus, e, arrayAnswer, stat);            
-            lenCurNotStatus = lastCurNotStatus - locCurNotStatus + 1;
-            if (lenCurNotStatus > 0)
-            {
-                begNotStatusIdx_temp.add(locCurNotStatus);
-                lenNotStatus_temp.add(lenCurNotStatus);
-            } // end if
-            i = lastCurNotStatus + 1;
+            int first = negate ? arrayAnswer.nextIndexNotOf(stat, i, e) 
+                               : arrayAnswer.nextIndexOf(stat, i, e);
+            if (first > e)
+                break;
+            int last = (negate ? arrayAnswer.nextIndexOf(stat, first, e) 
+                               : arrayAnswer.nextIndexNotOf(stat, first, e)) - 1;
+            begIdx[arrayLen] = first;
+            len[arrayLen] = last - first + 1;
+            arrayLen++;
+            i = last + 1;
         } // end while
-        int arrayLen = begNotStatusIdx_temp.size();
-        int[] begNotStatusIdx = new int[arrayLen];
-        int[] lenNotStatus = new int[arrayLen];
-        for (i = 0; i < arrayLen; i++)
-        {
-            begNotStatusIdx[i] = begNotStatusIdx_temp.get(i);
-            lenNotStatus[i] = lenNotStatus_temp.get(i);
-        } // end for
         
-        int[][] statArrays = {begNotStatusIdx, lenNotStatus};
+        int[][] statArrays = {Arrays.copyOf(begIdx, arrayLen), Arrays.copyOf(len, arrayLen)};
         return statArrays;
-    } // end findNotStatusClusters
+    } // end findClusters
     
     
     // Check whether there is a status cluster that belongs this section (p, q), exclusive.
     // Returns an array of integers containing the location and length of the current true cluster.
     // If multiple exist, it's either the first occurance or the one with the same length as x.
-    private int[] getCurrentStatusCluster(int x, int p, int q, Status stat, ArrayInfo curArrayInfo, Status[] arrayAnswer)
+    private int[] getCurrentStatusCluster(int x, int p, int q, Status stat, ArrayInfo curArrayInfo, BitLine arrayAnswer)
     {
          /* Find Status cell clusters [b, e], inclusive. */
         int[][] statArrays = findStatusClusters(arrayAnswer, curArrayInfo, stat);
@@ -1663,10 +2340,11 @@ public class NonogramSolution
         return result;
     } // end getCurrentStatusCluster
    
-    private int[] removeEnds(ArrayInfo curArrayInfo, Status[] arrayAnswer)
+    private int[] removeEnds(ArrayInfo curArrayInfo, BitLine arrayAnswer)
     {
         int b = curArrayInfo.getBeg();
         int e = curArrayInfo.getEnd();
+        long mark;      // Start of a rule, for endRule()
         int[] be = updateEnds(b, e, curArrayInfo, arrayAnswer);        
         b = be[0];
         e = be[1];
@@ -1674,9 +2352,11 @@ public class NonogramSolution
         int[] curArray = curArrayInfo.getArray();
         /*  Check the first and the last cell */
         // When the first cell is filled 
-        while (b <= e && arrayAnswer[b] == Status.True)   
+        while (b <= e && arrayAnswer.get(b) == Status.True)   
         {
+            mark = startRule(arrayAnswer);
             finishFirstNumber(curArray, arrayAnswer, curArrayInfo);  
+            endRule(Rule.FinishFirstNumber, mark, arrayAnswer);
             //b = curArrayInfo.getBeg();
             curArray = curArrayInfo.getArray();
             be = updateEnds(b, e, curArrayInfo, arrayAnswer);
@@ -1686,9 +2366,11 @@ public class NonogramSolution
         b = be[0];
         e = be[1];
         // When the last cell is filled
-        while (e >= b && arrayAnswer[e+1-1] == Status.True)   
+        while (e >= b && arrayAnswer.get(e+1-1) == Status.True)   
         {
+            mark = startRule(arrayAnswer);
             finishLastNumber(curArray, arrayAnswer, curArrayInfo);
+            endRule(Rule.FinishLastNumber, mark, arrayAnswer);
             //e = curArrayInfo.getEnd();
             curArray = curArrayInfo.getArray();
             be = updateEnds(b, e, curArrayInfo, arrayAnswer);
@@ -1704,7 +2386,7 @@ public class NonogramSolution
     // empty clusters whose length is less than x in later sections,
     // make them false.
     // Precondition: s == a-1
-    private void makeLaterEmptyFalse(int s, int x, int p, int q, ArrayInfo curArrayInfo, Status[] arrayAnswer)
+    private void makeLaterEmptyFalse(int s, int x, int p, int q, ArrayInfo curArrayInfo, BitLine arrayAnswer)
     {            
         int[] curArray = curArrayInfo.getArray();
         int b = curArrayInfo.getBeg();
@@ -1740,21 +2422,23 @@ public class NonogramSolution
             int curEmptyClusterLen = emptyClusterLen[i];
             foundLaterSmallerEmpty = (curBegIdxEmpty > q && curEmptyClusterLen < x);
             if ((curBegIdxEmpty > q) && !foundLaterTrue && (lenCurTrue <= x) && 
-                (curBegIdxEmpty > 0 && arrayAnswer[curBegIdxEmpty-1] != Status.True) && // Shouldn't follow right after a true cluster
+                (curBegIdxEmpty > 0 && arrayAnswer.get(curBegIdxEmpty-1) != Status.True) && // Shouldn't follow right after a true cluster
                 ((foundLaterSmallerEmpty && numT != 0) || (foundThisTrue && s > 0 && curArray[s-1] != x))) // when true cluster is found, we don't know whether x belongs to this cluster if x is the same as previous number
                 // [1,2,1,2] _ _ _ _ _ O X O _ X _ _ _ _ _ --> don't know
                 // [2, 3] _ _ X _ _ _ X X _ _ X _ _ _ _ --> don't know
             {
-                System.out.println("\t\tMake later sections false");
+                if (Trace.RULE)
+                    Trace.println("\t\tMake later sections false");
                 for (int ii = curBegIdxEmpty; ii < curBegIdxEmpty + curEmptyClusterLen; ii++)
-                    if (arrayAnswer[ii] == Status.Empty)
-                        arrayAnswer[ii] = Status.False;     
-                System.out.println("\t\t" + printCells(arrayAnswer)); 
+                    if (arrayAnswer.get(ii) == Status.Empty)
+                        arrayAnswer.set(ii, Status.False);     
+                if (Trace.RULE)
+                    Trace.println("\t\t" + printCells(arrayAnswer)); 
             } // end if                            
         } // end for 
     } // end makeLaterEmptyFalse
     
-    private void makeFalseBetweenTrues(int p, int q, int s, int k, ArrayInfo curArrayInfo, Status[] arrayAnswer)
+    private void makeFalseBetweenTrues(int p, int q, int s, int k, ArrayInfo curArrayInfo, BitLine arrayAnswer)
     {       
         int b = curArrayInfo.getBeg();
         int e = curArrayInfo.getEnd();
@@ -1800,37 +2484,44 @@ public class NonogramSolution
 
                 if (!overlap)
                 {
-                    System.out.println("\t\tMake false between true clusters.");
+                    if (Trace.RULE)
+                        Trace.println("\t\tMake false between true clusters.");
                     // Section 1: 
                     x = curArray[0];  // current number    
-                    System.out.println("\t\t\tCurrent number: " + x);
+                    if (Trace.RULE)
+                        Trace.println("\t\t\tCurrent number: " + x);
                     // Make false around possible true range
                     for (int i = b; i < idxBeg[0]; i++)   // Make false before the range (only for first x)
-                        arrayAnswer[i] = Status.False;
+                        arrayAnswer.set(i, Status.False);
                     if (a > 1)
                     {
                         for (int i = idxEnd[0]+1; i < idxBeg[1]; i++)   // Make false after the range
-                            arrayAnswer[i] = Status.False;
-                        System.out.println("\t\t" + printCells(arrayAnswer)); 
+                            arrayAnswer.set(i, Status.False);
+                        if (Trace.RULE)
+                            Trace.println("\t\t" + printCells(arrayAnswer)); 
 
                         if (a > 2)  // When there 3 or more, consider middle sections
                         {                    
                             for (int si = 1; si < a-1; si++) // loop through numbers in the array (sections)
                             {   // Section si:               
                                 x = curArray[si];    // current number         
-                                System.out.println("\t\t\tCurrent number: " + x);
+                                if (Trace.RULE)
+                                    Trace.println("\t\t\tCurrent number: " + x);
                                 for (int i = idxEnd[si]+1; i < idxBeg[si+1]; i++) // Make false after the range
-                                    arrayAnswer[i] = Status.False;                      
-                                System.out.println("\t\t" + printCells(arrayAnswer));                     
+                                    arrayAnswer.set(i, Status.False);                      
+                                if (Trace.RULE)
+                                    Trace.println("\t\t" + printCells(arrayAnswer));                     
                             } // end for
                         } // end if
                     } // end if
                     // Last section: 
                     x = curArray[a-1];            
-                    System.out.println("\t\t\tCurrent number: " + x);
+                    if (Trace.RULE)
+                        Trace.println("\t\t\tCurrent number: " + x);
                     for (int i = idxEnd[a-1]+1; i < e+1; i++) // Make false after the range
-                        arrayAnswer[i] = Status.False;              
-                    System.out.println("\t\t" + printCells(arrayAnswer));             
+                        arrayAnswer.set(i, Status.False);              
+                    if (Trace.RULE)
+                        Trace.println("\t\t" + printCells(arrayAnswer));             
                 } // end if
             } // end if
         }
@@ -1865,11 +2556,15 @@ public class NonogramSolution
                 x = curArray[a-1];            
                 int remainingT = x - longestTrueLen; // Remaining number of true
                 int idxEnd = Math.min(e,longestTrueEnd + remainingT);
-                System.out.println("\t\t\tCurrent number: " + x);
-                System.out.println("\t\tMake false to the end.");
+                if (Trace.RULE)
+                {
+                    Trace.println("\t\t\tCurrent number: " + x);
+                    Trace.println("\t\tMake false to the end.");
+                } // end if
                 for (int i = idxEnd+1; i < e+1; i++) // Make false after the range                                    
-                    arrayAnswer[i] = Status.False;                    
-                System.out.println("\t\t" + printCells(arrayAnswer)); 
+                    arrayAnswer.set(i, Status.False);                    
+                if (Trace.RULE)
+                    Trace.println("\t\t" + printCells(arrayAnswer)); 
                 
                 // Make false around second largest true cluster
                 // e. g.,  _ O _ _ _ O O O O _ -> X O X _ _ O O O O _ 
@@ -1881,12 +2576,14 @@ public class NonogramSolution
                         {                            
                             if (begIdxTrue[i]-1 >= b)   
                             {   // Make false right before the true cluster
-                                System.out.println("\t\tMake false around true cluster.");
-                                arrayAnswer[begIdxTrue[i]-1] = Status.False;
+                                if (Trace.RULE)
+                                    Trace.println("\t\tMake false around true cluster.");
+                                arrayAnswer.set(begIdxTrue[i]-1, Status.False);
                             }
                             if (endIdxTrue[i]+1 <= e)  // Make false right after the true cluster
-                                arrayAnswer[endIdxTrue[i]+1] = Status.False;
-                            System.out.println("\t\t" + printCells(arrayAnswer)); 
+                                arrayAnswer.set(endIdxTrue[i]+1, Status.False);
+                            if (Trace.RULE)
+                                Trace.println("\t\t" + printCells(arrayAnswer)); 
                         } // end if
                     } // end for
                 } // end if
@@ -1898,12 +2595,15 @@ public class NonogramSolution
                 x = curArray[0];  // current number    
                 int remainingT = x - longestTrueLen; // Remaining number of true
                 int idxBeg = Math.max(b,longestTrueBeg - remainingT);
-                System.out.println("\t\t\tCurrent number: " + x);
+                if (Trace.RULE)
+                    Trace.println("\t\t\tCurrent number: " + x);
                 // Make false around possible true range
-                System.out.println("\t\tMake false to the front.");
+                if (Trace.RULE)
+                    Trace.println("\t\tMake false to the front.");
                 for (int i = b; i < idxBeg; i++)   // Make false before the range (only for first x)    
-                    arrayAnswer[i] = Status.False;                                    
-                System.out.println("\t\t" + printCells(arrayAnswer)); 
+                    arrayAnswer.set(i, Status.False);                                    
+                if (Trace.RULE)
+                    Trace.println("\t\t" + printCells(arrayAnswer)); 
                 
                 // Make false around second largest true cluster
                 // e. g., _ O O O O _ _ O _ _ -> _ O O O O _ X O X _
@@ -1915,12 +2615,14 @@ public class NonogramSolution
                         {                            
                             if (begIdxTrue[i]-1 >= b)   // Make false right before the true cluster
                             {
-                                System.out.println("\t\tMake false around true cluster.");
-                                arrayAnswer[begIdxTrue[i]-1] = Status.False;
+                                if (Trace.RULE)
+                                    Trace.println("\t\tMake false around true cluster.");
+                                arrayAnswer.set(begIdxTrue[i]-1, Status.False);
                             }
                             if (endIdxTrue[i]+1 <= e)  // Make false right after the true cluster
-                                arrayAnswer[endIdxTrue[i]+1] = Status.False;
-                            System.out.println("\t\t" + printCells(arrayAnswer)); 
+                                arrayAnswer.set(endIdxTrue[i]+1, Status.False);
+                            if (Trace.RULE)
+                                Trace.println("\t\t" + printCells(arrayAnswer)); 
                         } // end if
                     } // end for
                 } // end if
@@ -1940,9 +2642,9 @@ public class NonogramSolution
             //{                                
             //    System.out.println("\tMake far cells false.");
             //    for (int i = p+1; i < locCurTrue - remainingT; i++)   // Make false before the range    
-            //        arrayAnswer[i] = Status.False;                                    
+            //        arrayAnswer.set(i, Status.False);                                    
             //    for (int i = locCurTrue + lenCurTrue +remainingT; i < q; i++)   // Make false after the range   
-            //        arrayAnswer[i] = Status.False;   
+            //        arrayAnswer.set(i, Status.False);   
             //    System.out.println("\t" + printCells(arrayAnswer)); 
             //} // end if
              
@@ -1950,31 +2652,35 @@ public class NonogramSolution
                                     || (s > 0 && kp >= x + curArray[s-1]+1)
                                     || (a == 1 && kp >= x);
             // [1, 4, 2] _ _ _ O O O _ _ X _ _ _ _ _ _  --> _ _ _ O O O _ X X _ _ _ _ _ _            
-            if (locCurTrue != -1 && q <= e && arrayAnswer[q] == Status.False && 
+            if (locCurTrue != -1 && q <= e && arrayAnswer.get(q) == Status.False && 
                 (s > 0 && curArray[s-1] < lenCurTrue) && 
                 (s < a - 1 && q <= locCurTrue + x + curArray[s+1]))// [1,2,1,2] _ _ _ _ O O _ _ _ X _ _ _ _ _ --> don't know
             {
-                System.out.println("\t\tMake far cells false.");
+                if (Trace.RULE)
+                    Trace.println("\t\tMake far cells false.");
                 for (int i = locCurTrue + lenCurTrue +remainingT; i < q; i++)   // Make false after the range   
-                    arrayAnswer[i] = Status.False;         
-                System.out.println("\t\t" + printCells(arrayAnswer)); 
+                    arrayAnswer.set(i, Status.False);         
+                if (Trace.RULE)
+                    Trace.println("\t\t" + printCells(arrayAnswer)); 
             }            
             
             // [4, 5] _ _ _ _ _ _ X _ _ _ O O O O _  -->  _ _ _ _ _ _ X X X _ O O O O _
             // [2, 3, 3] _ _ _ _ _ _ X _ _ _ _ O O _ X --> don't know
-            if (locCurTrue != -1 && p >= b && arrayAnswer[p] == Status.False && (s > 0 && kp < sumToX) && !isBigForTwo)
+            if (locCurTrue != -1 && p >= b && arrayAnswer.get(p) == Status.False && (s > 0 && kp < sumToX) && !isBigForTwo)
             {
-                System.out.println("\t\tMake far cells false.");
+                if (Trace.RULE)
+                    Trace.println("\t\tMake far cells false.");
                 for (int i = p+1; i < locCurTrue - remainingT; i++)   // Make false after the range   
-                    arrayAnswer[i] = Status.False;         
-                System.out.println("\t\t" + printCells(arrayAnswer)); 
+                    arrayAnswer.set(i, Status.False);         
+                if (Trace.RULE)
+                    Trace.println("\t\t" + printCells(arrayAnswer)); 
             }
             
         }// end if
     } // end makeFalseBetweenTrues
     
     // Make an empty space false between two true clusters.
-    private void makeFalseBetweenTruesOneApart(ArrayInfo curArrayInfo, Status[] arrayAnswer)
+    private void makeFalseBetweenTruesOneApart(ArrayInfo curArrayInfo, BitLine arrayAnswer)
     {           
         int a = curArrayInfo.getNum();
         int[] curArray = curArrayInfo.getArray();
@@ -1998,11 +2704,14 @@ public class NonogramSolution
             // next true cluster is greather than maximum number in the array
             if (gap == 1 && (endIdxTrue[i+1] - begIdxTrue[i] + 1> xMax))
             {                
-                if (arrayAnswer[begIdxTrue[i+1]-1] == Status.Empty)
+                if (arrayAnswer.get(begIdxTrue[i+1]-1) == Status.Empty)
                 {
-                    arrayAnswer[begIdxTrue[i+1]-1] = Status.False;
-                    System.out.println("\t\tThe two true clusters are separate.");
-                    System.out.println("\t\t" + printCells(arrayAnswer)); 
+                    arrayAnswer.set(begIdxTrue[i+1]-1, Status.False);
+                    if (Trace.RULE)
+                    {
+                        Trace.println("\t\tThe two true clusters are separate.");
+                        Trace.println("\t\t" + printCells(arrayAnswer)); 
+                    } // end if
                 }
             }
         } // end for
@@ -2013,7 +2722,7 @@ public class NonogramSolution
     // [1, 8] _ _ _ _ O O _ _ _ O O O _ _ _ --> 	_ _ _ _ O O O O O O O O _ _ _ 
     // [4, 3] X X _ _ _ O _ O O _ _ O O _ _ --> X X _ _ _ O O O O _ _ O O _ _ 
     // [1,5,4] _ _ _ O _ O O _ O O _ _ O _ _  --> _ _ _ O _ O O O O O _ _ O _ _ 
-    private void makeTrueBetweenTrues(ArrayInfo curArrayInfo, Status[] arrayAnswer)
+    private void makeTrueBetweenTrues(ArrayInfo curArrayInfo, BitLine arrayAnswer)
     {           
         int a = curArrayInfo.getNum();
         int[] curArray = curArrayInfo.getArray();
@@ -2039,9 +2748,9 @@ public class NonogramSolution
             int[] pq = getpq_general(curArrayInfo, s);            
             int p = pq[0];
             int q = pq[1];
-            if (p-1 >= b && arrayAnswer[p-1] == Status.False)
+            if (p-1 >= b && arrayAnswer.get(p-1) == Status.False)
                 p--;
-            if (q+1 <= e && arrayAnswer[q+1] == Status.False)
+            if (q+1 <= e && arrayAnswer.get(q+1) == Status.False)
                 q++;
             int kp = q - p - 1;            
             
@@ -2098,7 +2807,7 @@ public class NonogramSolution
                 // Check if there is an empty cluster between the two true clusters.
                 boolean allEmpty = true;
                 for (int ii = endIdxTrue[idxToLook]+1; ii < begIdxTrue[idxToLook+1]; ii++)
-                    allEmpty = allEmpty && arrayAnswer[ii] == Status.Empty;
+                    allEmpty = allEmpty && arrayAnswer.get(ii) == Status.Empty;
                 // True if true clusters are bigger than numbers other than xMax.
                 boolean biggerThanAll = true;
                 for (int ia = 0; ia < a; ia++)
@@ -2126,11 +2835,14 @@ public class NonogramSolution
                      !(e - endIdxTrue[idxToLook+1] <= x && lengthTwoTrue > x) && // _ _ _ _ _ _ _ _ _ _ O _ O _ X
                      (e - begIdxTrue[idxToLook+1]+1 < x)))) // [1, 3, 6] _ _ _ _ _ _ _ O _ O O O O _ _
                 {                       
-                    arrayAnswer[begIdxTrue[idxToLook+1]-1] = Status.True;                    
-                    System.out.println("\t\tThe two true clusters are together.");
-                    System.out.println("\t\tCurrent number: " + x); 
-                    System.out.println("\t\tp = " + p + ", q = " + q + ", k' = " + kp);
-                    System.out.println("\t\t" + printCells(arrayAnswer)); 
+                    arrayAnswer.set(begIdxTrue[idxToLook+1]-1, Status.True);                    
+                    if (Trace.RULE)
+                    {
+                        Trace.println("\t\tThe two true clusters are together.");
+                        Trace.println("\t\tCurrent number: " + x); 
+                        Trace.println("\t\tp = " + p + ", q = " + q + ", k' = " + kp);
+                        Trace.println("\t\t" + printCells(arrayAnswer)); 
+                    } // end if
                 }
             } // end if
 
@@ -2150,7 +2862,7 @@ public class NonogramSolution
     // When there is a true cluster close to the front/end, fill up to possible cell.
     // e. g., [3, 3] _ O _ _ _ _ _ _ _ --> _ O O _ _ _ _ _ _
     // e. g., [3, 3] _ _ _ _ _ _ _ O _ --> _ _ _ _ _ _ O O _
-    private void fillUpEnd(ArrayInfo curArrayInfo, Status[] arrayAnswer)
+    private void fillUpEnd(ArrayInfo curArrayInfo, BitLine arrayAnswer)
     {
         // Find True cell clusters [b, e], inclusive.
         int[][] trueArrays = findStatusClusters(arrayAnswer, curArrayInfo, Status.True);
@@ -2169,10 +2881,12 @@ public class NonogramSolution
             int x0 = curArrayInfo.getArray()[0];
             if ((trueClusterLen[0] < x0) && (endIdx0 < b + x0 - 1) && (endIdx0 + 1 < b + x0))
             {
-                System.out.println("\t\tMake first few cells true.");
+                if (Trace.RULE)
+                    Trace.println("\t\tMake first few cells true.");
                 for (int i = endIdx0 + 1; i < b + x0; i++)
-                    arrayAnswer[i] = Status.True;
-                System.out.println("\t\t" + printCells(arrayAnswer)); 
+                    arrayAnswer.set(i, Status.True);
+                if (Trace.RULE)
+                    Trace.println("\t\t" + printCells(arrayAnswer)); 
             } // end if
             
             int begIdxe = begIdxTrue[numTrueClusters-1];
@@ -2180,10 +2894,12 @@ public class NonogramSolution
             int xe = curArrayInfo.getArray()[a-1];            
             if ((trueClusterLen[numTrueClusters-1] < xe) && (begIdxe > e - xe + 1) && (begIdxe - 1 > e - xe) )
             {
-                System.out.println("\t\tMake last few cells true.");
+                if (Trace.RULE)
+                    Trace.println("\t\tMake last few cells true.");
                 for (int i = begIdxe - 1; i > e - xe; i--)
-                    arrayAnswer[i] = Status.True;
-                System.out.println("\t\t" + printCells(arrayAnswer)); 
+                    arrayAnswer.set(i, Status.True);
+                if (Trace.RULE)
+                    Trace.println("\t\t" + printCells(arrayAnswer)); 
             } // end if
         } // end if
     } // end fillUpEnd
@@ -2191,7 +2907,7 @@ public class NonogramSolution
     // When there is a true cluster just away from the front/end, make first few false.
     // e. g., [3, 4] _ _ _ O O _ _ _ _ --> X X _ O O _ _ _ _ _
     // e. g., [4, 3] _ _ _ _ _ O _ _ _ --> _ _ _ _ _ O _ _ X
-    private void falseEnd(ArrayInfo curArrayInfo, Status[] arrayAnswer)
+    private void falseEnd(ArrayInfo curArrayInfo, BitLine arrayAnswer)
     {
         // Find True cell clusters [b, e], inclusive.
         int[][] trueArrays = findStatusClusters(arrayAnswer, curArrayInfo, Status.True);
@@ -2211,10 +2927,12 @@ public class NonogramSolution
             int remainingT0 = x0 - trueClusterLen[0];
             if ((trueClusterLen[0] < x0) && (begIdx0 <= b + x0) && (b < begIdx0 - remainingT0))
             {
-                System.out.println("\t\tMake first few cells false.");
+                if (Trace.RULE)
+                    Trace.println("\t\tMake first few cells false.");
                 for (int i = b; i < begIdx0 - remainingT0; i++)
-                    arrayAnswer[i] = Status.False;
-                System.out.println("\t\t" + printCells(arrayAnswer)); 
+                    arrayAnswer.set(i, Status.False);
+                if (Trace.RULE)
+                    Trace.println("\t\t" + printCells(arrayAnswer)); 
             } // end if
             
             int begIdxe = begIdxTrue[numTrueClusters-1];
@@ -2223,17 +2941,19 @@ public class NonogramSolution
             int remainingTe = xe - trueClusterLen[numTrueClusters-1];
             if ((trueClusterLen[numTrueClusters-1] < xe) && (endIdxe >= e - xe) && (e > endIdxe + remainingTe))
             {
-                System.out.println("\t\tMake last few cells false.");
+                if (Trace.RULE)
+                    Trace.println("\t\tMake last few cells false.");
                 for (int i = e; i > endIdxe + remainingTe; i--)
-                    arrayAnswer[i] = Status.False;
-                System.out.println("\t\t" + printCells(arrayAnswer)); 
+                    arrayAnswer.set(i, Status.False);
+                if (Trace.RULE)
+                    Trace.println("\t\t" + printCells(arrayAnswer)); 
             } // end if
         } // end if
     } // end falseEnd
     
     // General rules on filling up the grids
     // Precondition: s >= 0, a > 0
-    private void fillUp(ArrayInfo curArrayInfo, Status[] arrayAnswer)
+    private void fillUp(ArrayInfo curArrayInfo, BitLine arrayAnswer)
     {
         int[] curArray = curArrayInfo.getArray();
         int b = curArrayInfo.getBeg();
@@ -2243,9 +2963,11 @@ public class NonogramSolution
         int sum = curArrayInfo.getSum();
         int toFill, sumX, i0, is;
         
-        System.out.println("\t\tFill up by general rules...");
+        if (Trace.RULE)
+            Trace.println("\t\tFill up by general rules...");
         int x = curArray[0];  // current number    
-        System.out.println("\t\t\tCurrent number: " + x);
+        if (Trace.RULE)
+            Trace.println("\t\t\tCurrent number: " + x);
         // Fill up the definite true cells
         // Section 1         
         toFill = 2 * x - (ke - ((sum - x) + (a - 1))); // number of cells to make true
@@ -2253,8 +2975,9 @@ public class NonogramSolution
         i0 = b + sumX + x - toFill;
         is = b + sumX + x;
         for (int i = i0; i < is; i++)
-            arrayAnswer[i] = Status.True;
-        System.out.println("\t\t" + printCells(arrayAnswer)); 
+            arrayAnswer.set(i, Status.True);
+        if (Trace.RULE)
+            Trace.println("\t\t" + printCells(arrayAnswer)); 
         
         if (a > 1)  // when there are more than one number
         {
@@ -2267,10 +2990,12 @@ public class NonogramSolution
                     toFill = 2 * x - (ke - ((sum - x) + (a - 1)));                     
                     i0 = b + sumX + s + x - toFill;
                     is = b + sumX + s + x;
-                    System.out.println("\t\t\tCurrent number: " + x);
+                    if (Trace.RULE)
+                        Trace.println("\t\t\tCurrent number: " + x);
                     for (int i = i0; i < is; i++)
-                        arrayAnswer[i] = Status.True;                      
-                    System.out.println("\t\t" + printCells(arrayAnswer));                     
+                        arrayAnswer.set(i, Status.True);                      
+                    if (Trace.RULE)
+                        Trace.println("\t\t" + printCells(arrayAnswer));                     
                 } // end for
             } // end if
             // Last section
@@ -2279,10 +3004,12 @@ public class NonogramSolution
             toFill = 2 * x - (ke - ((sum - x) + (a - 1)));                     
             i0 = b + sumX + (a-1) + x - toFill;
             is = b + sumX + (a-1) + x;
-            System.out.println("\t\t\tCurrent number: " + x);
+            if (Trace.RULE)
+                Trace.println("\t\t\tCurrent number: " + x);
             for (int i = i0; i < is; i++)
-                arrayAnswer[i] = Status.True;  
-            System.out.println("\t\t" + printCells(arrayAnswer)); 
+                arrayAnswer.set(i, Status.True);  
+            if (Trace.RULE)
+                Trace.println("\t\t" + printCells(arrayAnswer)); 
         } // end if        
     }// end fillUp    
     
@@ -2290,7 +3017,7 @@ public class NonogramSolution
     // And only when there are multiple numbers (single number is dealt in makeFarCellsFalse)        
     // (Precondition:  numTrueClusters == a && eachTrueMatchNum)
     // Returns a 2D array containing beginning and end index of possible range for each true cluster
-    private int[][] getTrueRange(int p, int q, int s, int k, ArrayInfo curArrayInfo, Status[] arrayAnswer)
+    private int[][] getTrueRange(int p, int q, int s, int k, ArrayInfo curArrayInfo, BitLine arrayAnswer)
     {
         int a = curArrayInfo.getNum();
         int b = curArrayInfo.getBeg();
@@ -2370,36 +3097,36 @@ public class NonogramSolution
         return sumFromX;
     } // end getSumFromX
     
-    private boolean closedWithFalse(int p, int q, int k, Status[] arrayAnswer)
+    private boolean closedWithFalse(int p, int q, int k, BitLine arrayAnswer)
     {
         return isPFalse(p, arrayAnswer) && isQFalse(q, k, arrayAnswer);
     } // end closedWithFalse
-    // Returns true if arrayAnswer[p] is False or the beginning of the array
-    private boolean isPFalse(int p, Status[] arrayAnswer)
+    // Returns true if arrayAnswer.get(p) is False or the beginning of the array
+    private boolean isPFalse(int p, BitLine arrayAnswer)
     {
-        return (p == -1 || arrayAnswer[p] == Status.False);
+        return (p == -1 || arrayAnswer.get(p) == Status.False);
     } // end isPFalse
-    // Returns true if arrayAnswer[q] is False or the end of the array
-    private boolean isQFalse(int q, int k, Status[] arrayAnswer)
+    // Returns true if arrayAnswer.get(q) is False or the end of the array
+    private boolean isQFalse(int q, int k, BitLine arrayAnswer)
     {
-        return (q == k || arrayAnswer[q] == Status.False);
+        return (q == k || arrayAnswer.get(q) == Status.False);
     } // end isQFalse
     
     // Returns true if the section (p,q) is filled with true cells. 
-    private boolean fullOfTrue(int p, int q, Status[] arrayAnswer)
+    private boolean fullOfTrue(int p, int q, BitLine arrayAnswer)
     {
         boolean result = true;
         for (int i = p+1; i < q; i++)
-            result = result && arrayAnswer[i] == Status.True;
+            result = result && arrayAnswer.get(i) == Status.True;
         return result;
     } // end fullOfTrue
     
     // Returns true if there is at least one true cell in the section (p,q).
-    private boolean trueExists(int p, int q, Status[] arrayAnswer)
+    private boolean trueExists(int p, int q, BitLine arrayAnswer)
     {
         boolean result = false;
         for (int i = p+1; i < q; i++)
-            result = result || (arrayAnswer[i] == Status.True);
+            result = result || (arrayAnswer.get(i) == Status.True);
         return result;
     } // end fullOfTrue
     
@@ -2428,7 +3155,7 @@ public class NonogramSolution
     // [4,2,2] _ _ _ _ _ _ _ _ _ X O O X _ _ --> true for s = 1, false for s = 2
     // [1,4,1] _ _ _ _ O _ _ _ _ X X O X _ X --> false for s = 0, true for s = 2
     // [1,1,1] _ _ _ _ _ X _ X O X X X X _ _ --> false for s = 0, true for s = 1, true for s = 2
-    private boolean isNumberLocated(int s, int k, Status[] arrayAnswer, ArrayInfo curArrayInfo)
+    private boolean isNumberLocated(int s, int k, BitLine arrayAnswer, ArrayInfo curArrayInfo)
     {
         int a = curArrayInfo.getNum();
         assert 0 <= s && s < a;
@@ -2468,10 +3195,10 @@ public class NonogramSolution
         return result;
     } // end isNumberLocated
         
-    // Checks whether numbers from 0 to s-1 fit in arrayAnswer[b ~ count-1]
+    // Checks whether numbers from 0 to s-1 fit in arrayAnswer.get(b ~ count-1)
     // [1,1,1] _ _ X X X X O X _ X _ _ _ _ _: true for s = 1, false for s = 2
     // Precondition: 0 < s <= a-1
-    private boolean doEarlierXsFit(int s, int count, ArrayInfo curArrayInfo, Status[] arrayAnswer)
+    private boolean doEarlierXsFit(int s, int count, ArrayInfo curArrayInfo, BitLine arrayAnswer)
     {
         boolean result;                
         int b = curArrayInfo.getBeg();
@@ -2516,10 +3243,10 @@ public class NonogramSolution
         return result;
     } // end doEarlierXsFit    
     
-    // Checks whether numbers from s+1 to the end fit in arrayAnswer[qLoc+1 ~ e]
+    // Checks whether numbers from s+1 to the end fit in arrayAnswer.get(qLoc+1 ~ e)
     // [1,1,1] _ _ _ _ _ X _ X O X X X X _ _: false for s = 0, true for s = 1
     // Precondition: 0 <= s < a-1
-    private boolean doLaterXsFit(int s, int qLoc, ArrayInfo curArrayInfo, Status[] arrayAnswer)
+    private boolean doLaterXsFit(int s, int qLoc, ArrayInfo curArrayInfo, BitLine arrayAnswer)
     {
         boolean result;        
         int a = curArrayInfo.getNum();
@@ -2612,7 +3339,7 @@ public class NonogramSolution
     // [1,4,1] _ _ _ _ O _ _ _ _ X X O _ _ X --> _ _ _ _ O _ _ _ _ X X O X _ X
     private void fillUpFromEnds(int s, int p, int q, int k, int[] curArray, int a, int sum, int sumToX, int sumFromX, boolean solved, 
             int lenCurTrue, int earlierEffectiveLargerEmptyLen, int thisLargerEmptyLen, int conscNonFalseLen, int begConscNonFalse,
-            boolean foundEarlierLargerTrue, ArrayInfo curArrayInfo, Status[] arrayAnswer)
+            boolean foundEarlierLargerTrue, ArrayInfo curArrayInfo, BitLine arrayAnswer)
     {        
         int kp = q - p - 1;
         int x = curArray[s];
@@ -2638,21 +3365,23 @@ public class NonogramSolution
         // [1,3,1,1,2] O X _ _ _ _ O _ X O X O _ _ _ --> don't know        
         boolean thisTrueBelongsToX = (s+1 < a && !doEarlierXsFit(s+1, p, curArrayInfo, arrayAnswer)) || // (sumToX > earlierEffectiveLargerEmptyLen) ||
                                      (s == a-1 && q == e+1 && doEarlierXsFit(s, p, curArrayInfo, arrayAnswer));//sumToX - x - 1 < earlierEffectiveLargerEmptyLen); 
-        if (!solved && isPFalse(p, arrayAnswer) && arrayAnswer[p+1] == Status.True
+        if (!solved && isPFalse(p, arrayAnswer) && arrayAnswer.get(p+1) == Status.True
             && (x != lenCurTrue || (x == 1 && x == lenCurTrue))
             && p != q && sum + (a-1) > kp
             && thisTrueBelongsToX && (sumFromX > thisLargerEmptyLen || x == xMin || foundEarlierLargerTrue)) 
         {
-            System.out.println("\t\tp is false and p+1 is true");
+            if (Trace.RULE)
+                Trace.println("\t\tp is false and p+1 is true");
             for (int i = p+1; i <= p+x; i++)  // Fill up from left
             {
-                if (arrayAnswer[i] == Status.Empty)
-                    arrayAnswer[i] = Status.True;
+                if (arrayAnswer.get(i) == Status.Empty)
+                    arrayAnswer.set(i, Status.True);
             } // end for
             if (p+x+1 <= e)  // Right end should be False
-                if (arrayAnswer[p+x+1] == Status.Empty)
-                    arrayAnswer[p+x+1] = Status.False;
-            System.out.println("\t\t" + printCells(arrayAnswer)); 
+                if (arrayAnswer.get(p+x+1) == Status.Empty)
+                    arrayAnswer.set(p+x+1, Status.False);
+            if (Trace.RULE)
+                Trace.println("\t\t" + printCells(arrayAnswer)); 
             /* Check whether this array is solved. */
             solved = checkAllTrue(curArrayInfo, arrayAnswer, solved);
         }
@@ -2667,20 +3396,22 @@ public class NonogramSolution
         // [3, 3, 2] _ _ _ _ _ _ _ _ _ _ O X X _ _ --> Don't fill
         // [4, 2, 2] X _ _ _ O _ _ _ _ O X _ _ _ _ --> X _ _ _ O _ _ X O O X _ _ _ _        
         else if (!solved && isQFalse(q, k, arrayAnswer) 
-                && arrayAnswer[q-1] == Status.True && (x != lenCurTrue)
+                && arrayAnswer.get(q-1) == Status.True && (x != lenCurTrue)
                 && (p != q) && (sum + (a-1) > kp) && (sumToNext > conscNonFalseLen) // && (sumToX > earlierEffectiveLargerEmptyLen)
                 && (sumFromX > thisLargerEmptyLen || x == xMin))
         {
-            System.out.println("\t\tq is false and q-1 is true");
+            if (Trace.RULE)
+                Trace.println("\t\tq is false and q-1 is true");
             for (int i = q-1; i >= q-x; i--)  // Fill up from right
             {
-                if (arrayAnswer[i] == Status.Empty)
-                    arrayAnswer[i] = Status.True;
+                if (arrayAnswer.get(i) == Status.Empty)
+                    arrayAnswer.set(i, Status.True);
             } // end for
             if (q-x-1 >= b)  // Left end should be False
-                if (arrayAnswer[q-x-1] == Status.Empty)
-                    arrayAnswer[q-x-1] = Status.False;
-            System.out.println("\t\t" + printCells(arrayAnswer)); 
+                if (arrayAnswer.get(q-x-1) == Status.Empty)
+                    arrayAnswer.set(q-x-1, Status.False);
+            if (Trace.RULE)
+                Trace.println("\t\t" + printCells(arrayAnswer)); 
             /* Check whether this array is solved. */
             solved = checkAllTrue(curArrayInfo, arrayAnswer, solved);
         } // end if
@@ -2688,18 +3419,20 @@ public class NonogramSolution
         // When minimum number > 1, fill up to minimum number and not close.
         // [3, 2] _ _ _ _ _ O X _ _ --> _ _ _ _ O O X _ _ (when minimum > 1)
         if (!solved && isQFalse(q, k, arrayAnswer) 
-            && arrayAnswer[q-1] == Status.True && (x != lenCurTrue)
+            && arrayAnswer.get(q-1) == Status.True && (x != lenCurTrue)
             && (p != q) && (sum + (a-1) > kp)
             && (xMin > 1) && (sumFromX > thisLargerEmptyLen))
         {
             int xCur = xMin;                            
-            System.out.println("\t\tq is false and q-1 is true");
+            if (Trace.RULE)
+                Trace.println("\t\tq is false and q-1 is true");
             for (int i = q-1; i >= q-xCur; i--)  // Fill up from right
             {
-                if (arrayAnswer[i] == Status.Empty)
-                    arrayAnswer[i] = Status.True;
+                if (arrayAnswer.get(i) == Status.Empty)
+                    arrayAnswer.set(i, Status.True);
             } // end for                            
-            System.out.println("\t\t" + printCells(arrayAnswer));             
+            if (Trace.RULE)
+                Trace.println("\t\t" + printCells(arrayAnswer));             
         } // end if
         
     } // end fillUpFromEnds
@@ -19,7 +19,6 @@ public class NonogramSolver
     {                   
         JFrame frame = new JFrame("Nonogram Demo");        
         
-//        JPanel tPanel = new TitlePanel(frame);
         JPanel tPanel = new DropDownPanel(frame);
         
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -0,0 +1,135 @@
+package main;
+
+/*
+ * A line solver that finds the left-most and the right-most valid placement of
+ * every number in the row/column array and fills cells from their overlap.
+ *
+ *  Number x whose left-most start is L and right-most start is R:
+ *      cells [R, L+x) are covered by x in every placement  --> True
+ *  Cells that no number can reach in any placement          --> False
+ *
+ * Each pass costs O(k * a) for a line of length k with a numbers, and passes
+ * are repeated until the line stops changing. The result is sound but not
+ * always complete: a cell that every placement agrees on can stay Empty when
+ * no single number covers it in both extremes, so this is not a fixpoint
+ * solver. DynamicLineSolver finds every such cell; here the next visit to the
+ * line, after a crossing line changes, often finds the rest.
+ */
+
+public class OverlapLineSolver implements LineSolver
+{
+    @Override
+    public boolean solveLine(int[] clue, BitLine line)
+    {
+        int k = line.length();
+        int a = clue.length;
+        boolean changed = true;
+        while (changed)
+        {
+            changed = false;
+            int[] left = leftMost(clue, line);
+            if (left == null)
+                return false;   // No placement fits the line
+            int[] right = rightMost(clue, line);
+
+            int reach = 0;      // First cell not yet covered by a number's range
+            for (int s = 0; s < a; s++)
+            {
+                int x = clue[s];
+                // Cells no number can reach before this number are False
+                for (int i = reach; i < left[s]; i++)
+                    changed |= fill(line, i, Status.False);
+                // Cells covered by both extremes are True
+                for (int i = right[s]; i < left[s] + x; i++)
+                    changed |= fill(line, i, Status.True);
+                reach = Math.max(reach, right[s] + x);
+            } // end for
+            for (int i = reach; i < k; i++)
+                changed |= fill(line, i, Status.False);
+        } // end while
+        return true;
+    } // end solveLine
+
+    /** Returns the left-most valid start of every number in the array.
+     * @param clue An integer array containing the row/column array
+     * @param line The current cells of the row/column
+     * @return An integer array of start indices; null if no placement fits
+     */
+    public static int[] leftMost(int[] clue, BitLine line)
+    {
+        int k = line.length();
+        int a = clue.length;
+        int[] falseBefore = new int[k + 1];     // Number of False in [0, i)
+        int[] trueBefore = new int[k + 1];      // Number of True in [0, i)
+        for (int i = 0; i < k; i++)
+        {
+            Status stat = line.get(i);
+            falseBefore[i + 1] = falseBefore[i] + (stat == Status.False ? 1 : 0);
+            trueBefore[i + 1] = trueBefore[i] + (stat == Status.True ? 1 : 0);
+        } // end for
+
+        // fit[s][i]: numbers s..a-1 can be placed in [i, k) with no True left over
+        boolean[][] fit = new boolean[a + 1][k + 1];
+        for (int i = k; i >= 0; i--)
+            fit[a][i] = trueBefore[k] - trueBefore[i] == 0;
+        for (int s = a - 1; s >= 0; s--)
+        {
+            for (int i = k - 1; i >= 0; i--)
+            {
+                boolean skip = line.get(i) != Status.True && fit[s][i + 1];
+                boolean place = DynamicLineSolver.canPlace(clue[s], i, line, falseBefore)
+                        && fit[s + 1][Math.min(i + clue[s] + 1, k)];
+                fit[s][i] = skip || place;
+            } // end for
+        } // end for
+        if (!fit[0][0])
+            return null;
+
+        // Greedily place each number at the smallest start that still fits
+        int[] starts = new int[a];
+        int i = 0;
+        for (int s = 0; s < a; s++)
+        {
+            int x = clue[s];
+            while (!(DynamicLineSolver.canPlace(x, i, line, falseBefore) && fit[s + 1][Math.min(i + x + 1, k)]))
+                i++;    // Never passes a True cell since fit[s][i] holds
+            starts[s] = i;
+            i = Math.min(i + x + 1, k);
+        } // end for
+        return starts;
+    } // end leftMost
+
+    /** Returns the right-most valid start of every number in the array.
+     * @param clue An integer array containing the row/column array
+     * @param line The current cells of the row/column
+     * @return An integer array of start indices; null if no placement fits
+     */
+    public static int[] rightMost(int[] clue, BitLine line)
+    {
+        int k = line.length();
+        int a = clue.length;
+        int[] reversedClue = new int[a];
+        for (int s = 0; s < a; s++)
+            reversedClue[s] = clue[a - 1 - s];
+        BitLine reversedLine = new BitLine(k);
+        for (int i = 0; i < k; i++)
+            reversedLine.set(i, line.get(k - 1 - i));
+
+        int[] reversedStarts = leftMost(reversedClue, reversedLine);
+        if (reversedStarts == null)
+            return null;
+        int[] starts = new int[a];
+        for (int s = 0; s < a; s++)
+            starts[s] = k - reversedStarts[a - 1 - s] - clue[s];
+        return starts;
+    } // end rightMost
+
+    // Sets an Empty cell to stat. Returns true if the cell changed.
+    private static boolean fill(BitLine line, int i, Status stat)
+    {
+        if (line.get(i) != Status.Empty)
+            return false;
+        line.set(i, stat);
+        return true;
+    } // end fill
+} // end OverlapLineSolver
@@ -0,0 +1,359 @@
+package main;
+
+/*
+ * A class that lists the puzzles available to the application.
+ *
+ * The catalog scans the Problem_RxC folders and the puzzle pack of a problem
+ * folder once, and keeps each puzzle's size, number and clue statistics in
+ * memory, grouped by size. The index is saved next to the puzzles and reused
+ * on the next start as long as the folders and the pack are unchanged, so
+ * adding puzzles only means dropping in files, not editing code.
+ */
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+public class PuzzleCatalog
+{
+    public static final String CACHE_FILE = "catalog.idx";    // Index file kept in the problem folder
+    private static final int MAGIC = 0x4E474358;        // "NGCX"
+    private static final int VERSION = 1;
+    private static PuzzleCatalog defaultCatalog;        // Catalog of NonogramProblem.PROBLEM_DIR
+
+    private final TreeMap<Long, List<Entry>> bySize;    // Puzzles of each size, by number
+    private final int count;            // Number of puzzles
+
+    /** A puzzle in the catalog with statistics of its clues. */
+    public static class Entry
+    {
+        private final File problemDir;  // Folder the puzzle was found in
+        private final int rows, cols, number;
+        private final int clueCount;    // Numbers in all row arrays
+        private final int filled;       // Sum of all row arrays: the True cells of the solution
+        private final int maxClue;      // Largest number in any row/column array
+
+        Entry(File problemDir, int rows, int cols, int number, int clueCount, int filled, int maxClue)
+        {
+            this.problemDir = problemDir;
+            this.rows = rows;
+            this.cols = cols;
+            this.number = number;
+            this.clueCount = clueCount;
+            this.filled = filled;
+            this.maxClue = maxClue;
+        } // end constructor
+
+        /** @return The number of rows */
+        public int getRowNum()
+        {
+            return rows;
+        } // end getRowNum
+
+        /** @return The number of columns */
+        public int getColNum()
+        {
+            return cols;
+        } // end getColNum
+
+        /** @return The puzzle number within its size */
+        public int getNumber()
+        {
+            return number;
+        } // end getNumber
+
+        /** @return The number of numbers in all row arrays */
+        public int getClueCount()
+        {
+            return clueCount;
+        } // end getClueCount
+
+        /** @return The fraction of cells that are True in the solution */
+        public double getDensity()
+        {
+            return (double) filled / (rows * cols);
+        } // end getDensity
+
+        /** @return The largest number in any row/column array */
+        public int getMaxClue()
+        {
+            return maxClue;
+        } // end getMaxClue
+
+        /** Reads the puzzle from its text file, or from the pack if there is no such file.
+         * @return The puzzle as a NonogramProblem
+         * @throws IOException if the puzzle can't be read
+         */
+        public NonogramProblem load() throws IOException
+        {
+            String name = "Problem_" + rows + "x" + cols;
+            File input = new File(problemDir, name + "/" + name + "_" + number + ".txt");
+            if (input.exists())
+                return new NonogramProblem(input);
+            return PuzzlePack.open(packFile(problemDir)).getProblem(rows, cols, number);
+        } // end load
+
+        @Override
+        public String toString()
+        {
+            return rows + " x " + cols + " - " + number;
+        } // end toString
+    } // end Entry
+
+    // Creates a catalog from a list of puzzles.
+    private PuzzleCatalog(List<Entry> entries)
+    {
+        bySize = new TreeMap<>();
+        for (Entry entry : entries)
+            bySize.computeIfAbsent(sizeKey(entry.rows, entry.cols), k -> new ArrayList<>()).add(entry);
+        for (List<Entry> list : bySize.values())
+            list.sort((a, b) -> Integer.compare(a.number, b.number));
+        count = entries.size();
+    } // end constructor
+
+    /** Returns the catalog of the application's problem folder, loading it on first use.
+     * @return The catalog of NonogramProblem.PROBLEM_DIR
+     * @throws IOException if the folder can't be scanned
+     */
+    public static synchronized PuzzleCatalog getDefault() throws IOException
+    {
+        if (defaultCatalog == null)
+            defaultCatalog = load(new File(NonogramProblem.PROBLEM_DIR));
+        return defaultCatalog;
+    } // end getDefault
+
+    /** Returns the catalog of a problem folder.
+     *  The saved index is used if the folder is unchanged since it was written;
+     *  otherwise the folder is scanned and the index is written again.
+     * @param problemDir The folder containing the Problem_RxC folders and the pack
+     * @return The catalog
+     * @throws IOException if the folder can't be scanned
+     */
+    public static PuzzleCatalog load(File problemDir) throws IOException
+    {
+        File cache = new File(problemDir, CACHE_FILE);
+        long stamp = fingerprint(problemDir);
+        List<Entry> entries = readCache(cache, stamp, problemDir);
+        if (entries == null)
+        {
+            entries = scan(problemDir);
+            try
+            {
+                writeCache(cache, stamp, entries);
+            }
+            catch (IOException ex)
+            {
+                // A read-only folder only means scanning again next time
+            } // end try
+        } // end if
+        return new PuzzleCatalog(entries);
+    } // end load
+
+    /** Returns the number of puzzles in the catalog.
+     * @return An integer containing the number of puzzles
+     */
+    public int size()
+    {
+        return count;
+    } // end size
+
+    /** Returns the sizes that have at least one puzzle, smallest first.
+     * @return A list of {rows, columns}
+     */
+    public List<int[]> getSizes()
+    {
+        List<int[]> sizes = new ArrayList<>();
+        for (List<Entry> list : bySize.values())
+            sizes.add(new int[] {list.get(0).rows, list.get(0).cols});
+        return sizes;
+    } // end getSizes
+
+    /** Returns the puzzles of a size, by number.
+     * @param rowNum The number of rows
+     * @param colNum The number of columns
+     * @return A list of entries; empty if there is no puzzle of that size
+     */
+    public List<Entry> getEntries(int rowNum, int colNum)
+    {
+        List<Entry> list = bySize.get(sizeKey(rowNum, colNum));
+        return list == null ? Collections.emptyList() : Collections.unmodifiableList(list);
+    } // end getEntries
+
+    /** Returns every puzzle, by size and then by number.
+     * @return A list of entries
+     */
+    public List<Entry> getEntries()
+    {
+        List<Entry> all = new ArrayList<>(count);
+        for (List<Entry> list : bySize.values())
+            all.addAll(list);
+        return all;
+    } // end getEntries
+
+    /** Picks a puzzle at random, every puzzle being equally likely.
+     * @param rand The random number generator to use
+     * @return An entry; null if the catalog is empty
+     */
+    public Entry pickRandom(Random rand)
+    {
+        if (count == 0)
+            return null;
+        int t = rand.nextInt(count);
+        for (List<Entry> list : bySize.values())
+        {
+            if (t < list.size())
+                return list.get(t);
+            t -= list.size();
+        } // end for
+        return null;
+    } // end pickRandom
+
+    // Orders sizes by rows and then columns.
+    private static long sizeKey(int rows, int cols)
+    {
+        return ((long) rows << 32) | cols;
+    } // end sizeKey
+
+    // Returns a value that changes when a puzzle folder or the pack changes.
+    // Adding, removing or renaming a file changes the modification time of its
+    // folder, so only the folders and the pack are looked at, not every file.
+    // A file edited in place is not noticed; delete the index to rescan.
+    private static long fingerprint(File problemDir)
+    {
+        long stamp = 17;
+        File[] folders = problemDir.listFiles();
+        if (folders != null)
+        {
+            Arrays.sort(folders);
+            for (File folder : folders)
+                if (folder.isDirectory() && NonogramProblem.FOLDER_PATTERN.matcher(folder.getName()).matches())
+                    stamp = 31 * (31 * stamp + folder.getName().hashCode()) + folder.lastModified();
+        } // end if
+        File pack = packFile(problemDir);
+        return 31 * (31 * stamp + pack.lastModified()) + pack.length();
+    } // end fingerprint
+
+    // Returns the puzzle pack of a problem folder.
+    private static File packFile(File problemDir)
+    {
+        return new File(problemDir, new File(NonogramProblem.PACK_FILE).getName());
+    } // end packFile
+
+    // Reads every puzzle of the folders and the pack and computes its statistics.
+    // A puzzle in both a folder and the pack is listed once. A puzzle file that
+    // can't be read, or whose size differs from its name, is left out with a warning.
+    private static List<Entry> scan(File problemDir) throws IOException
+    {
+        Map<String, Entry> found = new TreeMap<>();
+        File[] folders = problemDir.listFiles();
+        for (File folder : folders == null ? new File[0] : folders)
+        {
+            if (!folder.isDirectory() || !NonogramProblem.FOLDER_PATTERN.matcher(folder.getName()).matches())
+                continue;
+            File[] files = folder.listFiles();
+            for (File file : files == null ? new File[0] : files)
+            {
+                Matcher match = NonogramProblem.FILE_PATTERN.matcher(file.getName());
+                if (!match.matches())
+                    continue;
+                try
+                {
+                    NonogramProblem problem = new NonogramProblem(file);
+                    if (problem.getRowArray().length != Integer.parseInt(match.group(1)) ||
+                        problem.getColumnArray().length != Integer.parseInt(match.group(2)))
+                        throw new IOException("the size in the file does not match its name");
+                    found.put(file.getName(), describe(problemDir, problem, Integer.parseInt(match.group(3))));
+                }
+                catch (IOException | RuntimeException ex)
+                {
+                    System.err.println("Skipping " + file + ": " + ex);
+                } // end try
+            } // end for
+        } // end for
+
+        File packFile = packFile(problemDir);
+        if (packFile.exists())
+        {
+            PuzzlePack pack = PuzzlePack.open(packFile);
+            for (int[] key : pack.getKeys())
+            {
+                String name = "Problem_" + key[0] + "x" + key[1] + "_" + key[2] + ".txt";
+                if (!found.containsKey(name))
+                    found.put(name, describe(problemDir, pack.getProblem(key[0], key[1], key[2]), key[2]));
+            } // end for
+        } // end if
+        return new ArrayList<>(found.values());
+    } // end scan
+
+    // Computes the catalog entry of a puzzle.
+    private static Entry describe(File problemDir, NonogramProblem problem, int number)
+    {
+        int clueCount = 0;
+        int filled = 0;
+        int maxClue = 0;
+        for (int[] array : problem.getRowArray())
+        {
+            clueCount += array.length;
+            for (int num : array)
+            {
+                filled += num;
+                maxClue = Math.max(maxClue, num);
+            } // end for
+        } // end for
+        for (int[] array : problem.getColumnArray())
+            for (int num : array)
+                maxClue = Math.max(maxClue, num);
+        return new Entry(problemDir, problem.getRowArray().length, problem.getColumnArray().length,
+                         number, clueCount, filled, maxClue);
+    } // end describe
+
+    // Reads the saved index; null if it is missing, unreadable or out of date.
+    private static List<Entry> readCache(File cache, long stamp, File problemDir)
+    {
+        if (!cache.exists())
+            return null;
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(cache))))
+        {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readLong() != stamp)
+                return null;
+            int size = in.readInt();
+            List<Entry> entries = new ArrayList<>(size);
+            for (int t = 0; t < size; t++)
+                entries.add(new Entry(problemDir, in.readInt(), in.readInt(), in.readInt(),
+                                      in.readInt(), in.readInt(), in.readInt()));
+            return entries;
+        }
+        catch (IOException ex)
+        {
+            return null;
+        } // end try
+    } // end readCache
+
+    // Saves the index with the fingerprint of the folder it was made from.
+    private static void writeCache(File cache, long stamp, List<Entry> entries) throws IOException
+    {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(cache))))
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(stamp);
+            out.writeInt(entries.size());
+            for (Entry entry : entries)
+            {
+                out.writeInt(entry.rows);
+                out.writeInt(entry.cols);
+                out.writeInt(entry.number);
+                out.writeInt(entry.clueCount);
+                out.writeInt(entry.filled);
+                out.writeInt(entry.maxClue);
+            } // end for
+        } // end try
+    } // end writeCache
+} // end PuzzleCatalog
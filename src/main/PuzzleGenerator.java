@@ -0,0 +1,234 @@
+package main;
+
+/*
+ * A class that makes random Nonogram puzzles.
+ *
+ * Each cell of an m x n grid is True with a given probability, and the row and
+ * column arrays are derived from the grid. With a seed, the same puzzles are
+ * made every time. Optionally only puzzles that SolutionCounter proves to have
+ * a single solution are kept. Puzzles are written in the text format that
+ * NonogramProblem reads, with [0] for a row/column without True cells.
+ *
+ *  java main.PuzzleGenerator <rows> <columns> <count> [-density d] [-seed s]
+ *                            [-unique] [-out problem folder]
+ */
+
+import java.io.*;
+import java.util.Random;
+public class PuzzleGenerator
+{
+    public static final int MAX_ATTEMPTS = 1000;    // Grids tried per unique puzzle before giving up
+
+    private final Random rand;          // Source of the random grids
+    private double density;             // Probability of a cell being True
+    private boolean unique;             // true to keep only puzzles with one solution
+    private int searchLimit;            // Trial limit of each uniqueness check
+
+    /** Creates a generator.
+     * @param seed The seed of the random grids
+     */
+    public PuzzleGenerator(long seed)
+    {
+        rand = new Random(seed);
+        density = 0.5;
+        searchLimit = NonogramSolution.DEFAULT_SEARCH_LIMIT;
+    } // end constructor
+
+    /** Sets the probability of a cell being True.
+     * @param newDensity A number between 0 and 1
+     */
+    public void setDensity(double newDensity)
+    {
+        if (newDensity < 0 || newDensity > 1)
+            throw new IllegalArgumentException("Density must be between 0 and 1: " + newDensity);
+        density = newDensity;
+    } // end setDensity
+
+    /** Sets whether only puzzles with a single solution are made.
+     * @param onlyUnique true to check every puzzle with SolutionCounter
+     * @param maxTrials The trial limit of each check; a check that reaches it rejects the puzzle
+     */
+    public void setUnique(boolean onlyUnique, int maxTrials)
+    {
+        unique = onlyUnique;
+        searchLimit = maxTrials;
+    } // end setUnique
+
+    /** Makes a puzzle.
+     * @param rows The number of rows
+     * @param cols The number of columns
+     * @return A puzzle whose solution is the random grid
+     * @throws IllegalStateException if no unique puzzle is found in MAX_ATTEMPTS grids
+     */
+    public NonogramProblem generate(int rows, int cols)
+    {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++)
+        {
+            NonogramProblem problem = fromGrid(randomGrid(rows, cols));
+            if (!unique || new SolutionCounter(problem, searchLimit).isUnique())
+                return problem;
+        } // end for
+        throw new IllegalStateException("No unique " + rows + " x " + cols + " puzzle in " +
+                                        MAX_ATTEMPTS + " attempts at density " + density);
+    } // end generate
+
+    /** Makes a puzzle from a grid.
+     * @param grid A 2D array of True and False cells
+     * @return A puzzle whose arrays describe the grid and whose solution is the grid
+     */
+    public static NonogramProblem fromGrid(Status[][] grid)
+    {
+        int rows = grid.length;
+        int cols = (rows == 0) ? 0 : grid[0].length;
+        int[][] rowArrays = new int[rows][];
+        for (int i = 0; i < rows; i++)
+            rowArrays[i] = toArray(grid[i]);
+        int[][] colArrays = new int[cols][];
+        Status[] column = new Status[rows];
+        for (int j = 0; j < cols; j++)
+        {
+            for (int i = 0; i < rows; i++)
+                column[i] = grid[i][j];
+            colArrays[j] = toArray(column);
+        } // end for
+        return new NonogramProblem(rowArrays, colArrays, grid);
+    } // end fromGrid
+
+    /** Returns the row/column array of a line: the lengths of its runs of True cells.
+     * @param line The cells of the line
+     * @return An integer array; empty if the line has no True cell
+     */
+    public static int[] toArray(Status[] line)
+    {
+        int count = 0;
+        for (int i = 0; i < line.length; i++)
+            if (line[i] == Status.True && (i == 0 || line[i - 1] != Status.True))
+                count++;
+        int[] result = new int[count];
+        int s = -1;
+        for (int i = 0; i < line.length; i++)
+        {
+            if (line[i] != Status.True)
+                continue;
+            if (i == 0 || line[i - 1] != Status.True)
+                s++;
+            result[s]++;
+        } // end for
+        return result;
+    } // end toArray
+
+    /** Writes a puzzle in the text format of the problem files.
+     * @param problem The puzzle to write
+     * @param out The destination
+     * @throws IOException if writing fails
+     */
+    public static void write(NonogramProblem problem, Writer out) throws IOException
+    {
+        writeArrays(problem.getRowArray(), out);
+        writeArrays(problem.getColumnArray(), out);
+        Status[][] solution = problem.getSolution();
+        StringBuilder line = new StringBuilder();
+        out.write('{');
+        for (int i = 0; i < solution.length; i++)
+        {
+            line.setLength(0);
+            for (int j = 0; j < solution[i].length; j++)
+            {
+                if (j > 0)
+                    line.append(' ');
+                line.append(solution[i][j] == Status.True ? 'T' : 'F');
+            } // end for
+            line.append(i < solution.length - 1 ? "\n" : "}\n");
+            out.write(line.toString());
+        } // end for
+        out.flush();
+    } // end write
+
+    /**
+     * @param args The size and number of puzzles followed by options
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length < 3)
+        {
+            System.out.println("Usage: java main.PuzzleGenerator <rows> <columns> <count> " +
+                               "[-density d] [-seed s] [-unique] [-out problem folder]");
+            return;
+        } // end if
+        int rows = Integer.parseInt(args[0]);
+        int cols = Integer.parseInt(args[1]);
+        int count = Integer.parseInt(args[2]);
+        double density = 0.5;
+        long seed = System.nanoTime();
+        boolean onlyUnique = false;
+        String outDir = NonogramProblem.PROBLEM_DIR;
+        for (int t = 3; t < args.length; t++)
+        {
+            if (args[t].equals("-density"))
+                density = Double.parseDouble(args[++t]);
+            else if (args[t].equals("-seed"))
+                seed = Long.parseLong(args[++t]);
+            else if (args[t].equals("-unique"))
+                onlyUnique = true;
+            else if (args[t].equals("-out"))
+                outDir = args[++t];
+            else
+                throw new IllegalArgumentException("Unknown option: " + args[t]);
+        } // end for
+
+        PuzzleGenerator generator = new PuzzleGenerator(seed);
+        generator.setDensity(density);
+        generator.setUnique(onlyUnique, NonogramSolution.DEFAULT_SEARCH_LIMIT);
+        String name = "Problem_" + rows + "x" + cols;
+        File folder = new File(outDir, name);
+        if (!folder.isDirectory() && !folder.mkdirs())
+            throw new IOException("Can't create " + folder);
+        int probNum = 1;
+        for (int made = 0; made < count; made++)
+        {
+            while (new File(folder, name + "_" + probNum + ".txt").exists())
+                probNum++;  // Keep the puzzles already there
+            File file = new File(folder, name + "_" + probNum + ".txt");
+            NonogramProblem problem = generator.generate(rows, cols);
+            try (Writer out = new BufferedWriter(new FileWriter(file)))
+            {
+                write(problem, out);
+            } // end try
+            System.out.println("Wrote " + file);
+        } // end for
+        System.out.println("Seed: " + seed);
+    } // end main
+
+    // Returns a grid whose cells are True with probability density.
+    private Status[][] randomGrid(int rows, int cols)
+    {
+        Status[][] grid = new Status[rows][cols];
+        for (int i = 0; i < rows; i++)
+            for (int j = 0; j < cols; j++)
+                grid[i][j] = (rand.nextDouble() < density) ? Status.True : Status.False;
+        return grid;
+    } // end randomGrid
+
+    // Writes row/column arrays as one brace-delimited line.
+    private static void writeArrays(int[][] arrays, Writer out) throws IOException
+    {
+        StringBuilder line = new StringBuilder("{");
+        for (int t = 0; t < arrays.length; t++)
+        {
+            if (t > 0)
+                line.append(',');
+            line.append('[');
+            if (arrays[t].length == 0)
+                line.append('0');
+            for (int s = 0; s < arrays[t].length; s++)
+            {
+                if (s > 0)
+                    line.append(',');
+                line.append(arrays[t][s]);
+            } // end for
+            line.append(']');
+        } // end for
+        line.append("}\n");
+        out.write(line.toString());
+    } // end writeArrays
+} // end PuzzleGenerator
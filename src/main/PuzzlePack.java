@@ -0,0 +1,332 @@
+package main;
+
+/*
+ * A class that stores many Nonogram puzzles in one binary file.
+ *
+ *  Header:     magic "NGPK", version, number of puzzles        (3 ints)
+ *  Index:      rows, columns, puzzle number, record offset     (3 ints + 1 long each)
+ *  Records:    for each row then each column array, its size and its numbers
+ *              as unsigned varints, then the solution as rows*columns bits
+ *              in row order, lowest bit first, 1 for True
+ *
+ * The file is memory-mapped and the index is read once into a hash table, so
+ * any puzzle is found and decoded without touching the others. Packs are made
+ * from the text files of a problem folder with convert(), or from the command
+ * line:  java main.PuzzlePack <problem folder> <pack file>
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+public class PuzzlePack
+{
+    private static final int MAGIC = 0x4E47504B;        // "NGPK"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 12;          // Bytes before the index
+    private static final int ENTRY_SIZE = 20;           // Bytes per index entry
+    private static final int KEY_BITS = 21;             // Bits of rows, columns and number in an index key
+    private static final int KEY_LIMIT = 1 << KEY_BITS; // Sizes and numbers must be below this
+    private static final Map<String, PuzzlePack> OPENED = new HashMap<>();  // Packs opened so far
+
+    private final File source;          // The pack file
+    private final long modified;        // Modification time of the file when it was opened
+    private final MappedByteBuffer data;    // The whole pack file
+    private final Map<Long, Integer> index;  // Record offset of each (rows, columns, number)
+    private final int[][] keys;         // {rows, columns, number} of each puzzle, in file order
+
+    // Maps a pack file and reads its index.
+    private PuzzlePack(File packFile) throws IOException
+    {
+        source = packFile;
+        modified = packFile.lastModified();
+        try (FileChannel channel = FileChannel.open(packFile.toPath(), StandardOpenOption.READ))
+        {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } // end try
+        if (data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC)
+            throw new IOException(packFile + " is not a puzzle pack");
+        if (data.getInt(4) != VERSION)
+            throw new IOException(packFile + " has unsupported version " + data.getInt(4));
+        int count = data.getInt(8);
+        index = new HashMap<>(2 * count);
+        keys = new int[count][];
+        for (int t = 0; t < count; t++)
+        {
+            int at = HEADER_SIZE + t * ENTRY_SIZE;
+            int rows = data.getInt(at);
+            int cols = data.getInt(at + 4);
+            int number = data.getInt(at + 8);
+            long offset = data.getLong(at + 12);
+            if (offset < 0 || offset >= data.limit())
+                throw new IOException(packFile + " has a bad offset for puzzle " + t);
+            long key = key(rows, cols, number);
+            if (key < 0)
+                throw new IOException(packFile + " has a size or number out of range for puzzle " + t);
+            keys[t] = new int[] {rows, cols, number};
+            index.put(key, (int) offset);
+        } // end for
+    } // end constructor
+
+    /** Opens a pack file. A pack that is already open and unchanged on disk is reused.
+     * @param packFile The pack file
+     * @return The opened pack
+     * @throws IOException if the file can't be read or is not a pack
+     */
+    public static PuzzlePack open(File packFile) throws IOException
+    {
+        String path = packFile.getCanonicalPath();
+        synchronized (OPENED)
+        {
+            PuzzlePack pack = OPENED.get(path);
+            if (pack == null || pack.modified != packFile.lastModified())
+            {
+                pack = new PuzzlePack(packFile);
+                OPENED.put(path, pack);
+            } // end if
+            return pack;
+        } // end synchronized
+    } // end open
+
+    /** Returns the number of puzzles in the pack.
+     * @return An integer containing the number of puzzles
+     */
+    public int size()
+    {
+        return keys.length;
+    } // end size
+
+    /** Returns {rows, columns, number} of every puzzle, in file order.
+     * @return A 2D integer array with one entry per puzzle
+     */
+    public int[][] getKeys()
+    {
+        return keys.clone();
+    } // end getKeys
+
+    /** Returns true if the pack has the given puzzle.
+     * @param rowNum The number of rows
+     * @param colNum The number of columns
+     * @param probNum The puzzle number
+     * @return true if the puzzle is in the pack
+     */
+    public boolean contains(int rowNum, int colNum, int probNum)
+    {
+        return index.containsKey(key(rowNum, colNum, probNum));
+    } // end contains
+
+    /** Decodes a puzzle.
+     * @param rowNum The number of rows
+     * @param colNum The number of columns
+     * @param probNum The puzzle number
+     * @return The puzzle as a NonogramProblem
+     * @throws IOException if the puzzle is not in the pack
+     */
+    public NonogramProblem getProblem(int rowNum, int colNum, int probNum) throws IOException
+    {
+        Integer offset = index.get(key(rowNum, colNum, probNum));
+        if (offset == null)
+            throw new FileNotFoundException("Problem " + rowNum + "x" + colNum + "_" + probNum +
+                                            " is not in " + source);
+        ByteBuffer in = data.duplicate();   // Own position, so readers don't interfere
+        in.position(offset);
+        int[][] rows = readArrays(in, rowNum);
+        int[][] cols = readArrays(in, colNum);
+        Status[][] answer = new Status[rowNum][colNum];
+        int bits = 0;
+        int numBits = 0;
+        for (int i = 0; i < rowNum; i++)
+        {
+            for (int j = 0; j < colNum; j++)
+            {
+                if (numBits == 0)
+                {
+                    bits = in.get() & 0xFF;
+                    numBits = 8;
+                } // end if
+                answer[i][j] = ((bits & 1) != 0) ? Status.True : Status.False;
+                bits >>>= 1;
+                numBits--;
+            } // end for
+        } // end for
+        return new NonogramProblem(rows, cols, answer);
+    } // end getProblem
+
+    /** Writes puzzles to a pack file.
+     * @param packFile The file to write
+     * @param probNums The puzzle number of each puzzle
+     * @param problems The puzzles, each with a solution
+     * @throws IOException if the file can't be written
+     * @throws IllegalArgumentException if a size or puzzle number is negative or 2^21 or more
+     */
+    public static void write(File packFile, int[] probNums, NonogramProblem[] problems) throws IOException
+    {
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        long[] offsets = new long[problems.length];
+        long base = HEADER_SIZE + (long) ENTRY_SIZE * problems.length;
+        for (int t = 0; t < problems.length; t++)
+        {
+            int rowNum = problems[t].getRowArray().length;
+            int colNum = problems[t].getColumnArray().length;
+            if (key(rowNum, colNum, probNums[t]) < 0)
+                throw new IllegalArgumentException("Problem " + rowNum + "x" + colNum + "_" + probNums[t] +
+                                                   " is out of range; sizes and numbers must be 0 to " + (KEY_LIMIT - 1));
+            offsets[t] = base + records.size();
+            writeArrays(records, problems[t].getRowArray());
+            writeArrays(records, problems[t].getColumnArray());
+            int bits = 0;
+            int numBits = 0;
+            for (Status[] row : problems[t].getSolution())
+            {
+                for (Status cell : row)
+                {
+                    if (cell == Status.True)
+                        bits |= 1 << numBits;
+                    if (++numBits == 8)
+                    {
+                        records.write(bits);
+                        bits = 0;
+                        numBits = 0;
+                    } // end if
+                } // end for
+            } // end for
+            if (numBits > 0)
+                records.write(bits);
+        } // end for
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(packFile))))
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(problems.length);
+            for (int t = 0; t < problems.length; t++)
+            {
+                out.writeInt(problems[t].getRowArray().length);
+                out.writeInt(problems[t].getColumnArray().length);
+                out.writeInt(probNums[t]);
+                out.writeLong(offsets[t]);
+            } // end for
+            records.writeTo(out);
+        } // end try
+    } // end write
+
+    /** Packs every Problem_RxC/Problem_RxC_N.txt file of a problem folder.
+     * @param problemDir The folder containing the Problem_RxC folders
+     * @param packFile The file to write
+     * @return The number of puzzles written
+     * @throws IOException if a puzzle file can't be read or the pack can't be written
+     */
+    public static int convert(File problemDir, File packFile) throws IOException
+    {
+        List<NonogramProblem> problems = new ArrayList<>();
+        List<Integer> numbers = new ArrayList<>();
+        File[] folders = problemDir.listFiles();
+        if (folders == null)
+            throw new FileNotFoundException(problemDir + " is not a folder");
+        for (File folder : folders)
+        {
+            if (!folder.isDirectory() || !NonogramProblem.FOLDER_PATTERN.matcher(folder.getName()).matches())
+                continue;
+            File[] files = folder.listFiles();
+            for (File file : files == null ? new File[0] : files)
+            {
+                Matcher match = NonogramProblem.FILE_PATTERN.matcher(file.getName());
+                if (!match.matches())
+                    continue;
+                NonogramProblem problem = new NonogramProblem(file);
+                if (problem.getRowArray().length != Integer.parseInt(match.group(1)) ||
+                    problem.getColumnArray().length != Integer.parseInt(match.group(2)))
+                    throw new IOException(file + " does not match the size in its name");
+                problems.add(problem);
+                numbers.add(Integer.parseInt(match.group(3)));
+            } // end for
+        } // end for
+
+        int[] probNums = new int[numbers.size()];
+        for (int t = 0; t < probNums.length; t++)
+            probNums[t] = numbers.get(t);
+        write(packFile, probNums, problems.toArray(new NonogramProblem[0]));
+        return probNums.length;
+    } // end convert
+
+    /**
+     * @param args The problem folder and the pack file to write
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length != 2)
+        {
+            System.out.println("Usage: java main.PuzzlePack <problem folder> <pack file>");
+            return;
+        } // end if
+        int count = convert(new File(args[0]), new File(args[1]));
+        System.out.println("Packed " + count + " puzzles into " + args[1]);
+    } // end main
+
+    // Packs (rows, columns, number) into one index key, KEY_BITS bits each;
+    // -1 if any of them is outside 0..KEY_LIMIT-1, so no two puzzles share a key.
+    private static long key(int rows, int cols, int number)
+    {
+        if (rows < 0 || rows >= KEY_LIMIT || cols < 0 || cols >= KEY_LIMIT ||
+            number < 0 || number >= KEY_LIMIT)
+            return -1;
+        return ((long) rows << 2 * KEY_BITS) | ((long) cols << KEY_BITS) | number;
+    } // end key
+
+    // Reads count row/column arrays: each is its size followed by its numbers.
+    private static int[][] readArrays(ByteBuffer in, int count)
+    {
+        int[][] arrays = new int[count][];
+        for (int t = 0; t < count; t++)
+        {
+            arrays[t] = new int[readVarint(in)];
+            for (int a = 0; a < arrays[t].length; a++)
+                arrays[t][a] = readVarint(in);
+        } // end for
+        return arrays;
+    } // end readArrays
+
+    // Writes row/column arrays: each is its size followed by its numbers.
+    private static void writeArrays(ByteArrayOutputStream out, int[][] arrays)
+    {
+        for (int[] array : arrays)
+        {
+            writeVarint(out, array.length);
+            for (int number : array)
+                writeVarint(out, number);
+        } // end for
+    } // end writeArrays
+
+    // Reads an unsigned integer stored 7 bits per byte, lowest first.
+    private static int readVarint(ByteBuffer in)
+    {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do
+        {
+            b = in.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    } // end readVarint
+
+    // Writes an unsigned integer 7 bits per byte, lowest first.
+    private static void writeVarint(ByteArrayOutputStream out, int value)
+    {
+        while ((value & ~0x7F) != 0)
+        {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        } // end while
+        out.write(value);
+    } // end writeVarint
+} // end PuzzlePack
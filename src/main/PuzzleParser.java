@@ -0,0 +1,160 @@
+package main;
+
+/*
+ * A class that reads a Nonogram puzzle file in one pass over its bytes.
+ *
+ *  Clues:      {[a,b,...],[c,...],...}     once for rows, once for columns
+ *  Solution:   {T F T ...}                 cells in row order, T or F
+ *
+ * Whitespace may appear between any two tokens, and numbers within an array
+ * may be separated by any punctuation, not only a comma. Numbers are accumulated digit
+ * by digit and cells are written straight into the grid, so no String is made
+ * per token. The input can be a heap buffer or a memory-mapped file.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+public class PuzzleParser
+{
+    private final ByteBuffer in;        // Bytes of the puzzle file
+    private int[] numbers;              // Numbers of the clue section being read
+    private int[] groupEnds;            // End of each clue array in numbers
+
+    /** Creates a parser that reads from the current position of a buffer.
+     * @param input The bytes to parse
+     */
+    public PuzzleParser(ByteBuffer input)
+    {
+        in = input;
+        numbers = new int[64];
+        groupEnds = new int[16];
+    } // end constructor
+
+    /** Reads a clue section: a brace-delimited list of bracketed arrays.
+     * @return An array of row/column arrays, in the order they appear
+     * @throws IOException if the input is not a clue section
+     */
+    public int[][] readClues() throws IOException
+    {
+        int numCount = 0;
+        int groupCount = 0;
+        expect('{');
+        int b = nextToken();
+        while (b != '}')
+        {
+            if (b != '[')
+                throw error("'[' or '}'", b);
+            b = nextToken();
+            while (b != ']')
+            {
+                if (b < '0' || b > '9')
+                    throw error("a digit or ']'", b);
+                int value = 0;
+                while (b >= '0' && b <= '9')
+                {
+                    value = value * 10 + (b - '0');
+                    b = in.hasRemaining() ? in.get() : -1;
+                } // end while
+                if (numCount == numbers.length)
+                    numbers = Arrays.copyOf(numbers, 2 * numCount);
+                numbers[numCount++] = value;
+                if (isSpace(b))
+                    b = nextToken();
+                if (isSeparator(b))
+                    b = nextToken();
+                else if (b != ']')
+                    throw error("',' or ']'", b);
+            } // end while
+            if (groupCount == groupEnds.length)
+                groupEnds = Arrays.copyOf(groupEnds, 2 * groupCount);
+            groupEnds[groupCount++] = numCount;
+            b = nextToken();
+            if (b == ',')
+                b = nextToken();
+            else if (b != '}')
+                throw error("',' or '}'", b);
+        } // end while
+
+        int[][] result = new int[groupCount][];
+        int start = 0;
+        for (int g = 0; g < groupCount; g++)
+        {
+            result[g] = Arrays.copyOfRange(numbers, start, groupEnds[g]);
+            start = groupEnds[g];
+        } // end for
+        return result;
+    } // end readClues
+
+    /** Reads a solution section: a brace-delimited grid of T and F in row order.
+     * @param rowSize The number of rows
+     * @param colSize The number of columns
+     * @return A 2D array of Status of each cell
+     * @throws IOException if the input is not a solution of the given size
+     */
+    public Status[][] readSolution(int rowSize, int colSize) throws IOException
+    {
+        Status[][] solutionGrid = new Status[rowSize][colSize];
+        expect('{');
+        int cell = 0;
+        int b = nextToken();
+        while (b != '}')
+        {
+            if (cell == rowSize * colSize)
+                throw error("'}' after " + cell + " cells", b);
+            if (b == 'T')
+                solutionGrid[cell / colSize][cell % colSize] = Status.True;
+            else if (b == 'F')
+                solutionGrid[cell / colSize][cell % colSize] = Status.False;
+            else
+                throw error("'T', 'F' or '}'", b);
+            cell++;
+            b = nextToken();
+        } // end while
+        if (cell != rowSize * colSize)
+            throw new IOException("Solution has " + cell + " cells, expected " + rowSize * colSize);
+        return solutionGrid;
+    } // end readSolution
+
+    // Returns the next byte that is not whitespace; -1 at the end of the input.
+    private int nextToken()
+    {
+        while (in.hasRemaining())
+        {
+            int b = in.get();
+            if (!isSpace(b))
+                return b;
+        } // end while
+        return -1;
+    } // end nextToken
+
+    // Reads the next token and checks that it is the given character.
+    private void expect(char c) throws IOException
+    {
+        int b = nextToken();
+        if (b != c)
+            throw error("'" + c + "'", b);
+    } // end expect
+
+    // Returns true for space, tab, carriage return and line feed.
+    private static boolean isSpace(int b)
+    {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    } // end isSpace
+
+    // Returns true for a byte between two numbers of an array. Like the old
+    // Scanner-based reader, any punctuation is accepted, not only a comma.
+    private static boolean isSeparator(int b)
+    {
+        return b > ' ' && b < 127 && !Character.isLetterOrDigit(b) &&
+               b != '[' && b != ']' && b != '{' && b != '}';
+    } // end isSeparator
+
+    // Builds the exception for an unexpected byte.
+    private IOException error(String expected, int b)
+    {
+        String found = (b == -1) ? "end of input" : "'" + (char) b + "'";
+        return new IOException("Expected " + expected + " but found " + found +
+                               " at byte " + (in.position() - (b == -1 ? 0 : 1)));
+    } // end error
+} // end PuzzleParser
@@ -0,0 +1,38 @@
+package main;
+
+/*
+    A class that names the rules that decide cells of a row/column. Each rule
+    site of NonogramSolution reports its rule once, to both RuleStats and the
+    SolveRecorder.
+
+    ExactFit: the numbers with one space between them fill the whole array.
+    AllTrueFound: every True cell is found, so the Empty cells are False.
+    EmptyFit: the numbers fill exactly the Empty (and True) cells.
+    SingleNumber: the cells between the first and the last True of a one-number array are True.
+    SmallGapsFalse: Empty clusters too small for the number are False.
+    SectionOverlap: the middle 2x-k' cells of a section are True.
+    SectionFalse: a section too short for its number is False.
+    RemoveEnds: removeEnds; trims finished numbers from both ends.
+    FillUp: fillUp; overlap of each number's leftmost and rightmost placement.
+    FillUpEnd: fillUpEnd; True cells next to a True cell at an end.
+    FalseEnd: falseEnd; False cells at an end too short for the number.
+    MakeTrueBetweenTrues: makeTrueBetweenTrues; joins or separates two True clusters.
+    MakeLaterEmptyFalse: makeLaterEmptyFalse; sections after the last number.
+    MakeFarCellsFalse: makeFarCellsFalse; cells out of reach of a True cluster.
+    MakeFalseAround: makeFalseAround; cells around a finished True cluster.
+    FillUpFromEnds: fillUpFromEnds; True cells next to a False end of a section.
+    MakeFalseBetweenTrues: makeFalseBetweenTrues; cells between the ranges of two numbers.
+    MakeFalseBetweenTruesOneApart: makeFalseBetweenTruesOneApart; a gap between two finished clusters.
+    FinishFirstNumber: finishFirstNumber; places the first number at the beginning.
+    FinishLastNumber: finishLastNumber; places the last number at the end.
+    LineSolver: LineSolver.solveLine of a pluggable engine.
+    Search: the cells were decided by search.
+ */
+
+public enum Rule
+{
+    ExactFit, AllTrueFound, EmptyFit, SingleNumber, SmallGapsFalse, SectionOverlap, SectionFalse,
+    RemoveEnds, FillUp, FillUpEnd, FalseEnd, MakeTrueBetweenTrues, MakeLaterEmptyFalse,
+    MakeFarCellsFalse, MakeFalseAround, FillUpFromEnds, MakeFalseBetweenTrues,
+    MakeFalseBetweenTruesOneApart, FinishFirstNumber, FinishLastNumber, LineSolver, Search
+}
@@ -0,0 +1,192 @@
+package main;
+
+/*
+ * A class that counts the calls, the cells decided and the time of each
+ * Rule of NonogramSolution.
+ *
+ * Counting is on when the system property nonogram.stats is true:
+ *
+ *  java -Dnonogram.stats=true main.BatchSolver src/resources/Problems
+ *
+ * The counters are LongAdders, so solver threads don't contend for them, and
+ * they are published as the MBean main:type=RuleStats with a reset operation.
+ * A rule site of NonogramSolution brackets its rule with startRule() and
+ * endRule(), which call start() and stop() and hand the same Rule to the
+ * SolveRecorder:
+ *
+ *  mark = startRule(arrayAnswer);
+ *  fillUp(curArrayInfo, arrayAnswer);
+ *  endRule(Rule.FillUp, mark, arrayAnswer);
+ *
+ * The mark packs the clock and the Empty cells of the row/column into one
+ * long, so nothing is allocated. With counting off, the clock is not read
+ * and nothing is counted.
+ */
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+public class RuleStats implements RuleStatsMBean
+{
+    public static final boolean ENABLED = Boolean.getBoolean("nonogram.stats");
+    public static final String OBJECT_NAME = "main:type=RuleStats";
+    private static final int EMPTY_BITS = 21;   // Low bits of a mark: Empty cells of a row/column
+    private static final long EMPTY_MASK = (1L << EMPTY_BITS) - 1;
+    private static final Rule[] RULES = Rule.values();
+    private static final LongAdder[] CALLS = adders();
+    private static final LongAdder[] CELLS = adders();
+    private static final LongAdder[] NANOS = adders();
+
+    static
+    {
+        if (ENABLED)
+            register();
+    }
+
+    /** Starts a rule.
+     * @param arrayAnswer The row/column the rule works on
+     * @return A mark to pass to stop(); it holds the clock only if counting is on
+     */
+    public static long start(BitLine arrayAnswer)
+    {
+        long clock = ENABLED ? System.nanoTime() << EMPTY_BITS : 0;
+        return clock | arrayAnswer.count(Status.Empty);
+    } // end start
+
+    /** Counts a finished rule, if counting is on.
+     * @param rule The rule
+     * @param mark The value start() returned
+     * @param arrayAnswer The row/column after the rule
+     * @return The number of cells the rule changed from Empty
+     */
+    public static int stop(Rule rule, long mark, BitLine arrayAnswer)
+    {
+        int decided = (int) (mark & EMPTY_MASK) - arrayAnswer.count(Status.Empty);
+        if (!ENABLED)
+            return decided;
+        // Shifted clocks subtract correctly even when the shift overflows.
+        long nanos = ((System.nanoTime() << EMPTY_BITS) - (mark & ~EMPTY_MASK)) >> EMPTY_BITS;
+        int t = rule.ordinal();
+        CALLS[t].increment();
+        CELLS[t].add(decided);
+        NANOS[t].add(nanos);
+        return decided;
+    } // end stop
+
+    /** Registers the MBean with the platform MBean server, if it isn't already.
+     * @return true if the MBean is registered
+     */
+    public static synchronized boolean register()
+    {
+        try
+        {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name))
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new RuleStats(), name);
+            return true;
+        }
+        catch (JMException | SecurityException ex)
+        {
+            return false;   // Counting still works without JMX
+        } // end try
+    } // end register
+
+    @Override
+    public boolean isEnabled()
+    {
+        return ENABLED;
+    } // end isEnabled
+
+    @Override
+    public String[] getRuleNames()
+    {
+        String[] names = new String[RULES.length];
+        for (int t = 0; t < names.length; t++)
+            names[t] = RULES[t].name();
+        return names;
+    } // end getRuleNames
+
+    @Override
+    public long[] getCalls()
+    {
+        return sums(CALLS);
+    } // end getCalls
+
+    @Override
+    public long[] getCellsDecided()
+    {
+        return sums(CELLS);
+    } // end getCellsDecided
+
+    @Override
+    public long[] getNanos()
+    {
+        return sums(NANOS);
+    } // end getNanos
+
+    @Override
+    public String getReport()
+    {
+        return report();
+    } // end getReport
+
+    @Override
+    public void reset()
+    {
+        for (int t = 0; t < RULES.length; t++)
+        {
+            CALLS[t].reset();
+            CELLS[t].reset();
+            NANOS[t].reset();
+        } // end for
+    } // end reset
+
+    /** Returns a table of every rule that was called, most cells per time first.
+     * @return A String with one line per rule
+     */
+    public static String report()
+    {
+        long[] calls = sums(CALLS);
+        long[] cells = sums(CELLS);
+        long[] nanos = sums(NANOS);
+        Integer[] order = new Integer[RULES.length];
+        for (int t = 0; t < order.length; t++)
+            order[t] = t;
+        Arrays.sort(order, (x, y) -> Double.compare(rate(cells[y], nanos[y]), rate(cells[x], nanos[x])));
+        StringBuilder result = new StringBuilder(String.format("%-30s %12s %12s %12s %12s%n",
+                                                 "Rule", "Calls", "Cells", "ms", "Cells/us"));
+        for (int t : order)
+        {
+            if (calls[t] > 0)
+                result.append(String.format("%-30s %12d %12d %12.3f %12.4f%n", RULES[t], calls[t],
+                                            cells[t], nanos[t] / 1e6, rate(cells[t], nanos[t])));
+        } // end for
+        return result.toString();
+    } // end report
+
+    // Returns cells decided per microsecond.
+    private static double rate(long cells, long nanos)
+    {
+        return (nanos == 0) ? 0 : cells * 1000.0 / nanos;
+    } // end rate
+
+    // Returns one adder per rule.
+    private static LongAdder[] adders()
+    {
+        LongAdder[] result = new LongAdder[Rule.values().length];
+        for (int t = 0; t < result.length; t++)
+            result[t] = new LongAdder();
+        return result;
+    } // end adders
+
+    // Returns the current value of each adder.
+    private static long[] sums(LongAdder[] adders)
+    {
+        long[] result = new long[adders.length];
+        for (int t = 0; t < adders.length; t++)
+            result[t] = adders[t].sum();
+        return result;
+    } // end sums
+} // end RuleStats
@@ -0,0 +1,30 @@
+package main;
+
+/*
+ * The management interface of RuleStats, as shown by JConsole or any other
+ * JMX client under main:type=RuleStats. Arrays are indexed like getRuleNames().
+ */
+
+public interface RuleStatsMBean
+{
+    /** @return true if the solver counts its rules (-Dnonogram.stats=true) */
+    boolean isEnabled();
+
+    /** @return The name of each rule, in Rule order */
+    String[] getRuleNames();
+
+    /** @return The number of calls of each rule */
+    long[] getCalls();
+
+    /** @return The number of cells each rule changed from Empty */
+    long[] getCellsDecided();
+
+    /** @return The nanoseconds spent in each rule, including any rule it calls */
+    long[] getNanos();
+
+    /** @return A table of calls, cells, time and cells per microsecond of every rule */
+    String getReport();
+
+    /** Sets every counter back to 0. */
+    void reset();
+} // end RuleStatsMBean
@@ -0,0 +1,167 @@
+package main;
+
+/*
+ * A class that counts the solutions of a Nonogram puzzle from its clues alone,
+ * ignoring the solution stored with the problem.
+ *
+ * Cells are decided by propagating every row and column with a line solver and,
+ * when that stalls, by NonogramSearch.solveAll(). The search stops as soon as
+ * the given number of solutions has been found, so checking that a puzzle is
+ * unique costs one solution plus a failed search for a second one.
+ *
+ * Run on its own, it checks every puzzle of a problem folder and prints
+ * whether each is unique, not unique, or gave up at the limit:
+ *
+ *  java main.SolutionCounter <problem folder> [-search trials]
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+public class SolutionCounter
+{
+    private final NonogramProblem problem;  // Puzzle whose clues are searched
+    private final int maxTrials;        // Maximum number of branch propagations
+    private final List<Status[][]> solutions;   // Solutions found by the last count
+    private int trials;                 // Branch propagations done by the last count
+    private boolean limitReached;       // true if the last count stopped at maxTrials
+
+    /** Creates a counter for a puzzle with the default limit on branch propagations.
+     * @param newProblem The puzzle to check
+     */
+    public SolutionCounter(NonogramProblem newProblem)
+    {
+        this(newProblem, NonogramSolution.DEFAULT_SEARCH_LIMIT);
+    } // end constructor
+
+    /** Creates a counter for a puzzle.
+     * @param newProblem The puzzle to check
+     * @param maxTrials The maximum number of branch propagations per count
+     */
+    public SolutionCounter(NonogramProblem newProblem, int maxTrials)
+    {
+        problem = newProblem;
+        this.maxTrials = maxTrials;
+        solutions = new ArrayList<>();
+    } // end constructor
+
+    /** Counts the solutions of the puzzle, stopping once maxCount are found.
+     * @param maxCount The number of solutions after which to stop, at least 1
+     * @return The number of solutions found, at most maxCount
+     */
+    public int count(int maxCount)
+    {
+        solutions.clear();
+        trials = 0;
+        limitReached = false;
+
+        NonogramSolution start = new NonogramSolution(problem);
+        start.setLineSolver(new DynamicLineSolver());
+        start.setSearchLimit(0);
+        NonogramSearch search = new NonogramSearch(maxTrials);
+        for (NonogramSolution sol : search.solveAll(start, maxCount))
+            solutions.add(sol.getAnswer());
+        trials = search.getTrialCount();
+        limitReached = search.isLimitReached();
+        return solutions.size();
+    } // end count
+
+    /** Checks whether the puzzle has exactly one solution.
+     *  After this call, getWitness() returns a second solution if there is one.
+     * @return true if exactly one solution was found and the search finished
+     */
+    public boolean isUnique()
+    {
+        return count(2) == 1 && !limitReached;
+    } // end isUnique
+
+    /** Returns the solutions found by the last count.
+     * @return A list of 2D arrays of Status, in the order they were found
+     */
+    public List<Status[][]> getSolutions()
+    {
+        return solutions;
+    } // end getSolutions
+
+    /** Returns a solution that shows the puzzle is not unique.
+     *  Prefers a solution other than the one stored with the problem.
+     * @return A 2D array of Status; null if the last count found fewer than two solutions
+     */
+    public Status[][] getWitness()
+    {
+        if (solutions.size() < 2)
+            return null;
+        for (Status[][] sol : solutions)
+            if (!matchesStored(sol))
+                return sol;
+        return solutions.get(1);
+    } // end getWitness
+
+    /** Returns the number of branch propagations done by the last count.
+     * @return An integer containing the number of trials
+     */
+    public int getTrialCount()
+    {
+        return trials;
+    } // end getTrialCount
+
+    /** Returns true if the last count gave up at the limit, so its result is a lower bound.
+     * @return true if the limit on branch propagations was reached
+     */
+    public boolean isLimitReached()
+    {
+        return limitReached;
+    } // end isLimitReached
+
+    /** Checks every puzzle of a problem folder and prints one line per puzzle.
+     * @param args The problem folder, optionally followed by -search and a trial limit
+     * @throws IOException if the folder can't be scanned
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length != 1 && !(args.length == 3 && args[1].equals("-search")))
+        {
+            System.out.println("Usage: java main.SolutionCounter <problem folder> [-search trials]");
+            return;
+        } // end if
+        int maxTrials = (args.length == 3) ? Integer.parseInt(args[2]) : NonogramSolution.DEFAULT_SEARCH_LIMIT;
+
+        int unique = 0, notUnique = 0, unknown = 0;
+        for (PuzzleCatalog.Entry entry : PuzzleCatalog.load(new File(args[0])).getEntries())
+        {
+            SolutionCounter counter = new SolutionCounter(entry.load(), maxTrials);
+            String result;
+            if (counter.isUnique())
+            {
+                result = "unique";
+                unique++;
+            }
+            else if (counter.getSolutions().size() > 1)
+            {
+                result = "not unique";
+                notUnique++;
+            }
+            else
+            {
+                result = counter.isLimitReached() ? "limit reached" : "no solution";
+                unknown++;
+            } // end if
+            System.out.println(entry + ": " + result + " (" + counter.getTrialCount() + " trials)");
+        } // end for
+        System.out.println(unique + " unique, " + notUnique + " not unique, " + unknown + " limit reached or unsolvable");
+    } // end main
+
+    // Returns true if a solution is the one stored with the problem.
+    private boolean matchesStored(Status[][] sol)
+    {
+        Status[][] stored = problem.getSolution();
+        if (stored == null)
+            return false;
+        for (int i = 0; i < sol.length; i++)
+            for (int j = 0; j < sol[i].length; j++)
+                if (sol[i][j] != stored[i][j])
+                    return false;
+        return true;
+    } // end matchesStored
+} // end SolutionCounter
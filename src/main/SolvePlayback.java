@@ -0,0 +1,201 @@
+package main;
+
+/*
+ * A class that keeps a solve as a sequence of steps for playback.
+ *
+ * Each step is the CellChanges of one call of NonogramSolution.step(), and
+ * every SNAPSHOT_INTERVAL steps the whole grid is kept as a snapshot. The
+ * playback has a position: the number of steps shown. Moving it forward
+ * applies the steps in between; moving it back restarts from the last
+ * snapshot at or before the new position, touching only the cells changed by
+ * the steps in between. Either way seek() returns just the cells a view has to
+ * repaint, and no step is solved again.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+public class SolvePlayback
+{
+    public static final int SNAPSHOT_INTERVAL = 16;     // Steps between snapshots
+    private static final Status[] STATUS = Status.values();
+
+    private final int m, n;             // size of row and column, respectively
+    private final ArrayList<CellChanges> steps;     // Cells changed by each step
+    private final ArrayList<byte[]> snapshots;      // Grid after every SNAPSHOT_INTERVAL steps, as Status ordinals
+    private final byte[] last;          // Grid after the last step added
+    private final byte[] shown;         // Grid at the position
+    private int position;               // Number of steps shown
+    private boolean finished;           // true once the solver has no steps left to add
+
+    /** Creates a playback with no steps; every cell is Empty.
+     * @param rows The number of rows of the grid
+     * @param cols The number of columns of the grid
+     */
+    public SolvePlayback(int rows, int cols)
+    {
+        m = rows;
+        n = cols;
+        steps = new ArrayList<>();
+        snapshots = new ArrayList<>();
+        last = new byte[m * n];
+        Arrays.fill(last, (byte) Status.Empty.ordinal());
+        shown = last.clone();
+        snapshots.add(last.clone());
+    } // end constructor
+
+    /** Adds the next step of the solve.
+     * @param changes The cells changed by the step
+     */
+    public void add(CellChanges changes)
+    {
+        if (finished)
+            throw new IllegalStateException("The solve has finished");
+        steps.add(changes);
+        apply(changes, last, null);
+        if (steps.size() % SNAPSHOT_INTERVAL == 0)
+            snapshots.add(last.clone());
+    } // end add
+
+    /** Notes that the solver has no steps left, so the last step is the end. */
+    public void finish()
+    {
+        finished = true;
+    } // end finish
+
+    /** @return true once the solver has no steps left to add */
+    public boolean isFinished()
+    {
+        return finished;
+    } // end isFinished
+
+    /** @return true if the position is at the last step of a finished solve */
+    public boolean isAtEnd()
+    {
+        return finished && position == steps.size();
+    } // end isAtEnd
+
+    /** Returns the number of steps added so far.
+     * @return An integer containing the number of steps
+     */
+    public int size()
+    {
+        return steps.size();
+    } // end size
+
+    /** Returns the number of steps shown.
+     * @return An integer from 0 to size()
+     */
+    public int getPosition()
+    {
+        return position;
+    } // end getPosition
+
+    /** Returns the cells changed by a step.
+     * @param t The index of the step, from 0
+     * @return The CellChanges of the step
+     */
+    public CellChanges getStep(int t)
+    {
+        return steps.get(t);
+    } // end getStep
+
+    /** Returns the grid after a number of steps, rebuilt from the last snapshot before it.
+     * @param t The number of steps, from 0 to size()
+     * @return A new 2D array of the status of each cell
+     */
+    public Status[][] getGrid(int t)
+    {
+        checkPosition(t);
+        byte[] grid = snapshots.get(t / SNAPSHOT_INTERVAL).clone();
+        for (int s = t / SNAPSHOT_INTERVAL * SNAPSHOT_INTERVAL; s < t; s++)
+            apply(steps.get(s), grid, null);
+        Status[][] result = new Status[m][n];
+        for (int i = 0; i < m; i++)
+            for (int j = 0; j < n; j++)
+                result[i][j] = STATUS[grid[i * n + j]];
+        return result;
+    } // end getGrid
+
+    /** Moves the position.
+     * @param t The number of steps to show, from 0 to size()
+     * @return The cells whose status differs between the old and new positions, with their new status
+     */
+    public CellChanges seek(int t)
+    {
+        checkPosition(t);
+        CellChanges result = new CellChanges();
+        if (t > position)
+        {
+            for (int s = position; s < t; s++)
+                apply(steps.get(s), shown, result);
+        }
+        else if (t < position)
+        {
+            // Put back the snapshot values of the cells changed since t, then
+            // apply the steps from the snapshot to t. A cell not changed since t
+            // already has its final value from those steps, so applying them again
+            // leaves it as it is.
+            int k = t / SNAPSHOT_INTERVAL;
+            byte[] snapshot = snapshots.get(k);
+            for (int s = t; s < position; s++)
+            {
+                CellChanges changes = steps.get(s);
+                for (int c = 0; c < changes.size(); c++)
+                {
+                    int cell = changes.getRow(c) * n + changes.getColumn(c);
+                    shown[cell] = snapshot[cell];
+                } // end for
+            } // end for
+            for (int s = k * SNAPSHOT_INTERVAL; s < t; s++)
+                apply(steps.get(s), shown, null);
+            for (int s = t; s < position; s++)
+            {
+                CellChanges changes = steps.get(s);
+                for (int c = 0; c < changes.size(); c++)
+                {
+                    int i = changes.getRow(c);
+                    int j = changes.getColumn(c);
+                    result.add(i, j, STATUS[shown[i * n + j]]);
+                } // end for
+            } // end for
+        } // end if
+        position = t;
+        return result;
+    } // end seek
+
+    /** Moves the position one step forward, if there is a step after it.
+     * @return The cells changed by the step
+     */
+    public CellChanges stepForward()
+    {
+        return seek(Math.min(position + 1, steps.size()));
+    } // end stepForward
+
+    /** Moves the position one step back, if it isn't at the start.
+     * @return The cells to show for the previous step
+     */
+    public CellChanges stepBack()
+    {
+        return seek(Math.max(position - 1, 0));
+    } // end stepBack
+
+    // Applies the cells of a step to a grid, listing them in result unless it is null.
+    private void apply(CellChanges changes, byte[] grid, CellChanges result)
+    {
+        for (int c = 0; c < changes.size(); c++)
+        {
+            int i = changes.getRow(c);
+            int j = changes.getColumn(c);
+            grid[i * n + j] = (byte) changes.getStatus(c).ordinal();
+            if (result != null)
+                result.add(i, j, changes.getStatus(c));
+        } // end for
+    } // end apply
+
+    // Throws if t is not a position between 0 and size().
+    private void checkPosition(int t)
+    {
+        if (t < 0 || t > steps.size())
+            throw new IndexOutOfBoundsException("Step " + t + " of " + steps.size());
+    } // end checkPosition
+} // end SolvePlayback
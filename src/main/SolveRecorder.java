@@ -0,0 +1,320 @@
+package main;
+
+/*
+ * A class that records the steps of a solve as a stream of events.
+ *
+ * Each event is one long in a ring buffer allocated up front, so recording
+ * builds no strings and allocates nothing. When the buffer is full the
+ * oldest events are overwritten.
+ *
+ *  bits 60-63  type: LOOP, LINE, RULE or CELL
+ *  LOOP        loop number in bits 0-31
+ *  LINE        1 for a column in bit 32, index in bits 0-31
+ *  RULE        ordinal of the Rule in bits 0-31
+ *  CELL        row in bits 34-57, column in bits 10-33, Status ordinal in bits 0-1
+ *
+ * A recording can be dumped to a file, read back, printed with
+ *  java main.SolveRecorder <dump file>
+ * and replayed cell by cell onto a grid.
+ */
+
+import java.io.*;
+import java.util.Arrays;
+public class SolveRecorder
+{
+    public static final int DEFAULT_CAPACITY = 1 << 16;     // Events kept by default
+    public static final int LOOP = 1, LINE = 2, RULE = 3, CELL = 4;  // Event types
+    private static final int MAGIC = 0x4E474556;        // "NGEV"
+    private static final int VERSION = 2;
+    private static final Rule[] RULES = Rule.values();
+    private static final Status[] STATUS = Status.values();
+
+    private final int rows, cols;       // Size of the grid being solved
+    private final long[] events;        // Ring buffer; its length is a power of two
+    private final int mask;             // events.length - 1
+    private long count;                 // Events recorded so far, including overwritten ones
+    private long lost;                  // Events dropped before a recording was read back
+
+    /** Creates a recorder that keeps the last DEFAULT_CAPACITY events.
+     * @param rows The number of rows of the grid
+     * @param cols The number of columns of the grid
+     */
+    public SolveRecorder(int rows, int cols)
+    {
+        this(rows, cols, DEFAULT_CAPACITY);
+    } // end constructor
+
+    /** Creates a recorder.
+     * @param rows The number of rows of the grid
+     * @param cols The number of columns of the grid
+     * @param capacity The number of events kept; rounded up to a power of two
+     */
+    public SolveRecorder(int rows, int cols, int capacity)
+    {
+        if (capacity < 1 || capacity > 1 << 30)
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+        this.rows = rows;
+        this.cols = cols;
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity)
+            size <<= 1;
+        events = new long[size];
+        mask = size - 1;
+    } // end constructor
+
+    /** Records the start of a loop.
+     * @param loopNum The number of the loop, from 1
+     */
+    public void loop(int loopNum)
+    {
+        add((long) LOOP << 60 | (loopNum & 0xFFFFFFFFL));
+    } // end loop
+
+    /** Records a visit to a row/column.
+     * @param rowcol Whether a row or a column is visited
+     * @param idx The index of the row/column
+     */
+    public void line(RowCol rowcol, int idx)
+    {
+        add((long) LINE << 60 | (rowcol == RowCol.Column ? 1L << 32 : 0) | idx);
+    } // end line
+
+    /** Records a rule that fired in the row/column being visited.
+     * @param rule The rule
+     */
+    public void rule(Rule rule)
+    {
+        add((long) RULE << 60 | rule.ordinal());
+    } // end rule
+
+    /** Records a cell that changed.
+     * @param i The row of the cell
+     * @param j The column of the cell
+     * @param stat The new Status of the cell
+     */
+    public void cell(int i, int j, Status stat)
+    {
+        add((long) CELL << 60 | (long) i << 34 | (long) j << 10 | stat.ordinal());
+    } // end cell
+
+    /** Forgets every event. */
+    public void clear()
+    {
+        count = 0;
+        lost = 0;
+    } // end clear
+
+    /** @return The number of rows of the recorded grid */
+    public int getRowNum()
+    {
+        return rows;
+    } // end getRowNum
+
+    /** @return The number of columns of the recorded grid */
+    public int getColNum()
+    {
+        return cols;
+    } // end getColNum
+
+    /** Returns the number of events kept.
+     * @return An integer up to the capacity
+     */
+    public int size()
+    {
+        return (int) Math.min(count, events.length);
+    } // end size
+
+    /** Returns the number of events overwritten because the buffer was full.
+     * @return The number of events lost from the start of the recording
+     */
+    public long getDropped()
+    {
+        return lost + count - size();
+    } // end getDropped
+
+    /** Returns an event.
+     * @param t The index of the event among those kept, oldest first
+     * @return The event as a long; decode it with the static methods below
+     */
+    public long get(int t)
+    {
+        if (t < 0 || t >= size())
+            throw new IndexOutOfBoundsException("Event " + t + " of " + size());
+        return events[(int) ((count - size() + t) & mask)];
+    } // end get
+
+    /** @return The type of an event: LOOP, LINE, RULE or CELL */
+    public static int typeOf(long event)
+    {
+        return (int) (event >>> 60);
+    } // end typeOf
+
+    /** @return The loop number of a LOOP event or the index of a LINE event */
+    public static int indexOf(long event)
+    {
+        return (int) event;
+    } // end indexOf
+
+    /** @return Whether a LINE event visits a row or a column */
+    public static RowCol rowColOf(long event)
+    {
+        return ((event >>> 32) & 1) != 0 ? RowCol.Column : RowCol.Row;
+    } // end rowColOf
+
+    /** @return The rule of a RULE event */
+    public static Rule ruleOf(long event)
+    {
+        return RULES[(int) event];
+    } // end ruleOf
+
+    /** @return The row of a CELL event */
+    public static int rowOf(long event)
+    {
+        return (int) (event >>> 34) & 0xFFFFFF;
+    } // end rowOf
+
+    /** @return The column of a CELL event */
+    public static int columnOf(long event)
+    {
+        return (int) (event >>> 10) & 0xFFFFFF;
+    } // end columnOf
+
+    /** @return The new Status of a CELL event */
+    public static Status statusOf(long event)
+    {
+        return STATUS[(int) event & 3];
+    } // end statusOf
+
+    /** Describes an event in words.
+     * @param event The event
+     * @return A String such as "Row 3", "Rule Overlap" or "Cell (3, 4) -> True"
+     */
+    public static String toString(long event)
+    {
+        switch (typeOf(event))
+        {
+            case LOOP:
+                return "Loop " + indexOf(event);
+            case LINE:
+                return rowColOf(event) + " " + indexOf(event);
+            case RULE:
+                return "Rule " + ruleOf(event);
+            case CELL:
+                return "Cell (" + rowOf(event) + ", " + columnOf(event) + ") -> " + statusOf(event);
+            default:
+                return "Unknown event " + Long.toHexString(event);
+        } // end switch
+    } // end toString
+
+    /** Applies the CELL events in a range to a grid.
+     *  Replaying from 0 onto an Empty grid rebuilds the grid the solver had
+     *  after event to - 1, as long as no event was dropped.
+     * @param grid The grid to update, rows x columns
+     * @param from The index of the first event to apply
+     * @param to The index after the last event to apply
+     * @return The number of cells set
+     */
+    public int replay(Status[][] grid, int from, int to)
+    {
+        int cells = 0;
+        for (int t = from; t < to; t++)
+        {
+            long event = get(t);
+            if (typeOf(event) == CELL)
+            {
+                grid[rowOf(event)][columnOf(event)] = statusOf(event);
+                cells++;
+            } // end if
+        } // end for
+        return cells;
+    } // end replay
+
+    /** Replays every kept event onto an Empty grid.
+     * @return The grid after the last event
+     * @throws IllegalStateException if events were dropped, so the start is unknown
+     */
+    public Status[][] replay()
+    {
+        if (getDropped() > 0)
+            throw new IllegalStateException(getDropped() + " events were dropped; enlarge the buffer");
+        Status[][] grid = new Status[rows][cols];
+        for (Status[] row : grid)
+            Arrays.fill(row, Status.Empty);
+        replay(grid, 0, size());
+        return grid;
+    } // end replay
+
+    /** Writes the kept events to a file.
+     * @param file The file to write
+     * @throws IOException if the file can't be written
+     */
+    public void dump(File file) throws IOException
+    {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file))))
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(rows);
+            out.writeInt(cols);
+            out.writeLong(getDropped());
+            out.writeInt(size());
+            for (int t = 0; t < size(); t++)
+                out.writeLong(get(t));
+        } // end try
+    } // end dump
+
+    /** Reads a recording written by dump().
+     * @param file The file to read
+     * @return A recorder holding the events of the file
+     * @throws IOException if the file can't be read or is not a recording
+     */
+    public static SolveRecorder read(File file) throws IOException
+    {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file))))
+        {
+            if (in.readInt() != MAGIC)
+                throw new IOException(file + " is not a solve recording");
+            int version = in.readInt();
+            if (version != VERSION)
+                throw new IOException(file + " has unsupported version " + version);
+            int rows = in.readInt();
+            int cols = in.readInt();
+            long dropped = in.readLong();
+            int size = in.readInt();
+            SolveRecorder recorder = new SolveRecorder(rows, cols, Math.max(size, 1));
+            for (int t = 0; t < size; t++)
+                recorder.add(in.readLong());
+            recorder.lost = dropped;
+            return recorder;
+        } // end try
+    } // end read
+
+    /**
+     * @param args The dump file to print
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length != 1)
+        {
+            System.out.println("Usage: java main.SolveRecorder <dump file>");
+            return;
+        } // end if
+        SolveRecorder recorder = read(new File(args[0]));
+        System.out.println(recorder.rows + " x " + recorder.cols + " grid, " + recorder.size() +
+                           " events, " + recorder.getDropped() + " dropped");
+        for (int t = 0; t < recorder.size(); t++)
+        {
+            long event = recorder.get(t);
+            System.out.println((typeOf(event) == CELL || typeOf(event) == RULE ? "\t" : "") + toString(event));
+        } // end for
+    } // end main
+
+    // Appends an event, overwriting the oldest when the buffer is full.
+    private void add(long event)
+    {
+        events[(int) (count & mask)] = event;
+        count++;
+    } // end add
+} // end SolveRecorder
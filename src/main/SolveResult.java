@@ -0,0 +1,112 @@
+package main;
+
+/*
+ * A class that holds the outcome of NonogramSolution.solve():
+ * how the run ended, the cells decided so far, and the work it took.
+ */
+
+public class SolveResult
+{
+    private final SolveStatus status;   // How the run ended
+    private final Status[][] grid;      // Cells decided so far; Empty where undecided
+    private final int loopCount;        // Number of loops run
+    private final int lineSolveCount;   // Number of rows/columns solved
+    private final int[] decidedPerLoop; // Cells decided by each loop
+    private final int[] openRows;       // Rows with Empty cells left
+    private final int[] openColumns;    // Columns with Empty cells left
+
+    /** Creates a result.
+     * @param status How the run ended
+     * @param grid A 2D array of Status of each cell
+     * @param loopCount The number of loops run
+     * @param lineSolveCount The number of rows/columns solved
+     * @param decidedPerLoop The number of cells decided by each loop
+     * @param openRows Indices of the rows with Empty cells left
+     * @param openColumns Indices of the columns with Empty cells left
+     */
+    public SolveResult(SolveStatus status, Status[][] grid, int loopCount, int lineSolveCount,
+                       int[] decidedPerLoop, int[] openRows, int[] openColumns)
+    {
+        this.status = status;
+        this.grid = grid;
+        this.loopCount = loopCount;
+        this.lineSolveCount = lineSolveCount;
+        this.decidedPerLoop = decidedPerLoop;
+        this.openRows = openRows;
+        this.openColumns = openColumns;
+    } // end constructor
+
+    /** Returns how the run ended.
+     * @return Solved, Stalled or Contradiction
+     */
+    public SolveStatus getStatus()
+    {
+        return status;
+    } // end getStatus
+
+    /** Returns true if every cell is decided.
+     * @return true if the status is Solved
+     */
+    public boolean isSolved()
+    {
+        return status == SolveStatus.Solved;
+    } // end isSolved
+
+    /** Returns the cells decided when the run ended.
+     * @return A 2D array of Status of each cell; Empty where undecided
+     */
+    public Status[][] getGrid()
+    {
+        return grid;
+    } // end getGrid
+
+    /** Returns the number of loops run.
+     * @return An integer containing the loop count
+     */
+    public int getLoopCount()
+    {
+        return loopCount;
+    } // end getLoopCount
+
+    /** Returns the number of rows/columns solved.
+     * @return An integer containing the number of line solves
+     */
+    public int getLineSolveCount()
+    {
+        return lineSolveCount;
+    } // end getLineSolveCount
+
+    /** Returns the number of cells decided by each loop, in order.
+     * @return An integer array with one entry per loop
+     */
+    public int[] getDecidedPerLoop()
+    {
+        return decidedPerLoop;
+    } // end getDecidedPerLoop
+
+    /** Returns the rows that still have Empty cells.
+     * @return An integer array of row indices
+     */
+    public int[] getOpenRows()
+    {
+        return openRows;
+    } // end getOpenRows
+
+    /** Returns the columns that still have Empty cells.
+     * @return An integer array of column indices
+     */
+    public int[] getOpenColumns()
+    {
+        return openColumns;
+    } // end getOpenColumns
+
+    /** Construct a string that summarizes the result.
+     * @return A String with the status, the loop count and the number of open lines
+     */
+    @Override
+    public String toString()
+    {
+        return status + " after " + loopCount + " loops (" + lineSolveCount + " line solves, " +
+               openRows.length + " open rows, " + openColumns.length + " open columns)";
+    } // end toString
+} // end SolveResult
@@ -0,0 +1,15 @@
+package main;
+
+/*
+    A class that indicates how a solver run ended.
+
+    Solved: every cell is decided and every row/column matches its array.
+    Stalled: the solver stopped with cells still undecided.
+    Contradiction: a row or a column has no valid placement, or the
+                   decided grid breaks an array.
+ */
+
+public enum SolveStatus 
+{
+    Solved, Stalled, Contradiction
+}
@@ -0,0 +1,50 @@
+package main;
+
+/*
+ * A class that prints the solver's trace.
+ *
+ * The level is read once from the system property nonogram.trace
+ * (off, loop, line or rule; off by default), e.g.
+ *
+ *  java -Dnonogram.trace=rule main.NongramTest
+ *
+ * Callers check the level before building a message:
+ *
+ *  if (Trace.RULE)
+ *      Trace.println("\t" + printCells(arrayAnswer));
+ *
+ * The flags are static final, so with tracing off the JIT drops the whole
+ * statement and no string is built or printed.
+ */
+
+import java.util.Locale;
+public final class Trace
+{
+    private static final TraceLevel LEVEL = parse(System.getProperty("nonogram.trace"));
+    public static final boolean LOOP = LEVEL.compareTo(TraceLevel.Loop) >= 0;
+    public static final boolean LINE = LEVEL.compareTo(TraceLevel.Line) >= 0;
+    public static final boolean RULE = LEVEL.compareTo(TraceLevel.Rule) >= 0;
+
+    private Trace()
+    {
+    } // end constructor
+
+    /** Prints a line of trace to System.out.
+     * @param message The message; built by the caller after checking the level
+     */
+    public static void println(String message)
+    {
+        System.out.println(message);
+    } // end println
+
+    // Reads a level name, ignoring case; unknown names turn tracing off.
+    private static TraceLevel parse(String name)
+    {
+        if (name == null)
+            return TraceLevel.Off;
+        for (TraceLevel level : TraceLevel.values())
+            if (level.name().toLowerCase(Locale.ROOT).equals(name.trim().toLowerCase(Locale.ROOT)))
+                return level;
+        return TraceLevel.Off;
+    } // end parse
+} // end Trace
@@ -0,0 +1,15 @@
+package main;
+
+/*
+    A class that represents how much of the solver's work is traced.
+
+    Off: nothing is printed.
+    Loop: the start of each loop, stalls and the search.
+    Line: also each row/column solved and its cells afterwards.
+    Rule: also every rule that fires within a row/column.
+ */
+
+public enum TraceLevel 
+{
+    Off, Loop, Line, Rule
+}